@@ -1,8 +1,8 @@
 import symulator.*;
 
 import java.io.*;
-import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Klasa reprezentująca symulator epidemii.
@@ -17,28 +17,15 @@ public class Symulacja {
      *
      * @param args
      */
-    public static void main(String[] args) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
-        StringBuilder wynikSymulacji = new StringBuilder();
-
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
         Konfiguracja k = new Konfiguracja(args);
         k.czytajParametry();
-        wynikSymulacji.append(k.toString());
-        wynikSymulacji.append(System.lineSeparator());
-
-        Populacja p = new Populacja(k);
-
 
-        wynikSymulacji.append(p.symulacja(new ArrayList<>(Arrays.asList(AgentTowarzyski.class
-                .getConstructor(int.class, Stan.class, Konfiguracja.class), AgentZwykly.class
-                .getConstructor(int.class, Stan.class, Konfiguracja.class)))));
+        List<RodzajAgenta> rodzaje = RodzajAgenta.wczytaj();
 
-        wynikSymulacji.setLength(wynikSymulacji.length() - 1);
-        PrintWriter writer;
         try {
-            writer = new PrintWriter(k.getPlikZRaportem(), "UTF-8");
-            writer.print(wynikSymulacji);
-            writer.close();
-        } catch (Exception e) {
+            Uruchomienie.symulacja(k, rodzaje);
+        } catch (IOException | UncheckedIOException e) {
             System.exit(1);
         }
     }
@@ -0,0 +1,105 @@
+package symulator;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Uruchamia benchmarki symulatora z profilerem GC i zapisuje wyniki (przepustowość i liczbę
+ * bajtów alokowanych na operację) do pliku wyniki.properties (właściwość -Dwyniki).
+ * Jeśli podano plik z wynikami bazowymi (-Dbazowe), wyniki są z nimi porównywane. Spadek
+ * przepustowości albo wzrost alokacji o więcej niż tolerancja (-Dtolerancja, domyślnie 0.1)
+ * jest regresją - regresje są wypisywane, a program kończy się kodem 1.
+ * Argumenty wywołania są argumentami JMH.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class Benchmarki {
+    /**
+     * Przyrostek klucza liczby bajtów alokowanych na operację.
+     */
+    private static final String ALOKACJA = ".alokacja";
+
+    /**
+     * Uruchamia benchmarki i porównuje wyniki z bazowymi.
+     *
+     * @param args - argumenty JMH.
+     */
+    public static void main(String[] args) throws Exception {
+        Options opcje = new OptionsBuilder().parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class).build();
+        Properties wyniki = new Properties();
+        for (RunResult wynik : new Runner(opcje).run()) {
+            String klucz = klucz(wynik);
+            wyniki.setProperty(klucz, Double.toString(wynik.getPrimaryResult().getScore()));
+            Result alokacja = wynik.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (alokacja != null)
+                wyniki.setProperty(klucz + ALOKACJA, Double.toString(alokacja.getScore()));
+        }
+        try (OutputStream wyjście = Files.newOutputStream(Paths.get(
+                System.getProperty("wyniki", "wyniki.properties")))) {
+            wyniki.store(wyjście, "Przepustowość [op/s] i alokacja [B/op]");
+        }
+
+        String plikBazowy = System.getProperty("bazowe");
+        if (plikBazowy == null) return;
+        Properties bazowe = new Properties();
+        try (InputStream wejście = Files.newInputStream(Paths.get(plikBazowy))) {
+            bazowe.load(wejście);
+        }
+        List<String> regresje = regresje(bazowe, wyniki,
+                Double.parseDouble(System.getProperty("tolerancja", "0.1")));
+        for (String regresja : regresje) System.out.println(regresja);
+        if (!regresje.isEmpty()) System.exit(1);
+    }
+
+    /**
+     * Zwraca klucz wyniku - nazwę benchmarku z wartościami parametrów.
+     *
+     * @param wynik - wynik benchmarku.
+     * @return Klucz wyniku.
+     */
+    private static String klucz(RunResult wynik) {
+        StringBuilder klucz = new StringBuilder(wynik.getParams().getBenchmark());
+        for (String parametr : new TreeSet<>(wynik.getParams().getParamsKeys()))
+            klucz.append(':').append(parametr).append('=').append(wynik.getParams()
+                    .getParam(parametr));
+        return klucz.toString();
+    }
+
+    /**
+     * Porównuje wyniki z wynikami bazowymi. Pomijane są benchmarki, których nie ma w obu
+     * zbiorach wyników.
+     *
+     * @param bazowe     - wyniki bazowe;
+     * @param wyniki     - nowe wyniki;
+     * @param tolerancja - dopuszczalna względna zmiana wyniku.
+     * @return Opisy regresji.
+     */
+    private static List<String> regresje(Properties bazowe, Properties wyniki,
+                                         double tolerancja) {
+        List<String> regresje = new ArrayList<>();
+        for (String klucz : new TreeSet<>(wyniki.stringPropertyNames())) {
+            String bazowy = bazowe.getProperty(klucz);
+            if (bazowy == null) continue;
+            double przed = Double.parseDouble(bazowy);
+            double po = Double.parseDouble(wyniki.getProperty(klucz));
+            boolean regresja = klucz.endsWith(ALOKACJA) ? po > przed * (1 + tolerancja) :
+                    po < przed * (1 - tolerancja);
+            if (regresja) regresje.add("Regresja " + klucz + ": " + przed + " -> " + po);
+        }
+        return regresje;
+    }
+}
@@ -0,0 +1,72 @@
+package symulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark jednego dnia symulacji (symulacjaDnia) w trzech fazach epidemii: na początku
+ * (pierwszy dzień z co najmniej 1% chorych w szczycie), w szczycie (dzień z największą
+ * liczbą chorych) i pod koniec (pierwszy dzień po szczycie z co najwyżej 10% chorych
+ * w szczycie). Dni faz wyznaczane są z przebiegu całej symulacji (150 dni, żeby epidemia
+ * zdążyła wygasnąć), a przed każdym wywołaniem symulacja przeprowadzana jest od początku do
+ * dnia poprzedzającego.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DzienSymulacjiBenchmark {
+    @Param({"obiektowy", "kolumnowy"})
+    public String silnik;
+    @Param({"początek", "szczyt", "schyłek"})
+    public String faza;
+
+    private Konfiguracja parametry;
+    private MethodHandle symulacjaDnia;
+    private int dzień;
+    private Object populacja;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        parametry = Przygotowanie.konfiguracja("silnik", silnik, "liczbaDni", "150");
+        Class<?> klasa = (parametry.getSilnik() == Silnik.KOLUMNOWY) ? PopulacjaKolumnowa.class :
+                Populacja.class;
+        symulacjaDnia = Przygotowanie.metoda(klasa, "symulacjaDnia", void.class, int.class);
+        int[] chorzy = Przygotowanie.chorzy(parametry);
+        int szczyt = 1;
+        for (int d = 1; d < chorzy.length; d++) {
+            if (chorzy[d] > chorzy[szczyt]) szczyt = d;
+        }
+        if (chorzy[szczyt] < 100) throw new IllegalStateException("Epidemia wygasła");
+        switch (faza) {
+            case "początek":
+                dzień = 1;
+                while (chorzy[dzień] < chorzy[szczyt] / 100) dzień++;
+                break;
+            case "szczyt":
+                dzień = szczyt;
+                break;
+            default:
+                dzień = szczyt;
+                while (dzień < chorzy.length - 1 && chorzy[dzień] > chorzy[szczyt] / 10) dzień++;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void dzieńPoprzedni() {
+        populacja = Przygotowanie.populacja(parametry, dzień - 1);
+    }
+
+    @Benchmark
+    public Object symulacjaDnia() throws Throwable {
+        symulacjaDnia.invoke(populacja, dzień);
+        return populacja;
+    }
+}
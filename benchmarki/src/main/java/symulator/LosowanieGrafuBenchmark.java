@@ -0,0 +1,58 @@
+package symulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark losowania grafu społecznościowego (Populacja.losowanieGrafu) dla różnych
+ * liczb agentów, średnich liczb znajomych i generatorów grafu.
+ * Przed każdym wywołaniem losowana jest nowa populacja bez znajomych.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LosowanieGrafuBenchmark {
+    @Param({"1000", "5000"})
+    public int liczbaAgentów;
+    @Param({"5", "20"})
+    public int śrZnajomych;
+    @Param({"zgodny", "liniowy"})
+    public String generatorGrafu;
+
+    private Konfiguracja parametry;
+    private List<RodzajAgenta> rodzaje;
+    private MethodHandle losowanieAgentów;
+    private MethodHandle losowanieGrafu;
+    private Populacja populacja;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        parametry = Przygotowanie.konfiguracja("liczbaAgentów", Integer.toString(liczbaAgentów),
+                "śrZnajomych", Integer.toString(śrZnajomych), "generatorGrafu", generatorGrafu);
+        rodzaje = Przygotowanie.rodzaje();
+        losowanieAgentów = Przygotowanie.metoda(Populacja.class, "losowanieAgentów", void.class,
+                List.class);
+        losowanieGrafu = Przygotowanie.metoda(Populacja.class, "losowanieGrafu", void.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nowaPopulacja() throws Throwable {
+        populacja = new Populacja(parametry.replikacja(parametry.getSeed()));
+        losowanieAgentów.invoke(populacja, rodzaje);
+    }
+
+    @Benchmark
+    public Populacja losowanieGrafu() throws Throwable {
+        losowanieGrafu.invoke(populacja);
+        return populacja;
+    }
+}
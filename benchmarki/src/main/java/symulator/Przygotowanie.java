@@ -0,0 +1,175 @@
+package symulator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Klasa pomocnicza benchmarków - tworzy konfiguracje i populacje w zadanym dniu symulacji
+ * oraz udostępnia prywatne metody populacji.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class Przygotowanie {
+    /**
+     * Domyślne parametry populacji benchmarków. Dla seeda 3 epidemia w populacji 20000
+     * agentów obejmuje większość populacji.
+     */
+    private static final String[] DOMYŚLNE = {
+            "seed", "3",
+            "liczbaAgentów", "20000",
+            "prawdTowarzyski", "0.3",
+            "prawdSpotkania", "0.3",
+            "prawdZarażenia", "0.6",
+            "prawdWyzdrowienia", "0.05",
+            "śmiertelność", "0.01",
+            "liczbaDni", "60",
+            "śrZnajomych", "10",
+            "plikZRaportem", "raport.txt",
+            "generatorGrafu", "liniowy"};
+
+    /**
+     * Wyjątek przerywający symulację po zadanym dniu.
+     */
+    private static final class Zatrzymanie extends RuntimeException {
+        Zatrzymanie() {
+            super(null, null, false, false);
+        }
+    }
+
+    private Przygotowanie() {
+    }
+
+    /**
+     * Tworzy konfigurację z domyślnych parametrów benchmarków zmienionych przez podane pary.
+     * Parametry zapisywane są do plików tymczasowych, z których czyta je Konfiguracja.
+     *
+     * @param pary - kolejne pary klucz, wartość.
+     * @return Nowa konfiguracja.
+     */
+    static Konfiguracja konfiguracja(String... pary) {
+        Map<String, String> parametry = new LinkedHashMap<>();
+        for (int i = 0; i < DOMYŚLNE.length; i += 2)
+            parametry.put(DOMYŚLNE[i], DOMYŚLNE[i + 1]);
+        for (int i = 0; i < pary.length; i += 2) parametry.put(pary[i], pary[i + 1]);
+        try {
+            Path prop = Files.createTempFile("benchmark", ".properties");
+            Path xml = Files.createTempFile("benchmark", ".xml");
+            try (Writer wyjście = Files.newBufferedWriter(prop, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> e : parametry.entrySet())
+                    wyjście.write(e.getKey() + "=" + e.getValue() + System.lineSeparator());
+            }
+            try (OutputStream wyjście = Files.newOutputStream(xml)) {
+                new Properties().storeToXML(wyjście, null);
+            }
+            Konfiguracja k = new Konfiguracja(new String[]{prop.toString(), xml.toString()});
+            k.czytajParametry();
+            Files.delete(prop);
+            Files.delete(xml);
+            return k;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Zwraca rodzaje agentów używane przez Symulacja.
+     *
+     * @return Lista rodzajów.
+     */
+    static List<RodzajAgenta> rodzaje() {
+        return RodzajAgenta.wczytaj();
+    }
+
+    /**
+     * Zwraca uchwyt do prywatnej metody klasy.
+     *
+     * @param klasa     - klasa;
+     * @param nazwa     - nazwa metody;
+     * @param typ       - typ wyniku;
+     * @param argumenty - typy argumentów.
+     * @return Uchwyt metody.
+     */
+    static MethodHandle metoda(Class<?> klasa, String nazwa, Class<?> typ,
+                               Class<?>... argumenty) {
+        try {
+            return MethodHandles.privateLookupIn(klasa, MethodHandles.lookup())
+                    .findVirtual(klasa, nazwa, MethodType.methodType(typ, argumenty));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Zwraca wartość prywatnego pola obiektu.
+     *
+     * @param obiekt - obiekt;
+     * @param nazwa  - nazwa pola.
+     * @return Wartość pola.
+     */
+    static Object pole(Object obiekt, String nazwa) {
+        try {
+            return MethodHandles.privateLookupIn(obiekt.getClass(), MethodHandles.lookup())
+                    .unreflectGetter(obiekt.getClass().getDeclaredField(nazwa)).invoke(obiekt);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Tworzy populację i przeprowadza symulację do końca danego dnia.
+     * Konfiguracja nie jest zmieniana - populacja losuje z kopii jej maszyny losującej.
+     *
+     * @param parametry - parametry symulacji;
+     * @param nrDnia    - numer ostatniego przeprowadzanego dnia (0 - tylko losowanie).
+     * @return Obiekt klasy Populacja albo PopulacjaKolumnowa, zależnie od silnika.
+     */
+    static Object populacja(Konfiguracja parametry, int nrDnia) {
+        Konfiguracja k = parametry.replikacja(parametry.getSeed());
+        ObserwatorDnia obserwator = (dzień, licznik) -> {
+            if (dzień == nrDnia) throw new Zatrzymanie();
+        };
+        if (k.getSilnik() == Silnik.KOLUMNOWY) {
+            PopulacjaKolumnowa populacja = new PopulacjaKolumnowa(k, rodzaje());
+            try {
+                populacja.symulacja(obserwator);
+            } catch (Zatrzymanie e) {
+                return populacja;
+            }
+        } else {
+            Populacja populacja = new Populacja(k);
+            try {
+                populacja.symulacja(rodzaje(), obserwator);
+            } catch (Zatrzymanie e) {
+                return populacja;
+            }
+        }
+        throw new IllegalArgumentException("Symulacja nie ma dnia " + nrDnia);
+    }
+
+    /**
+     * Zwraca liczby chorych po kolejnych dniach symulacji.
+     *
+     * @param parametry - parametry symulacji.
+     * @return Tablica liczb chorych (indeksowana numerem dnia).
+     */
+    static int[] chorzy(Konfiguracja parametry) {
+        int[] chorzy = new int[parametry.getLiczbaDni() + 1];
+        Konfiguracja k = parametry.replikacja(parametry.getSeed());
+        ObserwatorDnia obserwator = (dzień, licznik) ->
+                chorzy[dzień] = licznik.liczba(Stan.CHORY);
+        if (k.getSilnik() == Silnik.KOLUMNOWY)
+            new PopulacjaKolumnowa(k, rodzaje()).symulacja(obserwator);
+        else new Populacja(k).symulacja(rodzaje(), obserwator);
+        return chorzy;
+    }
+}
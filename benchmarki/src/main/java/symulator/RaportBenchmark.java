@@ -0,0 +1,37 @@
+package symulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark tworzenia opisu początkowej sieci społecznościowej w raporcie (toString populacji).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RaportBenchmark {
+    @Param({"obiektowy", "kolumnowy"})
+    public String silnik;
+    @Param({"20000", "100000"})
+    public int liczbaAgentów;
+
+    private Object populacja;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        populacja = Przygotowanie.populacja(Przygotowanie.konfiguracja("silnik", silnik,
+                "liczbaAgentów", Integer.toString(liczbaAgentów)), 0);
+    }
+
+    @Benchmark
+    public String toString() {
+        return populacja.toString();
+    }
+}
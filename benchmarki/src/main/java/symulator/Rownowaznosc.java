@@ -0,0 +1,124 @@
+package symulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Klasa pomocnicza sprawdzianów statystycznych - porównuje rozkłady miar epidemii w dwóch
+ * wariantach symulacji, które powinny być równoważne statystycznie (a nie co do bitu).
+ * Każdy wariant przeprowadza tę samą liczbę replikacji z seedami Zespol.seedReplikacji
+ * wyznaczonymi z innego seeda - przy wspólnym seedzie pary replikacji miałyby ten sam graf
+ * i pierwszego zarażonego, a próby nie byłyby niezależne. Rozkłady każdej miary porównywane
+ * są dwupróbkowym testem Kołmogorowa-Smirnowa na poziomie istotności POZIOM. Seedy są stałe,
+ * więc wynik sprawdzianu jest powtarzalny.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class Rownowaznosc {
+    /**
+     * Poziom istotności pojedynczego testu.
+     */
+    static final double POZIOM = 0.01;
+    /**
+     * Nazwy miar w kolejności wierszy wyniku metody miary.
+     */
+    static final String[] MIARY = {"zarażeni", "zmarli", "uodpornieni", "szczyt"};
+
+    private Rownowaznosc() {
+    }
+
+    /**
+     * Przeprowadza replikacje symulacji i zbiera ich miary: liczbę zarażonych (agentów, którzy
+     * nie są zdrowi na końcu), zmarłych i uodpornionych na końcu oraz największą liczbę chorych.
+     *
+     * @param parametry  - parametry symulacji;
+     * @param seed       - seed, z którego wyznaczane są seedy replikacji;
+     * @param replikacje - liczba replikacji.
+     * @return Tablica miar indeksowana numerem miary (patrz MIARY) i numerem replikacji.
+     */
+    static double[][] miary(Konfiguracja parametry, long seed, int replikacje) {
+        int n = parametry.getLiczbaAgentów();
+        double[][] miary = new double[MIARY.length][replikacje];
+        List<RodzajAgenta> rodzaje = Przygotowanie.rodzaje();
+        for (int r = 0; r < replikacje; r++) {
+            Konfiguracja k = parametry.replikacja(Zespol.seedReplikacji(seed, r + 1));
+            int[] koniec = new int[4];
+            ObserwatorDnia obserwator = (dzień, licznik) -> {
+                koniec[0] = licznik.liczba(Stan.ZDROWY);
+                koniec[1] = licznik.liczba(Stan.CHORY);
+                koniec[2] = licznik.liczba(Stan.UODPORNIONY);
+                koniec[3] = Math.max(koniec[3], koniec[1]);
+            };
+            if (k.getSilnik() == Silnik.KOLUMNOWY)
+                new PopulacjaKolumnowa(k, rodzaje).symulacja(obserwator);
+            else new Populacja(k).symulacja(rodzaje, obserwator);
+            miary[0][r] = n - koniec[0];
+            miary[1][r] = n - koniec[0] - koniec[1] - koniec[2];
+            miary[2][r] = koniec[2];
+            miary[3][r] = koniec[3];
+        }
+        return miary;
+    }
+
+    /**
+     * Porównuje rozkłady wszystkich miar dwóch wariantów i wypisuje wyniki testów.
+     *
+     * @param opis - opis porównywanych wariantów;
+     * @param x    - miary pierwszego wariantu (wynik metody miary);
+     * @param y    - miary drugiego wariantu.
+     * @return Wartość true, jeśli żaden test nie odrzucił równoważności, wpp. false.
+     */
+    static boolean porównaj(String opis, double[][] x, double[][] y) {
+        System.out.println(opis);
+        boolean zgodne = true;
+        for (int m = 0; m < MIARY.length; m++) {
+            double d = statystykaKS(x[m], y[m]);
+            double próg = progKS(x[m].length, y[m].length);
+            System.out.println(String.format(Locale.ROOT,
+                    "  %-12s średnie %10.2f %10.2f  D=%.4f  próg=%.4f%s", MIARY[m],
+                    Arrays.stream(x[m]).average().orElse(0),
+                    Arrays.stream(y[m]).average().orElse(0), d, próg,
+                    (d > próg) ? "  ODRZUCONE" : ""));
+            if (d > próg) zgodne = false;
+        }
+        return zgodne;
+    }
+
+    /**
+     * Zwraca statystykę D dwupróbkowego testu Kołmogorowa-Smirnowa - największą różnicę
+     * dystrybuant empirycznych prób.
+     *
+     * @param x - pierwsza próba;
+     * @param y - druga próba.
+     * @return Statystyka D.
+     */
+    static double statystykaKS(double[] x, double[] y) {
+        x = x.clone();
+        y = y.clone();
+        Arrays.sort(x);
+        Arrays.sort(y);
+        int i = 0;
+        int j = 0;
+        double d = 0;
+        while (i < x.length && j < y.length) {
+            double wartość = Math.min(x[i], y[j]);
+            while (i < x.length && x[i] == wartość) i++;
+            while (j < y.length && y[j] == wartość) j++;
+            d = Math.max(d, Math.abs((double) i / x.length - (double) j / y.length));
+        }
+        return d;
+    }
+
+    /**
+     * Zwraca asymptotyczną wartość krytyczną statystyki D na poziomie istotności POZIOM.
+     *
+     * @param n - liczność pierwszej próby;
+     * @param m - liczność drugiej próby.
+     * @return Wartość krytyczna.
+     */
+    static double progKS(int n, int m) {
+        return Math.sqrt(-Math.log(POZIOM / 2) / 2 * (n + m) / ((double) n * m));
+    }
+}
@@ -0,0 +1,129 @@
+package symulator;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Sprawdzian statystyczny zbiorczego przebiegu choroby (parametr opcjonalny
+ * przebiegChoroby=zbiorczy, klasa PrzebiegZbiorczy).
+ * Najpierw sprawdzana jest zgodność losowania PrzebiegZbiorczy.dwumianowy z rozkładem
+ * dwumianowym testem chi-kwadrat dla małych i dużych liczb prób oraz prawdopodobieństw
+ * z obu stron 0.5 (obie metody losowania i odbicie p > 0.5). Następnie rozkłady miar
+ * (patrz Rownowaznosc) przy losowaniu dla każdego zarażonego osobno i zbiorczo porównywane są
+ * dla obu silników. Jedynym argumentem jest liczba replikacji (domyślnie 500).
+ * Program kończy się kodem 1, jeśli któryś test odrzucił zgodność.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class RownowaznoscPrzebiegu {
+    /**
+     * Liczby prób i prawdopodobieństwa sprawdzanych rozkładów dwumianowych.
+     */
+    private static final int[] LICZBY_PRÓB = {10, 100, 1000, 100000};
+    private static final double[] PRAWDOPODOBIEŃSTWA = {0.01, 0.05, 0.3, 0.5, 0.7, 0.999};
+    /**
+     * Liczba losowań z każdego rozkładu dwumianowego.
+     */
+    private static final int LOSOWANIA = 200000;
+    /**
+     * Najmniejsza oczekiwana liczność klasy w teście chi-kwadrat - klasy o mniejszej
+     * liczności są łączone.
+     */
+    private static final double MIN_LICZNOŚĆ = 5;
+    /**
+     * Kwantyl rzędu 0.999 standardowego rozkładu normalnego - pojedynczy test chi-kwadrat
+     * przeprowadzany jest na poziomie istotności 0.001, żeby wszystkie rozkłady naraz
+     * sprawdzane były na poziomie około 2.5%.
+     */
+    private static final double KWANTYL_NORMALNY = 3.090;
+
+    /**
+     * Sprawdza losowanie dwumianowe i porównuje przebieg choroby osobno i zbiorczo.
+     *
+     * @param args - liczba replikacji.
+     */
+    public static void main(String[] args) {
+        int replikacje = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+        boolean zgodne = true;
+        Random maszynaLosująca = new MaszynaLosujaca.Zgodna(7);
+        System.out.println("PrzebiegZbiorczy.dwumianowy / rozkład dwumianowy");
+        for (int n : LICZBY_PRÓB)
+            for (double p : PRAWDOPODOBIEŃSTWA) zgodne &= dwumianowy(maszynaLosująca, n, p);
+
+        for (Silnik silnik : Silnik.values()) {
+            String[] parametry = {"liczbaAgentów", "3000", "prawdZarażenia", "0.8",
+                    "prawdWyzdrowienia", "0.05", "śmiertelność", "0.02", "liczbaDni", "40",
+                    "silnik", silnik.name().toLowerCase(Locale.ROOT), "przebiegChoroby", ""};
+            parametry[parametry.length - 1] = "indywidualny";
+            double[][] osobno = Rownowaznosc.miary(Przygotowanie.konfiguracja(parametry), 99,
+                    replikacje);
+            parametry[parametry.length - 1] = "zbiorczy";
+            double[][] zbiorczo = Rownowaznosc.miary(Przygotowanie.konfiguracja(parametry), 100,
+                    replikacje);
+            zgodne &= Rownowaznosc.porównaj("silnik=" + parametry[11] +
+                    ": przebiegChoroby=indywidualny / przebiegChoroby=zbiorczy", osobno, zbiorczo);
+        }
+        if (!zgodne) System.exit(1);
+    }
+
+    /**
+     * Sprawdza testem chi-kwadrat zgodność LOSOWANIA liczb z PrzebiegZbiorczy.dwumianowy
+     * z rozkładem dwumianowym i wypisuje wynik.
+     *
+     * @param maszynaLosująca - źródło liczb losowych;
+     * @param n               - liczba prób;
+     * @param p               - prawdopodobieństwo sukcesu.
+     * @return Wartość true, jeśli test nie odrzucił zgodności, wpp. false.
+     */
+    private static boolean dwumianowy(Random maszynaLosująca, int n, double p) {
+        long[] liczności = new long[n + 1];
+        for (int i = 0; i < LOSOWANIA; i++)
+            liczności[PrzebiegZbiorczy.dwumianowy(maszynaLosująca, n, p)]++;
+        double[] logarytmySilni = new double[n + 1];
+        for (int k = 2; k <= n; k++) logarytmySilni[k] = logarytmySilni[k - 1] + Math.log(k);
+
+        double chiKwadrat = 0;
+        int klasy = 0;
+        double oczekiwanaReszta = 0;
+        long reszta = 0;
+        for (int k = 0; k <= n; k++) {
+            double oczekiwana = LOSOWANIA * Math.exp(logarytmySilni[n] - logarytmySilni[k] -
+                    logarytmySilni[n - k] + k * Math.log(p) + (n - k) * Math.log1p(-p));
+            if (oczekiwana >= MIN_LICZNOŚĆ) {
+                chiKwadrat += (liczności[k] - oczekiwana) * (liczności[k] - oczekiwana) /
+                        oczekiwana;
+                klasy++;
+            } else {
+                oczekiwanaReszta += oczekiwana;
+                reszta += liczności[k];
+            }
+        }
+        if (oczekiwanaReszta >= MIN_LICZNOŚĆ) {
+            chiKwadrat += (reszta - oczekiwanaReszta) * (reszta - oczekiwanaReszta) /
+                    oczekiwanaReszta;
+            klasy++;
+        } else if (oczekiwanaReszta == 0 && reszta > 0) {
+            chiKwadrat = Double.POSITIVE_INFINITY;
+        }
+        int stopnie = Math.max(klasy - 1, 1);
+        double próg = progChiKwadrat(stopnie);
+        System.out.println(String.format(Locale.ROOT,
+                "  n=%-6d p=%-5s chi2=%9.2f  stopnie=%4d  próg=%9.2f%s", n, p, chiKwadrat,
+                stopnie, próg, (chiKwadrat > próg) ? "  ODRZUCONE" : ""));
+        return chiKwadrat <= próg;
+    }
+
+    /**
+     * Zwraca wartość krytyczną rozkładu chi-kwadrat na poziomie istotności 0.001 (przybliżenie
+     * Wilsona-Hilferty'ego).
+     *
+     * @param stopnie - liczba stopni swobody.
+     * @return Wartość krytyczna.
+     */
+    private static double progChiKwadrat(int stopnie) {
+        double w = 2.0 / (9 * stopnie);
+        double podstawa = 1 - w + KWANTYL_NORMALNY * Math.sqrt(w);
+        return stopnie * podstawa * podstawa * podstawa;
+    }
+}
@@ -0,0 +1,51 @@
+package symulator;
+
+import java.util.Arrays;
+
+/**
+ * Sprawdzian statystyczny zbiorczych spotkań (parametr opcjonalny spotkania=zbiorcze).
+ * Spotkania pary agentów w jednym dniu rozstrzygane jednym losowaniem z prawdopodobieństwem
+ * 1 - (1 - prawdZarażenia)^k nie dają tych samych raportów co k osobnych losowań, ale rozkład
+ * przebiegu epidemii powinien być ten sam. Sprawdzian porównuje rozkłady miar (patrz
+ * Rownowaznosc) w populacji z małą liczbą znajomych i częstymi spotkaniami, w której pary
+ * spotykają się wielokrotnie. Jedynym argumentem jest liczba replikacji (domyślnie 1000).
+ * Program kończy się kodem 1, jeśli któryś test odrzucił równoważność.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class RownowaznoscSpotkan {
+
+    /**
+     * Porównuje osobne i zbiorcze spotkania.
+     *
+     * @param args - liczba replikacji.
+     */
+    public static void main(String[] args) {
+        int replikacje = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        String[] parametry = {"liczbaAgentów", "2000", "śrZnajomych", "3",
+                "prawdSpotkania", "0.9", "prawdZarażenia", "0.15", "prawdWyzdrowienia", "0.1",
+                "śmiertelność", "0.01", "liczbaDni", "20", "silnik", "kolumnowy",
+                "dni", "równoległe"};
+        double[][] osobne = Rownowaznosc.miary(konfiguracja(parametry, "osobne"), 7,
+                replikacje);
+        double[][] zbiorcze = Rownowaznosc.miary(konfiguracja(parametry, "zbiorcze"), 8,
+                replikacje);
+        if (!Rownowaznosc.porównaj("spotkania=osobne / spotkania=zbiorcze", osobne, zbiorcze))
+            System.exit(1);
+    }
+
+    /**
+     * Tworzy konfigurację z podanych parametrów i rodzaju spotkań.
+     *
+     * @param parametry - kolejne pary klucz, wartość;
+     * @param spotkania - wartość parametru spotkania.
+     * @return Nowa konfiguracja.
+     */
+    private static Konfiguracja konfiguracja(String[] parametry, String spotkania) {
+        String[] pary = Arrays.copyOf(parametry, parametry.length + 2);
+        pary[parametry.length] = "spotkania";
+        pary[parametry.length + 1] = spotkania;
+        return Przygotowanie.konfiguracja(pary);
+    }
+}
@@ -0,0 +1,55 @@
+package symulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark śmierci agentów (Agent.śmierć) wraz z ponownym wyznaczaniem znajomych znajomych
+ * agentów towarzyskich w ich otoczeniu, tak jak na początku dnia (Populacja.początekDnia).
+ * Przed każdym wywołaniem losowana jest nowa populacja, w której zgony wylosowanych agentów
+ * zarażonych są pewne (śmiertelność 1).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmiercBenchmark {
+    @Param({"1", "100", "1000"})
+    public int zgony;
+    @Param({"10", "40"})
+    public int śrZnajomych;
+
+    private Konfiguracja parametry;
+    private MethodHandle początekDnia;
+    private Populacja populacja;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        parametry = Przygotowanie.konfiguracja("śrZnajomych", Integer.toString(śrZnajomych),
+                "śmiertelność", "1");
+        początekDnia = Przygotowanie.metoda(Populacja.class, "początekDnia", void.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nowaPopulacja() {
+        populacja = (Populacja) Przygotowanie.populacja(parametry, 0);
+        Agent[] agenci = (Agent[]) Przygotowanie.pole(populacja, "agenciWgNumeru");
+        Random maszynaLosująca = new Random(zgony);
+        for (int i = 0; i < zgony; i++)
+            agenci[maszynaLosująca.nextInt(agenci.length)].setStan(Stan.CHORY);
+    }
+
+    @Benchmark
+    public Populacja śmierć() throws Throwable {
+        początekDnia.invoke(populacja);
+        return populacja;
+    }
+}
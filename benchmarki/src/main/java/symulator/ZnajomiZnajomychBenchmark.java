@@ -0,0 +1,49 @@
+package symulator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark wyznaczania znajomych znajomych agenta towarzyskiego
+ * (AgentTowarzyski.dodajZnajomychZnajomych). Kolejne wywołania dotyczą kolejnych agentów
+ * towarzyskich populacji przed pierwszym dniem symulacji.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZnajomiZnajomychBenchmark {
+    @Param({"10", "40"})
+    public int śrZnajomych;
+
+    private AgentTowarzyski[] towarzyscy;
+    private int następny;
+
+    @Setup(Level.Trial)
+    public void przygotuj() {
+        Konfiguracja parametry = Przygotowanie.konfiguracja("śrZnajomych",
+                Integer.toString(śrZnajomych));
+        Populacja populacja = (Populacja) Przygotowanie.populacja(parametry, 0);
+        List<AgentTowarzyski> wynik = new ArrayList<>();
+        for (Agent a : (Agent[]) Przygotowanie.pole(populacja, "agenciWgNumeru")) {
+            if (a instanceof AgentTowarzyski) wynik.add((AgentTowarzyski) a);
+        }
+        towarzyscy = wynik.toArray(new AgentTowarzyski[0]);
+    }
+
+    @Benchmark
+    public AgentTowarzyski dodajZnajomychZnajomych() {
+        AgentTowarzyski a = towarzyscy[następny];
+        następny = (następny + 1) % towarzyscy.length;
+        a.dodajZnajomychZnajomych();
+        return a;
+    }
+}
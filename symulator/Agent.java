@@ -1,5 +1,7 @@
 package symulator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /**
@@ -29,12 +31,19 @@ public abstract class Agent {
      */
     protected List<Agent> znajomi;
     /**
-     * Struktura przechowująca zaplanowane spotkania agenta.
-     * Obiekt klasy HashMap, której kluczami są numery dni, a wartością dla danego klucza jest
-     * obiekt klasy ArrayList zawierający obiekty klasy Agent, z którymi Agent ma umówione na
-     * dany dzień spotkania.
+     * Kalendarz spotkań populacji, do której należy agent.
+     * Agent zapisuje w nim spotkania, które umówił, a populacja je przeprowadza.
      */
-    protected HashMap<Integer, List<Agent>> spotkania;
+    protected KalendarzSpotkan kalendarz;
+    /**
+     * Licznik stanów populacji, do której należy agent.
+     * Agent aktualizuje go przy każdej zmianie stanu i przy śmierci.
+     */
+    protected LicznikStanow licznik;
+    /**
+     * Informacja, czy agent nadal uczestniczy w symulacji.
+     */
+    protected boolean żywy;
 
     /**
      * Tworzy nowy obiekt klasy Agent.
@@ -47,27 +56,53 @@ public abstract class Agent {
         this.id = id;
         this.stan = stan;
         znajomi = new ArrayList<>();
-        spotkania = new LinkedHashMap<>();
+        żywy = true;
     }
 
     /**
      * Usuwa znajomego z atrybutu znajomi.
+     * Spotkania umówione z nim wcześniej pomija populacja przy ich przeprowadzaniu.
      *
      * @param a - agent do usunięcia.
      */
     public void usuńZnajomego(Agent a) {
-        for (List<Agent> umówieniAgenci : spotkania.values()) umówieniAgenci.remove(a);
         znajomi.remove(a);
     }
 
     /**
      * Usuwa agenta.
      * Wysyła komunikat do wszystkich znajomych agenta o usunięciu tego agenta ze znajomych.
+     * Agent zachowuje swoją listę znajomych.
      */
     public void śmierć() {
+        żywy = false;
+        if (licznik != null) licznik.usuń(stan.ordinal());
         for (Agent a : znajomi) a.usuńZnajomego(this);
     }
 
+    /**
+     * Sprawdza, czy agent nadal uczestniczy w symulacji.
+     *
+     * @return Wartość true, jeśli agent żyje, wpp. false.
+     */
+    public boolean czyŻywy() {
+        return żywy;
+    }
+
+    /**
+     * Dołącza agenta do populacji.
+     * Agent zapisuje spotkania w kalendarzu populacji i jest od tej chwili liczony przez jej
+     * licznik stanów.
+     *
+     * @param kalendarz - kalendarz spotkań populacji;
+     * @param licznik   - licznik stanów populacji.
+     */
+    void dołącz(KalendarzSpotkan kalendarz, LicznikStanow licznik) {
+        this.kalendarz = kalendarz;
+        this.licznik = licznik;
+        licznik.dodaj(stan.ordinal());
+    }
+
     /**
      * Dodaje znajomego do listy znajomych.
      *
@@ -94,15 +129,36 @@ public abstract class Agent {
      */
     public String drukujZnajomych() {
         StringBuilder s = new StringBuilder();
-        s.append(id);
-        s.append(" ");
+        try {
+            drukujZnajomych(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Dopisuje część grafu społecznościowego (patrz drukujZnajomych()) bez tworzenia napisu.
+     *
+     * @param s - obiekt, do którego dopisywany jest tekst.
+     */
+    void drukujZnajomych(Appendable s) throws IOException {
+        PisarzRaportu.dopisz(s, id);
         for (Agent a : znajomi) {
-            s.append(a.getId());
-            s.append(" ");
+            s.append(' ');
+            PisarzRaportu.dopisz(s, a.getId());
         }
-        s.deleteCharAt(s.length() - 1);
         s.append(System.lineSeparator());
-        return s.toString();
+    }
+
+    /**
+     * Dopisuje napis reprezentujący agenta (patrz toString()). Rodzaje agentów, które mają
+     * stałą nazwę, mogą go dopisywać bez tworzenia napisu.
+     *
+     * @param s - obiekt, do którego dopisywany jest tekst.
+     */
+    void drukuj(Appendable s) throws IOException {
+        s.append(toString());
     }
 
     /**
@@ -140,28 +196,26 @@ public abstract class Agent {
      * @param stan - nowy stan agenta.
      */
     public void setStan(Stan stan) {
+        if (licznik != null && żywy) licznik.zmień(this.stan.ordinal(), stan.ordinal());
         this.stan = stan;
     }
 
     /**
-     * Symuluje spotkania.
+     * Symuluje spotkanie umówione przez agenta.
      * Jeżeli któryś ze spotykających się agentów jest zarażony a drugi nie ma odporności,
      * to z prawd. prawdZarażenia może dojść do zarażenia, wpp. takie spotkanie nie ma żadnego
      * efektu.
      *
-     * @param nrDnia - numer dnia, w którym przeprowadzane są spotkania;
+     * @param a - agent, z którym agent się spotyka.
      */
-    public void przeprowadźSpotkania(int nrDnia) {
-        if (!spotkania.containsKey(nrDnia)) return;
+    public void spotkanie(Agent a) {
         double losowyDouble;
-        for (Agent a : spotkania.get(nrDnia)) {
-            if (a.getStan() == Stan.CHORY && this.stan == Stan.ZDROWY) {
-                losowyDouble = parametry.getMaszynaLosująca().nextDouble();
-                if (losowyDouble <= parametry.getPrawdZarażenia()) this.setStan(Stan.CHORY);
-            } else if (a.getStan() == Stan.ZDROWY && this.stan == Stan.CHORY) {
-                losowyDouble = parametry.getMaszynaLosująca().nextDouble();
-                if (losowyDouble <= parametry.getPrawdZarażenia()) a.setStan(Stan.CHORY);
-            }
+        if (a.getStan() == Stan.CHORY && this.stan == Stan.ZDROWY) {
+            losowyDouble = parametry.getMaszynaLosująca().nextDouble();
+            if (losowyDouble <= parametry.getPrawdZarażenia()) this.setStan(Stan.CHORY);
+        } else if (a.getStan() == Stan.ZDROWY && this.stan == Stan.CHORY) {
+            losowyDouble = parametry.getMaszynaLosująca().nextDouble();
+            if (losowyDouble <= parametry.getPrawdZarażenia()) a.setStan(Stan.CHORY);
         }
     }
 
@@ -176,6 +230,7 @@ public abstract class Agent {
      * (można planować spotkania i spotykać się z tym samym agentem wiele razy danego dnia).
      * Następnie agent losuje jeden z pozostałych dni symulacji kiedy do takiego spotkania dojdzie.
      * Agent powtarza planowanie spotkań dopóki nie wylosuje, że nie chce się spotykać.
+     * Spotkania zapisywane są w kalendarzu populacji.
      *
      * @param nrDnia         - numer dnia, w którym przeprowadzane jest umawianie spotkań;
      * @param pulaZnajomych  - zbiór znajomych, z którymi agent może się spotykać;
@@ -190,9 +245,7 @@ public abstract class Agent {
             losowyZnajomy = parametry.getMaszynaLosująca().nextInt(pulaZnajomych.size());
             znajomy = pulaZnajomych.get(losowyZnajomy);
             losowyDzień = parametry.getMaszynaLosująca().nextInt(parametry.getLiczbaDni() - nrDnia);
-            if (spotkania.containsKey(nrDnia + 1 + losowyDzień))
-                spotkania.get(nrDnia + 1 + losowyDzień).add(znajomy);
-            else spotkania.put(nrDnia + 1 + losowyDzień, new ArrayList<>(Arrays.asList(znajomy)));
+            kalendarz.dodaj(nrDnia + 1 + losowyDzień, id - 1, znajomy.getId() - 1);
             losowyDouble = parametry.getMaszynaLosująca().nextDouble();
         }
     }
@@ -1,5 +1,6 @@
 package symulator;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -15,6 +16,38 @@ public class AgentTowarzyski extends Agent {
      * Obiekt przechowujący znajomych agenta wraz z ich znajomymi.
      */
     private List<Agent> znajomiZnajomych;
+    /**
+     * Największa liczba znajomych agenta w wylosowanym grafie, ogranicza losowanie znajomych
+     * znajomych (patrz losujZnajomegoZnajomych). Używana tylko przy losowanych znajomych
+     * znajomych.
+     */
+    private int maksymalnyStopień;
+
+    /**
+     * Rodzaj agenta towarzyskiego (patrz RodzajAgenta), występującego z prawdopodobieństwem
+     * prawdTowarzyski.
+     */
+    public static final class Rodzaj implements RodzajAgenta {
+        @Override
+        public double prawdopodobieństwo(Konfiguracja parametry) {
+            return parametry.getPrawdTowarzyski();
+        }
+
+        @Override
+        public Agent nowy(int id, Stan stan, Konfiguracja parametry) {
+            return new AgentTowarzyski(id, stan, parametry);
+        }
+
+        @Override
+        public Zachowanie zachowanie() {
+            return Zachowanie.TOWARZYSKI;
+        }
+
+        @Override
+        public String nazwa() {
+            return "towarzyski";
+        }
+    }
 
     /**
      * Tworzy nowy obiekt klasy AgentTowarzyski.
@@ -44,6 +77,14 @@ public class AgentTowarzyski extends Agent {
                 "towarzyski" + System.lineSeparator();
     }
 
+    @Override
+    void drukuj(Appendable s) throws IOException {
+        PisarzRaportu.dopisz(s, id);
+        if (stan == Stan.CHORY) s.append('*');
+        s.append(" towarzyski");
+        s.append(System.lineSeparator());
+    }
+
     @Override
     public void usuńZnajomego(Agent a) {
         super.usuńZnajomego(a);
@@ -52,8 +93,11 @@ public class AgentTowarzyski extends Agent {
 
     /**
      * Inicjalizuje zawartość atrybutu przechowującego znajomych znajomych danego agenta.
+     * Przy losowanych znajomych znajomych (patrz Konfiguracja) zbiór nie jest zapamiętywany
+     * i atrybut pozostaje pusty.
      */
     public void dodajZnajomychZnajomych() {
+        if (parametry.czyLosowaniZnajomiZnajomych()) return;
         znajomiZnajomych.clear();
         HashSet<Agent> pomocniczy = new LinkedHashSet<>();
         pomocniczy.addAll(znajomi);
@@ -63,6 +107,24 @@ public class AgentTowarzyski extends Agent {
         znajomiZnajomych.addAll(pomocniczy);
     }
 
+    /**
+     * Zwraca obiekt przechowujący znajomych agenta wraz z ich znajomymi.
+     *
+     * @return Atrybut znajomiZnajomych.
+     */
+    List<Agent> getZnajomiZnajomych() {
+        return znajomiZnajomych;
+    }
+
+    /**
+     * Ustawia największą liczbę znajomych agenta w wylosowanym grafie.
+     *
+     * @param maksymalnyStopień - największa liczba znajomych.
+     */
+    void setMaksymalnyStopień(int maksymalnyStopień) {
+        this.maksymalnyStopień = maksymalnyStopień;
+    }
+
     /**
      * Planuje spotkania agenta.
      * Jeżeli agent jest chory to dopóki nie wyzdrowieje będzie planował się spotykać tylko ze
@@ -70,10 +132,62 @@ public class AgentTowarzyski extends Agent {
      * (nie ma to wpływu na to czy inni będą się decydować spotykać z nim i na spotkania, które
      * już zaplanowano).
      *
+     * Przy losowanych znajomych znajomych są oni losowani przy każdym spotkaniu przez
+     * losujZnajomegoZnajomych.
+     *
      * @param nrDnia - numer dnia, w którym przeprowadzane jest umawianie spotkań.
      */
     public void umówSpotkania(int nrDnia) {
         if (stan == Stan.CHORY) super.umówSpotkania(nrDnia, znajomi, parametry.getPrawdSpotkania());
+        else if (parametry.czyLosowaniZnajomiZnajomych()) umówSpotkaniaZLosowanymi(nrDnia);
         else super.umówSpotkania(nrDnia, znajomiZnajomych, parametry.getPrawdSpotkania());
     }
+
+    /**
+     * Planuje spotkania z losowanymi znajomymi znajomych (patrz Agent.umówSpotkania).
+     * Liczby losowane są w tej samej kolejności co w silniku kolumnowym.
+     *
+     * @param nrDnia - numer dnia, w którym przeprowadzane jest umawianie spotkań.
+     */
+    private void umówSpotkaniaZLosowanymi(int nrDnia) {
+        if (znajomi.isEmpty() || parametry.getLiczbaDni() == nrDnia) return;
+        Random maszynaLosująca = parametry.getMaszynaLosująca();
+        Set<Agent> żywiZnajomi = null;
+        double losowyDouble = maszynaLosująca.nextDouble();
+        Agent znajomy;
+        int losowyDzień;
+        while (losowyDouble <= parametry.getPrawdSpotkania()) {
+            if (żywiZnajomi == null) żywiZnajomi = new HashSet<>(znajomi);
+            znajomy = losujZnajomegoZnajomych(maszynaLosująca, żywiZnajomi);
+            losowyDzień = maszynaLosująca.nextInt(parametry.getLiczbaDni() - nrDnia);
+            kalendarz.dodaj(nrDnia + 1 + losowyDzień, id - 1, znajomy.getId() - 1);
+            losowyDouble = maszynaLosująca.nextDouble();
+        }
+    }
+
+    /**
+     * Losuje jednostajnie agenta spośród znajomych agenta i ich znajomych, bez wyznaczania
+     * całego zbioru (patrz PopulacjaKolumnowa.losujZnajomegoZnajomych).
+     * Losowany jest znajomy, a następnie z prawdopodobieństwem proporcjonalnym do 1 + liczby
+     * jego znajomych on sam albo jeden z jego znajomych (losowanie z odrzucaniem, ograniczone
+     * przez maksymalnyStopień). Agent, do którego można dojść w ten sposób na k sposobów, jest
+     * akceptowany z prawdopodobieństwem 1/k, więc każdy agent zbioru jest równie prawdopodobny.
+     *
+     * @param maszynaLosująca - źródło liczb losowych;
+     * @param żywiZnajomi     - zbiór znajomych agenta.
+     * @return Wylosowany agent.
+     */
+    private Agent losujZnajomegoZnajomych(Random maszynaLosująca, Set<Agent> żywiZnajomi) {
+        while (true) {
+            Agent znajomy = znajomi.get(maszynaLosująca.nextInt(znajomi.size()));
+            int losowy = maszynaLosująca.nextInt(maksymalnyStopień + 1);
+            if (losowy > znajomy.getZnajomi().size()) continue;
+            Agent kandydat = (losowy == 0) ? znajomy : znajomy.getZnajomi().get(losowy - 1);
+            int krotność = żywiZnajomi.contains(kandydat) ? 1 : 0;
+            for (Agent b : kandydat.getZnajomi()) {
+                if (żywiZnajomi.contains(b)) krotność++;
+            }
+            if (krotność == 1 || maszynaLosująca.nextInt(krotność) == 0) return kandydat;
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package symulator;
 
+import java.io.IOException;
+
 /**
  * Klasa reprezentująca agenta zwykłego.
  * Podklasa klasy Agent.
@@ -9,6 +11,32 @@ package symulator;
  */
 public class AgentZwykly extends Agent {
 
+    /**
+     * Rodzaj agenta zwykłego (patrz RodzajAgenta), występującego z prawdopodobieństwem
+     * 1 - prawdTowarzyski.
+     */
+    public static final class Rodzaj implements RodzajAgenta {
+        @Override
+        public double prawdopodobieństwo(Konfiguracja parametry) {
+            return 1 - parametry.getPrawdTowarzyski();
+        }
+
+        @Override
+        public Agent nowy(int id, Stan stan, Konfiguracja parametry) {
+            return new AgentZwykly(id, stan, parametry);
+        }
+
+        @Override
+        public Zachowanie zachowanie() {
+            return Zachowanie.ZWYKŁY;
+        }
+
+        @Override
+        public String nazwa() {
+            return "zwykły";
+        }
+    }
+
     /**
      * Tworzy nowy obiekt klasy AgentZwykly.
      *
@@ -36,6 +64,14 @@ public class AgentZwykly extends Agent {
                 System.lineSeparator();
     }
 
+    @Override
+    void drukuj(Appendable s) throws IOException {
+        PisarzRaportu.dopisz(s, id);
+        if (stan == Stan.CHORY) s.append('*');
+        s.append(" zwykły");
+        s.append(System.lineSeparator());
+    }
+
     /**
      * Planuje spotkania agenta.
      * Jeżeli agent jest zarażony, to dopóki nie wyzdrowieje będzie planował nowe spotkania z dwa
@@ -0,0 +1,163 @@
+package symulator;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Klasa wyznaczająca w trakcie symulacji miary epidemiologiczne dopisywane na końcu raportu
+ * (parametr opcjonalny podsumowanie): liczbę zarażonych, odsetek zarażonych, odsetek zmarłych
+ * wśród zarażonych, szczyt epidemii, zarażenia według rodzaju zarażającego, rozkład liczby
+ * zarażeń wtórnych na zarażającego oraz nowe zarażenia i R_t kolejnych dni.
+ * Zarażenia zgłaszane są przez populację w chwili zarażenia w spotkaniu, razem z zarażającym.
+ * Dla każdego agenta zapamiętywany jest dzień jego zarażenia i liczba agentów, których zaraził,
+ * a każde zarażenie jest zaliczane dniowi zarażenia zarażającego - R_t dnia to średnia liczba
+ * zarażeń wtórnych agentów zarażonych tego dnia (R_t kohorty). Zgony i wyzdrowienia dotyczą
+ * tylko chorych, więc wynikają dokładnie z licznika stanów.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class Analizy {
+    private final int liczbaAgentów;
+    /**
+     * Nazwy rodzajów agentów i liczby zarażeń według rodzaju zarażającego.
+     */
+    private final String[] nazwyRodzajów;
+    private final long[] zarażeniaWgRodzaju;
+    /**
+     * Dzień zarażenia kolejnych agentów (0 dla początkowo chorych i niezarażonych) i liczba
+     * agentów, których zarazili.
+     */
+    private final int[] dzieńZarażenia;
+    private final int[] wtórne;
+    /**
+     * Liczba agentów zarażonych w kolejnych dniach (od dnia 0) i liczba zarażeń, których
+     * dokonali.
+     */
+    private final int[] nowi;
+    private final long[] wtórneKohorty;
+    /**
+     * Numer dnia, którego zarażenia są zgłaszane.
+     */
+    private int bieżącyDzień;
+    private int szczyt;
+    private int dzieńSzczytu;
+    /**
+     * Liczba zmarłych i uodpornionych na końcu ostatniego dnia.
+     */
+    private int zmarli;
+    private int uodpornieni;
+
+    private Analizy(Konfiguracja parametry, String[] nazwyRodzajów) {
+        liczbaAgentów = parametry.getLiczbaAgentów();
+        this.nazwyRodzajów = nazwyRodzajów;
+        zarażeniaWgRodzaju = new long[nazwyRodzajów.length];
+        dzieńZarażenia = new int[liczbaAgentów];
+        wtórne = new int[liczbaAgentów];
+        nowi = new int[parametry.getLiczbaDni() + 1];
+        wtórneKohorty = new long[parametry.getLiczbaDni() + 1];
+    }
+
+    /**
+     * Zwraca obiekt analiz, jeśli konfiguracja ich wymaga.
+     *
+     * @param parametry     - parametry symulacji;
+     * @param nazwyRodzajów - nazwy rodzajów agentów w kolejności ich numerów.
+     * @return Nowy obiekt lub null, jeśli raport nie ma podsumowania.
+     */
+    static Analizy dla(Konfiguracja parametry, String[] nazwyRodzajów) {
+        if (!parametry.czyPodsumowanie()) return null;
+        return new Analizy(parametry, nazwyRodzajów);
+    }
+
+    /**
+     * Zgłasza zarażenie zdrowego agenta w spotkaniu w bieżącym dniu.
+     *
+     * @param zarażony           - numer zarażonego agenta;
+     * @param zarażający         - numer agenta, który zaraził;
+     * @param rodzajZarażającego - numer rodzaju agenta, który zaraził.
+     */
+    void zarażenie(int zarażony, int zarażający, int rodzajZarażającego) {
+        dzieńZarażenia[zarażony] = bieżącyDzień;
+        nowi[bieżącyDzień]++;
+        wtórne[zarażający]++;
+        wtórneKohorty[dzieńZarażenia[zarażający]]++;
+        zarażeniaWgRodzaju[rodzajZarażającego]++;
+    }
+
+    /**
+     * Zamyka dzień: uaktualnia szczyt oraz liczby zmarłych i uodpornionych. Dla dnia 0
+     * zapamiętuje początkowo chorych jako zarażonych w dniu 0.
+     *
+     * @param nrDnia  - numer dnia;
+     * @param licznik - licznik stanów po zakończeniu dnia.
+     */
+    void koniecDnia(int nrDnia, LicznikStanow licznik) {
+        int chorzyDnia = licznik.liczba(Stan.CHORY);
+        if (nrDnia == 0) nowi[0] = chorzyDnia;
+        bieżącyDzień = nrDnia + 1;
+        if (chorzyDnia > szczyt) {
+            szczyt = chorzyDnia;
+            dzieńSzczytu = nrDnia;
+        }
+        zmarli = liczbaAgentów - licznik.liczba(Stan.ZDROWY) - chorzyDnia -
+                licznik.liczba(Stan.UODPORNIONY);
+        uodpornieni = licznik.liczba(Stan.UODPORNIONY);
+    }
+
+    /**
+     * Dopisuje podsumowanie do raportu.
+     * Rozkład zarażeń wtórnych podaje dla kolejnych liczb zarażeń (od 0 do największej)
+     * liczbę zarażonych agentów, którzy tylu agentów zarazili. R_t dnia, w którym nikt nie
+     * został zarażony, to "-". R_t jest dokładne dla dni, których zarażeni już nie chorują
+     * - R_t ostatnich dni zaniżają zarażenia, do których nie doszło przed końcem symulacji.
+     *
+     * @param wyjście - obiekt, do którego dopisywany jest raport.
+     */
+    void dopisz(Appendable wyjście) throws IOException {
+        long zarażeni = 0;
+        for (int liczba : nowi) zarażeni += liczba;
+        wyjście.append(System.lineSeparator());
+        wyjście.append("# podsumowanie jako: zarażeni odsetekZarażonych odsetekZmarłychWśród" +
+                "Zarażonych dzieńSzczytu chorzyWSzczycie zakończoneZachorowania");
+        wyjście.append(System.lineSeparator());
+        wyjście.append(String.format(Locale.ROOT, "%d %.4f %.4f %d %d %d", zarażeni,
+                (double) zarażeni / liczbaAgentów, (zarażeni == 0) ? 0.0 :
+                        (double) zmarli / zarażeni, dzieńSzczytu, szczyt, zmarli + uodpornieni));
+        wyjście.append(System.lineSeparator());
+        wyjście.append("# zarażenia według rodzaju zarażającego");
+        wyjście.append(System.lineSeparator());
+        for (int r = 0; r < nazwyRodzajów.length; r++) {
+            wyjście.append(nazwyRodzajów[r]);
+            wyjście.append(' ');
+            wyjście.append(Long.toString(zarażeniaWgRodzaju[r]));
+            wyjście.append(System.lineSeparator());
+        }
+        wyjście.append("# rozkład zarażeń wtórnych jako: zarażeniWtórnie zarażający");
+        wyjście.append(System.lineSeparator());
+        int największa = 0;
+        for (int liczba : wtórne) największa = Math.max(największa, liczba);
+        long[] rozkład = new long[największa + 1];
+        for (int liczba : wtórne) {
+            if (liczba > 0) rozkład[liczba]++;
+        }
+        rozkład[0] = zarażeni;
+        for (int k = 1; k <= największa; k++) rozkład[0] -= rozkład[k];
+        for (int k = 0; k <= największa; k++) {
+            wyjście.append(Integer.toString(k));
+            wyjście.append(' ');
+            wyjście.append(Long.toString(rozkład[k]));
+            wyjście.append(System.lineSeparator());
+        }
+        wyjście.append("# zarażeni w kolejnych dniach (od dnia 0) jako: zarażeni R_t");
+        wyjście.append(System.lineSeparator());
+        for (int d = 0; d < nowi.length; d++) {
+            wyjście.append(Integer.toString(nowi[d]));
+            wyjście.append(' ');
+            if (nowi[d] == 0) wyjście.append('-');
+            else wyjście.append(String.format(Locale.ROOT, "%.3f",
+                    (double) wtórneKohorty[d] / nowi[d]));
+            wyjście.append(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package symulator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+
+/**
+ * Klasa losująca graf społecznościowy w czasie liniowym względem liczby krawędzi.
+ * Tak jak w Populacja.losowanieGrafu każda kolejna krawędź to jednostajnie wylosowana para
+ * różnych agentów, a pary, które już są połączone, są odrzucane - ale bez tasowania całej
+ * populacji i bez przeszukiwania list znajomych.
+ * Pary losowane są w rundach: w każdej rundzie losowanych jest tyle par, ile brakuje jeszcze
+ * krawędzi, w blokach o stałym rozmiarze, każdy blok z własnego generatora o seedzie wyliczonym
+ * z seeda grafu, numeru rundy i numeru bloku. Powtórzenia wykrywane są w zbiorach
+ * podzielonych na stałą liczbę części. Podział pracy nie zależy od liczby wątków, więc wynik
+ * zależy wyłącznie od seeda. Rundy losowane są porcjami bloków, a zbiory i wylosowane krawędzie
+ * mogą być przechowywane poza stertą (patrz PamiecPozaSterta).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class GeneratorGrafu {
+    /**
+     * Liczba par losowanych w jednym bloku.
+     */
+    private static final int ROZMIAR_BLOKU = 1 << 16;
+    /**
+     * Liczba części, na które podzielony jest zbiór wylosowanych krawędzi.
+     */
+    private static final int LICZBA_CZĘŚCI = 64;
+    /**
+     * Największa liczba bloków rundy losowanych naraz (porcja).
+     */
+    private static final int BLOKI_PORCJI = 32;
+
+    /**
+     * Liczba agentów w populacji.
+     */
+    private final int liczbaAgentów;
+    /**
+     * Liczba krawędzi do wylosowania.
+     */
+    private final int liczbaKrawędzi;
+    /**
+     * Seed grafu.
+     */
+    private final long seed;
+    /**
+     * Pula wątków lub null, jeśli losowanie ma się odbyć w bieżącym wątku.
+     */
+    private final ForkJoinPool pula;
+
+    /**
+     * Tworzy nowy obiekt klasy GeneratorGrafu.
+     *
+     * @param liczbaAgentów  - liczba agentów w populacji;
+     * @param liczbaKrawędzi - liczba krawędzi do wylosowania;
+     * @param seed           - seed grafu;
+     * @param pula           - pula wątków lub null.
+     */
+    public GeneratorGrafu(int liczbaAgentów, long liczbaKrawędzi, long seed, ForkJoinPool pula) {
+        if (liczbaKrawędzi > Integer.MAX_VALUE - 8 || liczbaKrawędzi > (long) liczbaAgentów *
+                (liczbaAgentów - 1) / 2)
+            throw new IllegalArgumentException("Nie można wylosować " + liczbaKrawędzi +
+                    " krawędzi dla " + liczbaAgentów + " agentów");
+        this.liczbaAgentów = liczbaAgentów;
+        this.liczbaKrawędzi = (int) liczbaKrawędzi;
+        this.seed = seed;
+        this.pula = pula;
+    }
+
+    /**
+     * Losuje krawędzie grafu.
+     * Krawędź zapisana jest jako liczba min * liczbaAgentów + max, gdzie min i max to numery
+     * jej końców (patrz pierwszy i drugi).
+     *
+     * @return Tablica krawędzi w kolejności, w jakiej zostały wylosowane.
+     */
+    public long[] losuj() {
+        long[] krawędzie = new long[liczbaKrawędzi];
+        losuj(null, new LongConsumer() {
+            private int przyjęte;
+
+            @Override
+            public void accept(long krawędź) {
+                krawędzie[przyjęte++] = krawędź;
+            }
+        });
+        return krawędzie;
+    }
+
+    /**
+     * Losuje krawędzie grafu, przechowując je razem ze zbiorami wylosowanych krawędzi w danej
+     * pamięci, więc sterta nie rośnie z liczbą krawędzi. Krawędzie są takie same i w tej samej
+     * kolejności jak zwrócone przez losuj().
+     *
+     * @param pamięć - pamięć poza stertą lub null dla tablicy na stercie.
+     * @return Tablica z kolejnymi parami numerów końców krawędzi (min, max).
+     */
+    TablicaIntow losuj(PamiecPozaSterta pamięć) {
+        TablicaIntow pary = PamiecPozaSterta.tablica(pamięć, 2 * liczbaKrawędzi);
+        losuj(pamięć, krawędź -> {
+            pary.dodaj(pierwszy(krawędź));
+            pary.dodaj(drugi(krawędź));
+        });
+        return pary;
+    }
+
+    /**
+     * Losuje krawędzie grafu i przekazuje je kolejno do odbiorcy.
+     * Runda losowana jest porcjami po BLOKI_PORCJI bloków, więc tablice robocze na stercie mają
+     * stały rozmiar. Każda część zbioru dostaje kandydatów w tej samej kolejności co przy
+     * rozdziale całej rundy naraz, więc podział na porcje nie zmienia wyniku.
+     *
+     * @param pamięć   - pamięć poza stertą dla zbiorów wylosowanych krawędzi lub null;
+     * @param przyjmij - odbiorca kolejnych przyjętych krawędzi.
+     */
+    private void losuj(PamiecPozaSterta pamięć, LongConsumer przyjmij) {
+        ZbiorLongow[] zbiory = new ZbiorLongow[LICZBA_CZĘŚCI];
+        for (int s = 0; s < LICZBA_CZĘŚCI; s++)
+            zbiory[s] = PamiecPozaSterta.zbiór(pamięć, liczbaKrawędzi / LICZBA_CZĘŚCI + 1);
+
+        int przyjęte = 0;
+        for (int runda = 0; przyjęte < liczbaKrawędzi; runda++) {
+            int potrzebne = liczbaKrawędzi - przyjęte;
+            int bloki = (potrzebne + ROZMIAR_BLOKU - 1) / ROZMIAR_BLOKU;
+            for (int blok = 0; blok < bloki; blok += BLOKI_PORCJI) {
+                przyjęte += losujPorcję(zbiory, runda, blok, Math.min(bloki, blok +
+                        BLOKI_PORCJI), potrzebne, przyjmij);
+            }
+        }
+    }
+
+    /**
+     * Losuje pary agentów dla porcji bloków rundy, odrzuca powtórzenia i przekazuje nowe
+     * krawędzie do odbiorcy w kolejności losowania.
+     *
+     * @param zbiory    - części zbioru wylosowanych krawędzi;
+     * @param runda     - numer rundy;
+     * @param od        - numer pierwszego bloku porcji;
+     * @param doBloku   - numer bloku za ostatnim blokiem porcji;
+     * @param potrzebne - liczba wszystkich par w rundzie;
+     * @param przyjmij  - odbiorca przyjętych krawędzi.
+     * @return Liczba przyjętych krawędzi.
+     */
+    private int losujPorcję(ZbiorLongow[] zbiory, int runda, int od, int doBloku, int potrzebne,
+                            LongConsumer przyjmij) {
+        int bloki = doBloku - od;
+        int początek = od * ROZMIAR_BLOKU;
+        int liczba = koniecBloku(doBloku - 1, potrzebne) - początek;
+        long[] kandydaci = new long[liczba];
+        Rownolegle.dlaKażdego(pula, bloki, b -> losujBlok(kandydaci, początek, runda, od + b,
+                potrzebne));
+
+        // Rozdział kandydatów na części z zachowaniem kolejności w każdej z nich.
+        int[] pozycje = new int[bloki * LICZBA_CZĘŚCI];
+        Rownolegle.dlaKażdego(pula, bloki, b -> {
+            for (int k = b * ROZMIAR_BLOKU; k < Math.min((b + 1) * ROZMIAR_BLOKU, liczba); k++)
+                pozycje[b * LICZBA_CZĘŚCI + część(kandydaci[k])]++;
+        });
+        int[] początkiCzęści = new int[LICZBA_CZĘŚCI + 1];
+        int suma = 0;
+        for (int s = 0; s < LICZBA_CZĘŚCI; s++) {
+            początkiCzęści[s] = suma;
+            for (int b = 0; b < bloki; b++) {
+                int liczność = pozycje[b * LICZBA_CZĘŚCI + s];
+                pozycje[b * LICZBA_CZĘŚCI + s] = suma;
+                suma += liczność;
+            }
+        }
+        początkiCzęści[LICZBA_CZĘŚCI] = suma;
+        int[] indeksy = new int[liczba];
+        Rownolegle.dlaKażdego(pula, bloki, b -> {
+            for (int k = b * ROZMIAR_BLOKU; k < Math.min((b + 1) * ROZMIAR_BLOKU, liczba); k++)
+                indeksy[pozycje[b * LICZBA_CZĘŚCI + część(kandydaci[k])]++] = k;
+        });
+
+        boolean[] nowe = new boolean[liczba];
+        Rownolegle.dlaKażdego(pula, LICZBA_CZĘŚCI, s -> {
+            for (int i = początkiCzęści[s]; i < początkiCzęści[s + 1]; i++)
+                nowe[indeksy[i]] = zbiory[s].dodaj(kandydaci[indeksy[i]]);
+        });
+        int przyjęte = 0;
+        for (int k = 0; k < liczba; k++) {
+            if (nowe[k]) {
+                przyjmij.accept(kandydaci[k]);
+                przyjęte++;
+            }
+        }
+        return przyjęte;
+    }
+
+    /**
+     * Losuje pary agentów dla jednego bloku rundy.
+     *
+     * @param kandydaci - tablica porcji, do której zapisywane są wylosowane pary;
+     * @param początek  - indeks w rundzie pierwszej pary porcji;
+     * @param runda     - numer rundy;
+     * @param blok      - numer bloku;
+     * @param potrzebne - liczba wszystkich par w rundzie.
+     */
+    private void losujBlok(long[] kandydaci, int początek, int runda, int blok, int potrzebne) {
+        SplittableRandom maszynaLosująca = new SplittableRandom(ZbiorLongow.mieszaj(seed ^
+                ZbiorLongow.mieszaj(((long) runda << 32) | blok)));
+        int agent1, agent2;
+        for (int k = blok * ROZMIAR_BLOKU; k < koniecBloku(blok, potrzebne); k++) {
+            agent1 = maszynaLosująca.nextInt(liczbaAgentów);
+            agent2 = maszynaLosująca.nextInt(liczbaAgentów - 1);
+            if (agent2 >= agent1) agent2++;
+            kandydaci[k - początek] = (long) Math.min(agent1, agent2) * liczbaAgentów +
+                    Math.max(agent1, agent2);
+        }
+    }
+
+    /**
+     * Zwraca indeks za ostatnią parą bloku.
+     *
+     * @param blok    - numer bloku;
+     * @param rozmiar - liczba wszystkich par w rundzie.
+     * @return Indeks końca bloku.
+     */
+    private static int koniecBloku(int blok, int rozmiar) {
+        return (int) Math.min((long) (blok + 1) * ROZMIAR_BLOKU, rozmiar);
+    }
+
+    /**
+     * Zwraca numer części zbioru, do której należy krawędź.
+     *
+     * @param krawędź - krawędź.
+     * @return Numer części.
+     */
+    private static int część(long krawędź) {
+        return (int) (ZbiorLongow.mieszaj(krawędź) >>> 58);
+    }
+
+    /**
+     * Zwraca numer agenta o mniejszym numerze spośród końców krawędzi.
+     *
+     * @param krawędź - krawędź zwrócona przez losuj.
+     * @return Numer agenta.
+     */
+    public int pierwszy(long krawędź) {
+        return (int) (krawędź / liczbaAgentów);
+    }
+
+    /**
+     * Zwraca numer agenta o większym numerze spośród końców krawędzi.
+     *
+     * @param krawędź - krawędź zwrócona przez losuj.
+     * @return Numer agenta.
+     */
+    public int drugi(long krawędź) {
+        return (int) (krawędź % liczbaAgentów);
+    }
+}
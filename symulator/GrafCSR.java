@@ -0,0 +1,331 @@
+package symulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Klasa reprezentująca graf społecznościowy w formacie CSR (compressed sparse row).
+ * Znajomi agenta a zajmują w tablicy sąsiedzi pola od początki[a] do początki[a + 1] - 1,
+ * w kolejności, w jakiej zostali dodani. Graf nie zmienia się po utworzeniu - zmarli agenci
+ * są pomijani przez populację przy przeglądaniu znajomych, a co jakiś czas populacja tworzy
+ * przy pomocy zagęszczony nowy graf bez nich.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class GrafCSR {
+    /**
+     * Indeksy początków list znajomych kolejnych agentów w tablicy sąsiedzi.
+     */
+    private final int[] początki;
+    /**
+     * Połączone listy znajomych wszystkich agentów.
+     */
+    private final int[] sąsiedzi;
+
+    /**
+     * Tworzy nowy obiekt klasy GrafCSR.
+     *
+     * @param początki - indeksy początków list znajomych (liczba agentów + 1 elementów);
+     * @param sąsiedzi - połączone listy znajomych.
+     */
+    GrafCSR(int[] początki, int[] sąsiedzi) {
+        this.początki = początki;
+        this.sąsiedzi = sąsiedzi;
+    }
+
+    /**
+     * Tworzy graf z list znajomych.
+     *
+     * @param listy    - listy znajomych kolejnych agentów;
+     * @param długości - liczby znaczących elementów list.
+     * @return Nowy graf.
+     */
+    static GrafCSR zList(int[][] listy, int[] długości) {
+        int[] początki = new int[listy.length + 1];
+        for (int a = 0; a < listy.length; a++) początki[a + 1] = początki[a] + długości[a];
+        int[] sąsiedzi = new int[początki[listy.length]];
+        for (int a = 0; a < listy.length; a++)
+            System.arraycopy(listy[a], 0, sąsiedzi, początki[a], długości[a]);
+        return new GrafCSR(początki, sąsiedzi);
+    }
+
+    /**
+     * Tworzy graf z krawędzi zwróconych przez GeneratorGrafu.losuj.
+     * Znajomi każdego agenta występują w kolejności losowania krawędzi.
+     *
+     * @param liczbaAgentów - liczba agentów;
+     * @param krawędzie     - krawędzie w postaci min * liczbaAgentów + max.
+     * @return Nowy graf.
+     */
+    static GrafCSR zKrawędzi(int liczbaAgentów, long[] krawędzie) {
+        int[] początki = new int[liczbaAgentów + 1];
+        for (long krawędź : krawędzie) {
+            początki[(int) (krawędź / liczbaAgentów) + 1]++;
+            początki[(int) (krawędź % liczbaAgentów) + 1]++;
+        }
+        for (int a = 0; a < liczbaAgentów; a++) początki[a + 1] += początki[a];
+        int[] wolne = Arrays.copyOf(początki, liczbaAgentów);
+        int[] sąsiedzi = new int[początki[liczbaAgentów]];
+        int agent1, agent2;
+        for (long krawędź : krawędzie) {
+            agent1 = (int) (krawędź / liczbaAgentów);
+            agent2 = (int) (krawędź % liczbaAgentów);
+            sąsiedzi[wolne[agent1]++] = agent2;
+            sąsiedzi[wolne[agent2]++] = agent1;
+        }
+        return new GrafCSR(początki, sąsiedzi);
+    }
+
+    /**
+     * Tworzy graf w pamięci poza stertą z par końców krawędzi zwróconych przez
+     * GeneratorGrafu.losuj(pamięć). Graf jest taki sam jak utworzony przez zKrawędzi z tych
+     * samych krawędzi.
+     *
+     * @param liczbaAgentów - liczba agentów;
+     * @param pary          - kolejne pary numerów końców krawędzi;
+     * @param pamięć        - pamięć poza stertą.
+     * @return Nowy graf.
+     */
+    static GrafCSR zPar(int liczbaAgentów, TablicaIntow pary, PamiecPozaSterta pamięć) {
+        TablicaIntow początki = PamiecPozaSterta.tablica(pamięć, liczbaAgentów + 1);
+        początki.zmieńRozmiar(liczbaAgentów + 1);
+        początki.wypełnij(0);
+        int agent1, agent2;
+        for (int i = 0; i < pary.rozmiar(); i += 2) {
+            agent1 = pary.get(i) + 1;
+            agent2 = pary.get(i + 1) + 1;
+            początki.set(agent1, początki.get(agent1) + 1);
+            początki.set(agent2, początki.get(agent2) + 1);
+        }
+        for (int a = 0; a < liczbaAgentów; a++)
+            początki.set(a + 1, początki.get(a + 1) + początki.get(a));
+        TablicaIntow sąsiedzi = PamiecPozaSterta.tablica(pamięć, początki.get(liczbaAgentów));
+        sąsiedzi.zmieńRozmiar(początki.get(liczbaAgentów));
+        // Przesunięte początki służą jako wolne miejsca, a po rozmieszczeniu wracają na miejsce.
+        for (int i = 0; i < pary.rozmiar(); i += 2) {
+            agent1 = pary.get(i);
+            agent2 = pary.get(i + 1);
+            sąsiedzi.set(początki.get(agent1), agent2);
+            początki.set(agent1, początki.get(agent1) + 1);
+            sąsiedzi.set(początki.get(agent2), agent1);
+            początki.set(agent2, początki.get(agent2) + 1);
+        }
+        for (int a = liczbaAgentów; a > 0; a--) początki.set(a, początki.get(a - 1));
+        początki.set(0, 0);
+        return new PozaSterta(początki, sąsiedzi);
+    }
+
+    /**
+     * Wczytuje graf zapisany przez zapisz.
+     *
+     * @param wejście - strumień danych.
+     * @return Nowy graf.
+     */
+    static GrafCSR wczytaj(DataInput wejście) throws IOException {
+        int[] początki = new int[wejście.readInt() + 1];
+        int[] sąsiedzi = new int[wejście.readInt()];
+        for (int a = 0; a < początki.length; a++) początki[a] = wejście.readInt();
+        for (int i = 0; i < sąsiedzi.length; i++) sąsiedzi[i] = wejście.readInt();
+        return new GrafCSR(początki, sąsiedzi);
+    }
+
+    /**
+     * Wczytuje graf zapisany przez zapisz do pamięci poza stertą.
+     *
+     * @param wejście - strumień danych;
+     * @param pamięć  - pamięć poza stertą lub null dla grafu na stercie.
+     * @return Nowy graf.
+     */
+    static GrafCSR wczytaj(DataInput wejście, PamiecPozaSterta pamięć) throws IOException {
+        if (pamięć == null) return wczytaj(wejście);
+        int liczbaAgentów = wejście.readInt();
+        int liczbaWpisów = wejście.readInt();
+        TablicaIntow początki = PamiecPozaSterta.tablica(pamięć, liczbaAgentów + 1);
+        TablicaIntow sąsiedzi = PamiecPozaSterta.tablica(pamięć, liczbaWpisów);
+        for (int a = 0; a <= liczbaAgentów; a++) początki.dodaj(wejście.readInt());
+        for (int i = 0; i < liczbaWpisów; i++) sąsiedzi.dodaj(wejście.readInt());
+        return new PozaSterta(początki, sąsiedzi);
+    }
+
+    /**
+     * Zapisuje graf (liczbę agentów, liczbę wpisów, początki list znajomych i znajomych).
+     *
+     * @param wyjście - strumień danych.
+     */
+    void zapisz(DataOutput wyjście) throws IOException {
+        wyjście.writeInt(liczbaAgentów());
+        wyjście.writeInt(sąsiedzi.length);
+        for (int początek : początki) wyjście.writeInt(początek);
+        for (int sąsiad : sąsiedzi) wyjście.writeInt(sąsiad);
+    }
+
+    /**
+     * Tworzy graf bez zmarłych agentów.
+     * Listy znajomych wszystkich agentów (także zmarłych) tracą zmarłych znajomych, a kolejność
+     * pozostałych się nie zmienia.
+     *
+     * @param żywi - zbiór numerów żywych agentów.
+     * @return Nowy graf.
+     */
+    GrafCSR zagęszczony(BitSet żywi) {
+        int liczbaAgentów = początki.length - 1;
+        int[] nowePoczątki = new int[liczbaAgentów + 1];
+        int rozmiar = 0;
+        for (int i = 0; i < sąsiedzi.length; i++) {
+            if (żywi.get(sąsiedzi[i])) rozmiar++;
+        }
+        int[] nowiSąsiedzi = new int[rozmiar];
+        int k = 0;
+        for (int a = 0; a < liczbaAgentów; a++) {
+            nowePoczątki[a] = k;
+            for (int i = początki[a]; i < początki[a + 1]; i++) {
+                if (żywi.get(sąsiedzi[i])) nowiSąsiedzi[k++] = sąsiedzi[i];
+            }
+        }
+        nowePoczątki[liczbaAgentów] = k;
+        return new GrafCSR(nowePoczątki, nowiSąsiedzi);
+    }
+
+    /**
+     * Zwraca indeks pierwszego znajomego agenta w tablicy sąsiadów.
+     *
+     * @param a - numer agenta.
+     * @return Indeks.
+     */
+    int początek(int a) {
+        return początki[a];
+    }
+
+    /**
+     * Zwraca indeks za ostatnim znajomym agenta w tablicy sąsiadów.
+     *
+     * @param a - numer agenta.
+     * @return Indeks.
+     */
+    int koniec(int a) {
+        return początki[a + 1];
+    }
+
+    /**
+     * Zwraca numer agenta zapisany pod danym indeksem tablicy sąsiadów.
+     *
+     * @param indeks - indeks z zakresu od początek(a) do koniec(a) - 1 dla pewnego agenta a.
+     * @return Numer agenta.
+     */
+    int sąsiad(int indeks) {
+        return sąsiedzi[indeks];
+    }
+
+    /**
+     * Zwraca długość listy znajomych agenta (łącznie ze zmarłymi, jeśli graf ich zawiera).
+     *
+     * @param a - numer agenta.
+     * @return Długość listy.
+     */
+    int stopień(int a) {
+        return początki[a + 1] - początki[a];
+    }
+
+    /**
+     * Sprawdza, czy agent ma danego znajomego na swojej liście.
+     *
+     * @param a       - numer agenta;
+     * @param znajomy - numer potencjalnego znajomego.
+     * @return Wartość true, jeśli znajomy jest na liście agenta, wpp. false.
+     */
+    boolean czySąsiedzi(int a, int znajomy) {
+        for (int i = początki[a]; i < początki[a + 1]; i++) {
+            if (sąsiedzi[i] == znajomy) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Zwraca liczbę agentów w grafie.
+     *
+     * @return Liczba agentów.
+     */
+    int liczbaAgentów() {
+        return początki.length - 1;
+    }
+
+    /**
+     * Zwraca łączną długość list znajomych.
+     *
+     * @return Liczba wpisów w tablicy sąsiadów (dwa razy liczba krawędzi).
+     */
+    int liczbaWpisów() {
+        return sąsiedzi.length;
+    }
+
+    /**
+     * Graf przechowywany w tablicach poza stertą (patrz PamiecPozaSterta). Graf nie jest
+     * zagęszczany - zagęszczony zwraca ten sam graf, bo zagęszczenie wymagałoby chwilowo
+     * drugiej kopii grafu, a zmarli znajomi są i tak pomijani przez populację.
+     */
+    private static final class PozaSterta extends GrafCSR {
+        private final TablicaIntow początki;
+        private final TablicaIntow sąsiedzi;
+
+        PozaSterta(TablicaIntow początki, TablicaIntow sąsiedzi) {
+            super(null, null);
+            this.początki = początki;
+            this.sąsiedzi = sąsiedzi;
+        }
+
+        @Override
+        void zapisz(DataOutput wyjście) throws IOException {
+            wyjście.writeInt(liczbaAgentów());
+            wyjście.writeInt(liczbaWpisów());
+            for (int i = 0; i < początki.rozmiar(); i++) wyjście.writeInt(początki.get(i));
+            for (int i = 0; i < sąsiedzi.rozmiar(); i++) wyjście.writeInt(sąsiedzi.get(i));
+        }
+
+        @Override
+        GrafCSR zagęszczony(BitSet żywi) {
+            return this;
+        }
+
+        @Override
+        int początek(int a) {
+            return początki.get(a);
+        }
+
+        @Override
+        int koniec(int a) {
+            return początki.get(a + 1);
+        }
+
+        @Override
+        int sąsiad(int indeks) {
+            return sąsiedzi.get(indeks);
+        }
+
+        @Override
+        int stopień(int a) {
+            return początki.get(a + 1) - początki.get(a);
+        }
+
+        @Override
+        boolean czySąsiedzi(int a, int znajomy) {
+            for (int i = początki.get(a); i < początki.get(a + 1); i++) {
+                if (sąsiedzi.get(i) == znajomy) return true;
+            }
+            return false;
+        }
+
+        @Override
+        int liczbaAgentów() {
+            return początki.rozmiar() - 1;
+        }
+
+        @Override
+        int liczbaWpisów() {
+            return sąsiedzi.rozmiar();
+        }
+    }
+}
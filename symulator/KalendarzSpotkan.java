@@ -0,0 +1,224 @@
+package symulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.IntPredicate;
+
+/**
+ * Klasa reprezentująca kalendarz spotkań całej populacji.
+ * Spotkania zapisywane są jako pary numerów agentów (organizator, partner) w buforach
+ * kolejnych dni. Bufory tworzą pierścień indeksowany numerem dnia modulo liczba dni symulacji
+ * - spotkania umawiane są najwyżej na ostatni dzień symulacji, więc bufory w użyciu nigdy na
+ * siebie nie nachodzą. Bufor przeprowadzonego dnia jest czyszczony i używany ponownie, więc po
+ * rozgrzaniu kalendarz nie alokuje pamięci. Bufory mogą być przechowywane poza stertą (patrz
+ * PamiecPozaSterta).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class KalendarzSpotkan {
+    /**
+     * Bufory kolejnych dni. Spotkania dnia d przechowywane są w buforze d % dni.length.
+     */
+    private final TablicaIntow[] dni;
+    /**
+     * Indeksy początków spotkań kolejnych organizatorów w tablicy partnerzy dla otwartego dnia.
+     */
+    private final TablicaIntow początki;
+    /**
+     * Partnerzy spotkań otwartego dnia uporządkowani według organizatorów.
+     */
+    private final TablicaIntow partnerzy;
+    /**
+     * Pamięć poza stertą, w której przechowywane są bufory, lub null.
+     */
+    private final PamiecPozaSterta pamięć;
+
+    /**
+     * Tworzy nowy, pusty kalendarz.
+     *
+     * @param liczbaAgentów - liczba agentów w populacji;
+     * @param liczbaDni     - liczba dni symulacji.
+     */
+    KalendarzSpotkan(int liczbaAgentów, int liczbaDni) {
+        this(liczbaAgentów, liczbaDni, null);
+    }
+
+    /**
+     * Tworzy nowy, pusty kalendarz z buforami w danej pamięci.
+     *
+     * @param liczbaAgentów - liczba agentów w populacji;
+     * @param liczbaDni     - liczba dni symulacji;
+     * @param pamięć        - pamięć poza stertą lub null dla buforów na stercie.
+     */
+    KalendarzSpotkan(int liczbaAgentów, int liczbaDni, PamiecPozaSterta pamięć) {
+        this.pamięć = pamięć;
+        dni = new TablicaIntow[liczbaDni];
+        for (int d = 0; d < liczbaDni; d++) dni[d] = PamiecPozaSterta.tablica(pamięć, 16);
+        początki = PamiecPozaSterta.tablica(pamięć, liczbaAgentów + 1);
+        początki.zmieńRozmiar(liczbaAgentów + 1);
+        partnerzy = PamiecPozaSterta.tablica(pamięć, 16);
+    }
+
+    /**
+     * Tworzy kopię kalendarza z tymi samymi zaplanowanymi spotkaniami (między dniami, gdy
+     * żaden dzień nie jest otwarty).
+     *
+     * @param wzór - kopiowany kalendarz.
+     */
+    KalendarzSpotkan(KalendarzSpotkan wzór) {
+        pamięć = wzór.pamięć;
+        dni = new TablicaIntow[wzór.dni.length];
+        for (int d = 0; d < dni.length; d++) dni[d] = wzór.dni[d].kopia();
+        początki = PamiecPozaSterta.tablica(pamięć, wzór.początki.rozmiar());
+        początki.zmieńRozmiar(wzór.początki.rozmiar());
+        partnerzy = PamiecPozaSterta.tablica(pamięć, 16);
+    }
+
+    /**
+     * Zapisuje zaplanowane spotkania wszystkich dni.
+     *
+     * @param wyjście - strumień danych.
+     */
+    void zapisz(DataOutput wyjście) throws IOException {
+        for (TablicaIntow bufor : dni) bufor.zapisz(wyjście);
+    }
+
+    /**
+     * Zastępuje zaplanowane spotkania spotkaniami zapisanymi przez zapisz.
+     *
+     * @param wejście - strumień danych.
+     */
+    void wczytaj(DataInput wejście) throws IOException {
+        for (TablicaIntow bufor : dni) bufor.wczytaj(wejście);
+    }
+
+    /**
+     * Zapisuje spotkanie.
+     *
+     * @param dzień       - numer dnia spotkania;
+     * @param organizator - numer agenta, który umówił spotkanie;
+     * @param partner     - numer agenta, z którym umówiono spotkanie.
+     */
+    void dodaj(int dzień, int organizator, int partner) {
+        TablicaIntow bufor = dni[dzień % dni.length];
+        bufor.dodaj(organizator);
+        bufor.dodaj(partner);
+    }
+
+    /**
+     * Zapisuje spotkania zebrane w tablicy, w kolejności ich występowania.
+     *
+     * @param spotkania - kolejne trójki (dzień, organizator, partner).
+     */
+    void dodajWszystkie(TablicaIntow spotkania) {
+        for (int i = 0; i < spotkania.rozmiar(); i += 3)
+            dodaj(spotkania.get(i), spotkania.get(i + 1), spotkania.get(i + 2));
+    }
+
+    /**
+     * Sprawdza, czy w danym dniu zaplanowano spotkanie, w którym bierze udział agent
+     * spełniający warunek (jako organizator albo partner). Nie wymaga otwarcia dnia.
+     *
+     * @param nrDnia    - numer dnia;
+     * @param uczestnik - warunek dla numeru agenta.
+     * @return Wartość true, jeśli jest takie spotkanie, wpp. false.
+     */
+    boolean czySpotkanie(int nrDnia, IntPredicate uczestnik) {
+        TablicaIntow bufor = dni[nrDnia % dni.length];
+        for (int i = 0; i < bufor.rozmiar(); i++) {
+            if (uczestnik.test(bufor.get(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Zwraca numer ostatniego dnia po danym, na który zaplanowano spotkanie z partnerem
+     * spełniającym warunek.
+     *
+     * @param nrDnia  - numer dnia (przeszukiwane są dni od nrDnia + 1 do ostatniego);
+     * @param partner - warunek dla numeru partnera.
+     * @return Numer dnia lub 0, jeśli nie ma takiego spotkania.
+     */
+    int ostatniDzieńZ(int nrDnia, IntPredicate partner) {
+        for (int d = dni.length; d > nrDnia; d--) {
+            TablicaIntow bufor = dni[d % dni.length];
+            for (int i = 1; i < bufor.rozmiar(); i += 2) {
+                if (partner.test(bufor.get(i))) return d;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Przygotowuje spotkania dnia do przeprowadzenia.
+     * Spotkania są porządkowane według numerów organizatorów (sortowanie przez zliczanie), a
+     * spotkania jednego organizatora pozostają w kolejności umawiania.
+     *
+     * @param nrDnia - numer dnia.
+     * @return Wartość true, jeśli na ten dzień zaplanowano jakieś spotkania, wpp. false.
+     */
+    boolean otwórzDzień(int nrDnia) {
+        TablicaIntow bufor = dni[nrDnia % dni.length];
+        int liczbaSpotkań = bufor.rozmiar() / 2;
+        if (liczbaSpotkań == 0) return false;
+        partnerzy.zmieńRozmiar(liczbaSpotkań);
+        początki.wypełnij(0);
+        int organizator;
+        for (int k = 0; k < liczbaSpotkań; k++) {
+            organizator = bufor.get(2 * k) + 1;
+            początki.set(organizator, początki.get(organizator) + 1);
+        }
+        for (int a = 1; a < początki.rozmiar(); a++)
+            początki.set(a, początki.get(a) + początki.get(a - 1));
+        // Przesunięte początki służą jako wolne miejsca, a po rozmieszczeniu wracają na miejsce.
+        for (int k = 0; k < liczbaSpotkań; k++) {
+            organizator = bufor.get(2 * k);
+            partnerzy.set(początki.get(organizator), bufor.get(2 * k + 1));
+            początki.set(organizator, początki.get(organizator) + 1);
+        }
+        for (int a = początki.rozmiar() - 1; a > 0; a--) początki.set(a, początki.get(a - 1));
+        początki.set(0, 0);
+        return true;
+    }
+
+    /**
+     * Zwraca indeks pierwszego spotkania organizatora w otwartym dniu.
+     *
+     * @param organizator - numer agenta.
+     * @return Indeks.
+     */
+    int początek(int organizator) {
+        return początki.get(organizator);
+    }
+
+    /**
+     * Zwraca indeks za ostatnim spotkaniem organizatora w otwartym dniu.
+     *
+     * @param organizator - numer agenta.
+     * @return Indeks.
+     */
+    int koniec(int organizator) {
+        return początki.get(organizator + 1);
+    }
+
+    /**
+     * Zwraca partnera spotkania o danym indeksie w otwartym dniu.
+     *
+     * @param indeks - indeks spotkania.
+     * @return Numer agenta.
+     */
+    int partner(int indeks) {
+        return partnerzy.get(indeks);
+    }
+
+    /**
+     * Usuwa spotkania przeprowadzonego dnia, zachowując bufor do ponownego użycia.
+     *
+     * @param nrDnia - numer dnia.
+     */
+    void zamknijDzień(int nrDnia) {
+        dni[nrDnia % dni.length].wyczyść();
+    }
+}
@@ -5,6 +5,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -13,11 +16,27 @@ import java.util.*;
  * @author Magdalena Augustyńska
  * @version 2018.0611
  */
-public class Konfiguracja {
+public class Konfiguracja implements Cloneable {
+    /**
+     * Największa liczba agentów w populacji przechowywanej na stercie i poza stertą.
+     */
+    private static final int MAKS_AGENTÓW = 1000000;
+    private static final int MAKS_AGENTÓW_POZA_STERTĄ = 200000000;
+    /**
+     * Największa liczba wpisów grafu poza stertą (liczbaAgentów * śrZnajomych) - graf ma
+     * indeksy typu int, więc np. przy 100 000 000 agentów śrZnajomych wynosi najwyżej 21.
+     */
+    private static final int MAKS_WPISÓW_POZA_STERTĄ = Integer.MAX_VALUE - 8;
     /**
      * Obiekt klasy Random przeprowadzający losowanie dla symulacji.
      */
     private Random maszynaLosująca;
+    /**
+     * Rodzaj maszyny losującej (klasa MaszynaLosujaca).
+     * Parametr opcjonalny maszynaLosująca (zgodna, splitmix, xoshiro lub philox), domyślnie
+     * zgodna - z tymi samymi liczbami co klasa Random.
+     */
+    private String rodzajMaszyny;
     /**
      * Seed dla generatora liczb pseudolosowych.
      */
@@ -76,6 +95,177 @@ public class Konfiguracja {
      * Lista wartości prawdopodobieństw wystąpienia poszczególnych rodzajów Agentów.
      */
     private List<Double> prawdopodobieństwa;
+    /**
+     * Silnik, który przeprowadza symulację.
+     * Parametr opcjonalny, domyślnie silnik obiektowy.
+     */
+    private Silnik silnik;
+    /**
+     * Czy graf ma być losowany przez GeneratorGrafu zamiast tasowania populacji.
+     * Parametr opcjonalny generatorGrafu (zgodny lub liniowy), domyślnie zgodny.
+     */
+    private boolean liniowyGeneratorGrafu;
+    /**
+     * Liczba wątków, na których mogą być wykonywane obliczenia.
+     * Parametr opcjonalny, domyślnie liczba dostępnych procesorów.
+     */
+    private int wątki;
+    /**
+     * Czy agenci towarzyscy mają losować znajomych znajomych bez zapamiętywania ich zbioru.
+     * Parametr opcjonalny znajomiZnajomych (zapamiętani lub losowani), domyślnie zapamiętani,
+     * a przy pamięci poza stertą losowani.
+     * Rozkład spotkań się nie zmienia, ale kolejność losowań tak, więc raport jest inny niż
+     * przy zapamiętanych znajomych znajomych. Dotyczy obu silników.
+     */
+    private boolean losowaniZnajomiZnajomych;
+    /**
+     * Czy dni mają być symulowane równolegle, z osobnymi strumieniami losowymi agentów.
+     * Parametr opcjonalny dni (sekwencyjne lub równoległe), domyślnie sekwencyjne.
+     * W trybie równoległym wszystkie zdarzenia fazy dnia rozstrzygane są względem stanów z jej
+     * początku, więc raport jest inny niż w trybie sekwencyjnym, ale nie zależy od liczby
+     * wątków. Wymaga silnika kolumnowego.
+     */
+    private boolean równoległeDni;
+    /**
+     * Liczba replikacji symulacji (z różnymi seedami) w zespole.
+     * Parametr opcjonalny, domyślnie 1 - symulowana jest jedna populacja i tworzony jest zwykły
+     * raport. Dla większej liczby tworzony jest raport zbiorczy (klasa Zespol).
+     */
+    private int replikacje;
+    /**
+     * Docelowa szerokość 95-procentowych przedziałów ufności średnich liczności w zespole.
+     * Parametr opcjonalny, domyślnie 0 - bez dokładania replikacji. Jeśli jest dodatni,
+     * replikacje są dokładane, aż wszystkie przedziały będą co najwyżej tak szerokie.
+     */
+    private double szerokośćPrzedziału;
+    /**
+     * Największa liczba replikacji w zespole przy dokładaniu replikacji.
+     * Parametr opcjonalny, domyślnie 10000.
+     */
+    private int maksReplikacji;
+    /**
+     * Warianty parametrów epidemiologicznych przeglądu parametrów (klasa Przeglad).
+     * Parametr opcjonalny przegląd - ścieżka do pliku z wariantami, domyślnie brak przeglądu.
+     * Każdy niepusty wiersz pliku (poza komentarzami zaczynającymi się od #) zawiera oddzielone
+     * spacjami zmiany parametrów postaci klucz=wartość lub klucz=wartość1,wartość2,... - wiersz
+     * z listami wartości oznacza wszystkie ich kombinacje.
+     */
+    private List<Map<String, String>> warianty;
+    /**
+     * Czy warianty przeglądu mają losować z niezależnych maszyn losujących, czy z kopii tej
+     * samej (wspólne liczby losowe). Parametr opcjonalny losowaniaWariantów (wspólne lub
+     * niezależne), domyślnie wspólne - wtedy raport wariantu jest taki sam jak raport
+     * osobnej symulacji z jego parametrami.
+     */
+    private boolean niezależneLosowaniaWariantów;
+    /**
+     * Ścieżka do pliku z raportem binarnym (klasy PisarzBinarny i RaportBinarny), zapisywanym
+     * obok raportu tekstowego. Parametr opcjonalny plikBinarny, domyślnie brak raportu
+     * binarnego. W przeglądzie parametrów każdy wariant ma własny raport binarny.
+     */
+    private String plikBinarny;
+    /**
+     * Katalog pamięci wylosowanych populacji i grafów (klasa PamiecPopulacji), używanej przez
+     * silnik kolumnowy. Parametr opcjonalny katalogPamięci, domyślnie brak pamięci.
+     */
+    private String katalogPamięci;
+    /**
+     * Największy łączny rozmiar plików w katalogu pamięci w megabajtach.
+     * Parametr opcjonalny rozmiarPamięci, domyślnie 1024.
+     */
+    private int rozmiarPamięci;
+    /**
+     * Ścieżka do pliku z punktem kontrolnym symulacji (klasa PunktKontrolny).
+     * Parametr opcjonalny punktKontrolny, domyślnie brak punktów kontrolnych. Jeśli plik
+     * istnieje i pochodzi z symulacji o tych samych parametrach, symulacja jest wznawiana.
+     */
+    private String punktKontrolny;
+    /**
+     * Liczba dni między kolejnymi punktami kontrolnymi.
+     * Parametr opcjonalny odstępPunktówKontrolnych, domyślnie 100.
+     */
+    private int odstępPunktówKontrolnych;
+    /**
+     * Czy dni mają być symulowane tylko dla tego, co może zmienić stan populacji.
+     * Parametr opcjonalny kroki (pełne lub aktywne), domyślnie pełne. W trybie aktywnym
+     * początek dnia przegląda tylko zarażonych agentów, spotkania dnia są pomijane, jeśli nie
+     * bierze w nich udziału żaden zarażony, a po wygaśnięciu epidemii pozostałe dni nie są
+     * symulowane - raport jest taki sam jak w trybie pełnym.
+     */
+    private boolean aktywneKroki;
+    /**
+     * Czy po wygaśnięciu epidemii w trybie aktywnym maszyna losująca ma wykonać te same
+     * losowania co w trybie pełnym. Parametr opcjonalny losowaniaPoWygaśnięciu (pominięte lub
+     * ścisłe), domyślnie pominięte. Losowania po wygaśnięciu nie wpływają na raport, ale przy
+     * ścisłych stan maszyny losującej na końcu symulacji jest taki sam jak w trybie pełnym.
+     */
+    private boolean ścisłeLosowania;
+    /**
+     * Czy rodzaj agenta ma być wybierany tablicą aliasów Walkera (patrz WyborRodzaju).
+     * Parametr opcjonalny wybórRodzaju (zgodny lub alias), domyślnie zgodny. Rozkład rodzajów
+     * się nie zmienia, ale populacja dla danego seeda może być inna niż przy wyborze zgodnym.
+     */
+    private boolean aliasRodzajów;
+    /**
+     * Czy początek dnia ma być rozstrzygany zbiorczo dla wszystkich zarażonych (patrz
+     * PrzebiegZbiorczy). Parametr opcjonalny przebiegChoroby (indywidualny lub zbiorczy),
+     * domyślnie indywidualny. Rozkład przebiegu epidemii się nie zmienia, ale raport dla danego
+     * seeda jest inny niż przy losowaniu dla każdego zarażonego osobno.
+     */
+    private boolean zbiorczyPrzebiegChoroby;
+    /**
+     * Czy spotkania tej samej pary w danym dniu mają być rozstrzygane jednym losowaniem (patrz
+     * PopulacjaKolumnowa.przeprowadźSpotkaniaZbiorczo). Parametr opcjonalny spotkania (osobne
+     * lub zbiorcze), domyślnie osobne. Wymaga równoległych dni, w których zarażenie nie
+     * przenosi się w trakcie dnia - wtedy rozkład zarażeń się nie zmienia, ale raport dla
+     * danego seeda jest inny niż przy losowaniu dla każdego spotkania osobno.
+     */
+    private boolean zbiorczeSpotkania;
+    /**
+     * Ścieżka do pliku z pomiarami czasu i alokacji faz oraz liczb zdarzeń kolejnych dni
+     * (klasa Pomiary). Parametr opcjonalny plikPomiarów, domyślnie brak pliku - wtedy pomiary
+     * są zbierane tylko podczas nagrania JFR. Replikacje i warianty nie zapisują pomiarów.
+     */
+    private String plikPomiarów;
+    /**
+     * Czy graf społecznościowy i kalendarz spotkań mają być przechowywane poza stertą (klasa
+     * PamiecPozaSterta). Parametr opcjonalny pamięćAgentów (sterta lub pozaStertą), domyślnie
+     * sterta. Pamięć poza stertą wymaga silnika kolumnowego i liniowego generatora grafu,
+     * wyklucza pamięć populacji i zapamiętanych znajomych znajomych (których listy zajmowałyby
+     * stertę), a dopuszcza do MAKS_AGENTÓW_POZA_STERTĄ agentów zamiast MAKS_AGENTÓW, o ile graf
+     * ma najwyżej MAKS_WPISÓW_POZA_STERTĄ wpisów.
+     */
+    private boolean pamięćPozaStertą;
+    /**
+     * Katalog, w którym pamięć poza stertą odwzorowuje pliki zamiast przydzielać bufory
+     * bezpośrednie. Parametr opcjonalny katalogOdwzorowań, domyślnie brak - bufory bezpośrednie.
+     */
+    private String katalogOdwzorowań;
+    /**
+     * Czy raport ma pominąć sekcję z początkową siecią społecznościową (listą agentów i grafem).
+     * Parametr opcjonalny sekcjaGrafu (pełna lub pominięta), domyślnie pełna.
+     */
+    private boolean pominiętaSekcjaGrafu;
+    /**
+     * Ścieżka do pliku, do którego zamiast do raportu trafia sekcja z początkową siecią
+     * społecznościową (klasa SekcjaGrafu), skompresowana gzipem, jeśli nazwa kończy się na .gz.
+     * Parametr opcjonalny plikGrafu, domyślnie brak - sekcja jest w raporcie. W przeglądzie
+     * parametrów każdy wariant ma własny plik grafu.
+     */
+    private String plikGrafu;
+    /**
+     * Czy na końcu raportu ma być dopisane podsumowanie epidemiologiczne (klasa Analizy).
+     * Parametr opcjonalny podsumowanie (brak lub epidemiologiczne), domyślnie brak. Wyklucza
+     * punkty kontrolne. W zespole replikacji nie jest wyznaczane, bo raport zbiorczy nie
+     * zawiera raportów replikacji.
+     */
+    private boolean podsumowanie;
+    /**
+     * Katalog zadania serwera (klasa SerwerZadan), względem którego rozwiązywane są względne
+     * ścieżki z parametrów, lub null poza serwerem. W zadaniu serwera błędne dane nie kończą
+     * programu, tylko zgłaszają wyjątek.
+     */
+    private final Path katalogZadania;
 
     /**
      * Tworzy nowy obiekt klasy Konfiguracja.
@@ -83,23 +273,108 @@ public class Konfiguracja {
      * @param pliki - tablica ścieżek do plików z parametrami.
      */
     public Konfiguracja(String[] pliki) {
+        this(pliki, null);
+    }
+
+    /**
+     * Tworzy nowy obiekt klasy Konfiguracja dla zadania serwera.
+     *
+     * @param pliki          - tablica ścieżek do plików z parametrami;
+     * @param katalogZadania - katalog zadania lub null poza serwerem.
+     */
+    Konfiguracja(String[] pliki, Path katalogZadania) {
+        this.katalogZadania = katalogZadania;
         atrybutyXML = new HashMap<>();
         atrybutyProp = new HashMap<>();
         this.pliki = pliki;
+        silnik = Silnik.OBIEKTOWY;
+        wątki = Runtime.getRuntime().availableProcessors();
+        replikacje = 1;
+        maksReplikacji = 10000;
+        rozmiarPamięci = 1024;
+        odstępPunktówKontrolnych = 100;
+        rodzajMaszyny = "zgodna";
+    }
+
+    /**
+     * Tworzy kopię konfiguracji dla jednej replikacji zespołu.
+     * Kopia ma inny seed i własną maszynę losującą, a obliczenia wewnątrz replikacji są
+     * jednowątkowe - równolegle wykonywane są całe replikacje.
+     *
+     * @param seed - seed replikacji.
+     * @return Nowa konfiguracja.
+     */
+    Konfiguracja replikacja(long seed) {
+        Konfiguracja kopia;
+        try {
+            kopia = (Konfiguracja) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+        kopia.seed = seed;
+        kopia.maszynaLosująca = nowaMaszynaLosująca(seed);
+        kopia.wątki = 1;
+        kopia.replikacje = 1;
+        kopia.szerokośćPrzedziału = 0;
+        kopia.warianty = null;
+        kopia.plikBinarny = null;
+        kopia.punktKontrolny = null;
+        kopia.plikPomiarów = null;
+        kopia.plikGrafu = null;
+        kopia.podsumowanie = false;
+        return kopia;
+    }
+
+    /**
+     * Tworzy kopię konfiguracji dla wariantu przeglądu parametrów.
+     * Zmienione parametry są sprawdzane tak jak przy czytaniu plików i pojawiają się
+     * w tekstowej reprezentacji kopii.
+     *
+     * @param zmiany          - nowe wartości parametrów epidemiologicznych;
+     * @param maszynaLosująca - maszyna losująca wariantu;
+     * @param plikBinarny     - ścieżka do raportu binarnego wariantu (lub null);
+     * @param plikGrafu       - ścieżka do pliku grafu wariantu (lub null).
+     * @return Nowa konfiguracja.
+     */
+    Konfiguracja wariant(Map<String, String> zmiany, Random maszynaLosująca,
+                         String plikBinarny, String plikGrafu) {
+        Konfiguracja kopia = replikacja(seed);
+        kopia.maszynaLosująca = maszynaLosująca;
+        kopia.plikBinarny = plikBinarny;
+        kopia.plikGrafu = plikGrafu;
+        kopia.podsumowanie = podsumowanie;
+        kopia.atrybutyProp = new HashMap<>(atrybutyProp);
+        kopia.atrybutyXML = new HashMap<>(atrybutyXML);
+        kopia.atrybutyXML.putAll(zmiany);
+        kopia.ustawParametry(zmiany);
+        return kopia;
     }
 
     /**
      * Kończy program.
      * Wypisuje na wyjście standardowe komunikat o błędzie
      * oraz kończy działanie programu zwracając błąd.
+     * W zadaniu serwera zamiast tego zgłasza wyjątek z komunikatem.
      *
      * @param komunikat - napis opisujący rodzaj błędu.
+     * @throws IllegalArgumentException w zadaniu serwera.
      */
-    private static void zakończ(String komunikat) {
+    private void zakończ(String komunikat) {
+        if (katalogZadania != null) throw new IllegalArgumentException(komunikat);
         System.out.println(komunikat);
         System.exit(1);
     }
 
+    /**
+     * Zwraca ścieżkę z parametru, w zadaniu serwera rozwiązaną względem katalogu zadania.
+     *
+     * @param ścieżka - wartość parametru.
+     * @return Ścieżka do pliku lub katalogu.
+     */
+    private String ścieżka(String ścieżka) {
+        return (katalogZadania == null) ? ścieżka : katalogZadania.resolve(ścieżka).toString();
+    }
+
     /**
      * Czyta parametry dla programu.
      * Sprawdza obecność plików, sprawdza obecność parametrów w plikach oraz inicjalizuje
@@ -114,9 +389,8 @@ public class Konfiguracja {
         }
 
         final Properties prop = new Properties();
-        try {
-            prop.load(Channels.newReader((new FileInputStream(pliki[0])).getChannel(),
-                    StandardCharsets.UTF_8.name()));
+        try (FileInputStream wejście = new FileInputStream(pliki[0])) {
+            prop.load(Channels.newReader(wejście.getChannel(), StandardCharsets.UTF_8.name()));
         } catch (FileNotFoundException e) {
             zakończ("Brak pliku default.properties");
         } catch (IOException e) {
@@ -124,8 +398,8 @@ public class Konfiguracja {
         }
 
         final Properties xml = new Properties();
-        try {
-            xml.loadFromXML(new FileInputStream(pliki[1]));
+        try (FileInputStream wejście = new FileInputStream(pliki[1])) {
+            xml.loadFromXML(wejście);
         } catch (FileNotFoundException e) {
             zakończ("Brak pliku simulation-conf.xml");
         } catch (IOException e) {
@@ -155,8 +429,25 @@ public class Konfiguracja {
         ustawParametry(atrybutyProp);
         ustawParametry(atrybutyXML);
 
+        final List<String> opcje = Arrays.asList("silnik", "generatorGrafu", "wątki",
+                "znajomiZnajomych", "dni", "replikacje", "szerokośćPrzedziału",
+                "maksReplikacji", "przegląd", "losowaniaWariantów",
+                "plikBinarny", "katalogPamięci", "rozmiarPamięci",
+                "punktKontrolny", "odstępPunktówKontrolnych", "kroki",
+                "losowaniaPoWygaśnięciu", "maszynaLosująca", "wybórRodzaju",
+                "przebiegChoroby", "plikPomiarów", "pamięćAgentów",
+                "katalogOdwzorowań", "sekcjaGrafu", "plikGrafu", "spotkania",
+                "podsumowanie");
+
+        Map<String, String> atrybutyOpcjonalne = new HashMap<>();
+        for (String opcja : opcje) {
+            if (propKlucze.contains(opcja)) atrybutyOpcjonalne.put(opcja, prop.getProperty(opcja));
+            if (xmlKlucze.contains(opcja)) atrybutyOpcjonalne.put(opcja, xml.getProperty(opcja));
+        }
+        ustawOpcje(atrybutyOpcjonalne);
+
         prawdopodobieństwa = new ArrayList<>(Arrays.asList(prawdTowarzyski, 1 - prawdTowarzyski));
-        maszynaLosująca = new Random(seed);
+        maszynaLosująca = nowaMaszynaLosująca(seed);
     }
 
     /**
@@ -180,7 +471,9 @@ public class Konfiguracja {
                 zakończ("Niedozwolona wartość " + atrybuty.get("liczbaAgentów") + " dla klucza " +
                         "liczbaAgentów");
             }
-            czyIntegerWZakresie(1, 1000000, liczbaAgentów, "liczbaAgentów", atrybuty);
+            // Górne ograniczenie dla populacji na stercie sprawdzane jest w ustawOpcje.
+            czyIntegerWZakresie(1, MAKS_AGENTÓW_POZA_STERTĄ, liczbaAgentów, "liczbaAgentów",
+                    atrybuty);
         }
 
         if (atrybuty.containsKey("prawdTowarzyski")) {
@@ -253,7 +546,256 @@ public class Konfiguracja {
             czyIntegerWZakresie(0, liczbaAgentów-1, śrZnajomych, "śrZnajomych", atrybuty);
         }
 
-        if (atrybuty.containsKey("plikZRaportem")) plikZRaportem = atrybuty.get("plikZRaportem");
+        if (atrybuty.containsKey("plikZRaportem"))
+            plikZRaportem = ścieżka(atrybuty.get("plikZRaportem"));
+    }
+
+    /**
+     * Inicjalizuje parametry opcjonalne dla programu.
+     * Parametry opcjonalne nie trafiają do raportu, dzięki czemu raporty tej samej symulacji
+     * przeprowadzonej różnymi sposobami można porównywać bezpośrednio.
+     *
+     * @param atrybuty - struktura przechowująca klucze i parametry.
+     */
+    private void ustawOpcje(Map<String, String> atrybuty) {
+        if (atrybuty.containsKey("silnik")) {
+            silnik = Silnik.zNazwy(atrybuty.get("silnik"));
+            if (silnik == null)
+                zakończ("Niedozwolona wartość " + atrybuty.get("silnik") + " dla klucza silnik");
+        }
+
+        if (atrybuty.containsKey("generatorGrafu")) {
+            liniowyGeneratorGrafu = czyWariant(atrybuty, "generatorGrafu", "liniowy", "zgodny");
+        }
+
+        if (atrybuty.containsKey("wątki")) {
+            try {
+                wątki = Integer.parseInt(atrybuty.get("wątki"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("wątki") + " dla klucza wątki");
+            }
+            czyIntegerWZakresie(1, 4096, wątki, "wątki", atrybuty);
+        }
+
+        if (atrybuty.containsKey("znajomiZnajomych")) {
+            losowaniZnajomiZnajomych = czyWariant(atrybuty, "znajomiZnajomych", "losowani",
+                    "zapamiętani");
+        }
+
+        if (atrybuty.containsKey("dni")) {
+            równoległeDni = czyWariant(atrybuty, "dni", "równoległe", "sekwencyjne");
+            if (równoległeDni && silnik != Silnik.KOLUMNOWY)
+                zakończ("Równoległe dni wymagają silnika kolumnowego");
+        }
+
+        if (atrybuty.containsKey("replikacje")) {
+            try {
+                replikacje = Integer.parseInt(atrybuty.get("replikacje"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("replikacje") + " dla klucza " +
+                        "replikacje");
+            }
+            czyIntegerWZakresie(1, 1000000, replikacje, "replikacje", atrybuty);
+        }
+
+        if (atrybuty.containsKey("maksReplikacji")) {
+            try {
+                maksReplikacji = Integer.parseInt(atrybuty.get("maksReplikacji"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("maksReplikacji") + " dla klucza " +
+                        "maksReplikacji");
+            }
+            czyIntegerWZakresie(1, 1000000, maksReplikacji, "maksReplikacji", atrybuty);
+        }
+
+        if (atrybuty.containsKey("szerokośćPrzedziału")) {
+            try {
+                szerokośćPrzedziału = Double.parseDouble(atrybuty.get("szerokośćPrzedziału"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("szerokośćPrzedziału") +
+                        " dla klucza szerokośćPrzedziału");
+            }
+            if (!(szerokośćPrzedziału > 0))
+                zakończ("Niedozwolona wartość " + atrybuty.get("szerokośćPrzedziału") +
+                        " dla klucza szerokośćPrzedziału");
+        }
+
+        if (atrybuty.containsKey("przegląd")) {
+            if (czyZespół()) zakończ("Przegląd parametrów nie może być zespołem replikacji");
+            warianty = czytajWarianty(ścieżka(atrybuty.get("przegląd")));
+        }
+
+        if (atrybuty.containsKey("losowaniaWariantów")) {
+            niezależneLosowaniaWariantów = czyWariant(atrybuty, "losowaniaWariantów",
+                    "niezależne", "wspólne");
+        }
+
+        if (atrybuty.containsKey("plikBinarny")) plikBinarny = ścieżka(atrybuty.get("plikBinarny"));
+
+        if (atrybuty.containsKey("katalogPamięci")) {
+            katalogPamięci = ścieżka(atrybuty.get("katalogPamięci"));
+            if (silnik != Silnik.KOLUMNOWY)
+                zakończ("Pamięć populacji wymaga silnika kolumnowego");
+        }
+
+        if (atrybuty.containsKey("rozmiarPamięci")) {
+            try {
+                rozmiarPamięci = Integer.parseInt(atrybuty.get("rozmiarPamięci"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("rozmiarPamięci") + " dla klucza " +
+                        "rozmiarPamięci");
+            }
+            czyIntegerWZakresie(1, 10000000, rozmiarPamięci, "rozmiarPamięci", atrybuty);
+        }
+
+        if (atrybuty.containsKey("punktKontrolny")) {
+            punktKontrolny = ścieżka(atrybuty.get("punktKontrolny"));
+            if (czyZespół() || warianty != null || plikBinarny != null)
+                zakończ("Punkty kontrolne wymagają pojedynczej symulacji bez raportu binarnego");
+        }
+
+        if (atrybuty.containsKey("odstępPunktówKontrolnych")) {
+            try {
+                odstępPunktówKontrolnych = Integer.parseInt(
+                        atrybuty.get("odstępPunktówKontrolnych"));
+            } catch (NumberFormatException e) {
+                zakończ("Niedozwolona wartość " + atrybuty.get("odstępPunktówKontrolnych") +
+                        " dla klucza odstępPunktówKontrolnych");
+            }
+            czyIntegerWZakresie(1, 1000, odstępPunktówKontrolnych, "odstępPunktówKontrolnych",
+                    atrybuty);
+        }
+
+        if (atrybuty.containsKey("kroki"))
+            aktywneKroki = czyWariant(atrybuty, "kroki", "aktywne", "pełne");
+
+        if (atrybuty.containsKey("losowaniaPoWygaśnięciu")) {
+            ścisłeLosowania = czyWariant(atrybuty, "losowaniaPoWygaśnięciu", "ścisłe",
+                    "pominięte");
+        }
+
+        if (atrybuty.containsKey("maszynaLosująca")) {
+            rodzajMaszyny = atrybuty.get("maszynaLosująca");
+            if (!MaszynaLosujaca.RODZAJE.contains(rodzajMaszyny))
+                zakończ("Niedozwolona wartość " + rodzajMaszyny + " dla klucza maszynaLosująca");
+        }
+
+        if (atrybuty.containsKey("wybórRodzaju"))
+            aliasRodzajów = czyWariant(atrybuty, "wybórRodzaju", "alias", "zgodny");
+
+        if (atrybuty.containsKey("przebiegChoroby")) {
+            zbiorczyPrzebiegChoroby = czyWariant(atrybuty, "przebiegChoroby", "zbiorczy",
+                    "indywidualny");
+        }
+
+        if (atrybuty.containsKey("spotkania")) {
+            zbiorczeSpotkania = czyWariant(atrybuty, "spotkania", "zbiorcze", "osobne");
+            if (zbiorczeSpotkania && !równoległeDni)
+                zakończ("Zbiorcze spotkania wymagają równoległych dni");
+        }
+
+        if (atrybuty.containsKey("plikPomiarów"))
+            plikPomiarów = ścieżka(atrybuty.get("plikPomiarów"));
+
+        if (atrybuty.containsKey("pamięćAgentów")) {
+            pamięćPozaStertą = czyWariant(atrybuty, "pamięćAgentów", "pozaStertą", "sterta");
+            if (pamięćPozaStertą && (silnik != Silnik.KOLUMNOWY || !liniowyGeneratorGrafu))
+                zakończ("Pamięć poza stertą wymaga silnika kolumnowego i liniowego generatora " +
+                        "grafu");
+            if (pamięćPozaStertą && katalogPamięci != null)
+                zakończ("Pamięć poza stertą wyklucza pamięć populacji");
+            if (pamięćPozaStertą && (long) liczbaAgentów * śrZnajomych > MAKS_WPISÓW_POZA_STERTĄ)
+                zakończ("Niedozwolona wartość " + śrZnajomych + " dla klucza śrZnajomych - " +
+                        "pamięć poza stertą wymaga liczbaAgentów * śrZnajomych <= " +
+                        MAKS_WPISÓW_POZA_STERTĄ);
+            if (pamięćPozaStertą && atrybuty.containsKey("znajomiZnajomych") &&
+                    !losowaniZnajomiZnajomych)
+                zakończ("Pamięć poza stertą wymaga losowanych znajomych znajomych");
+            if (pamięćPozaStertą) losowaniZnajomiZnajomych = true;
+        }
+
+        if (atrybuty.containsKey("katalogOdwzorowań")) {
+            katalogOdwzorowań = ścieżka(atrybuty.get("katalogOdwzorowań"));
+            if (!pamięćPozaStertą) zakończ("Katalog odwzorowań wymaga pamięci poza stertą");
+        }
+
+        if (!pamięćPozaStertą && liczbaAgentów > MAKS_AGENTÓW)
+            zakończ("Niedozwolona wartość " + liczbaAgentów + " dla klucza liczbaAgentów");
+
+        if (atrybuty.containsKey("sekcjaGrafu")) {
+            pominiętaSekcjaGrafu = czyWariant(atrybuty, "sekcjaGrafu", "pominięta", "pełna");
+        }
+
+        if (atrybuty.containsKey("plikGrafu")) {
+            plikGrafu = ścieżka(atrybuty.get("plikGrafu"));
+            if (pominiętaSekcjaGrafu) zakończ("Pominięta sekcja grafu nie ma pliku grafu");
+        }
+
+        if (atrybuty.containsKey("podsumowanie")) {
+            podsumowanie = czyWariant(atrybuty, "podsumowanie", "epidemiologiczne", "brak");
+            if (podsumowanie && punktKontrolny != null)
+                zakończ("Podsumowanie wyklucza punkty kontrolne");
+        }
+    }
+
+    /**
+     * Czyta warianty przeglądu parametrów z pliku (patrz atrybut warianty).
+     * W przypadku błędnych danych kończy działanie programu.
+     *
+     * @param plik - ścieżka do pliku z wariantami.
+     * @return Lista zmian parametrów kolejnych wariantów.
+     */
+    private List<Map<String, String>> czytajWarianty(String plik) {
+        final List<String> dozwolone = Arrays.asList("prawdSpotkania", "prawdZarażenia",
+                "prawdWyzdrowienia", "śmiertelność");
+        List<String> wiersze = null;
+        try {
+            wiersze = Files.readAllLines(Paths.get(plik), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            zakończ("Brak pliku " + plik);
+        }
+        List<Map<String, String>> wynik = new ArrayList<>();
+        for (String wiersz : wiersze) {
+            wiersz = wiersz.trim();
+            if (wiersz.isEmpty() || wiersz.startsWith("#")) continue;
+            List<Map<String, String>> kombinacje = new ArrayList<>();
+            kombinacje.add(new LinkedHashMap<>());
+            for (String zmiana : wiersz.split("\\s+")) {
+                int i = zmiana.indexOf('=');
+                if (i < 0 || !dozwolone.contains(zmiana.substring(0, i)))
+                    zakończ("Niedozwolona zmiana " + zmiana + " w pliku " + plik);
+                String klucz = zmiana.substring(0, i);
+                List<Map<String, String>> nowe = new ArrayList<>();
+                for (Map<String, String> kombinacja : kombinacje) {
+                    for (String wartość : zmiana.substring(i + 1).split(",")) {
+                        Map<String, String> nowa = new LinkedHashMap<>(kombinacja);
+                        nowa.put(klucz, wartość);
+                        nowe.add(nowa);
+                    }
+                }
+                kombinacje = nowe;
+            }
+            wynik.addAll(kombinacje);
+        }
+        if (wynik.isEmpty()) zakończ("Brak wariantów w pliku " + plik);
+        return wynik;
+    }
+
+    /**
+     * Rozpoznaje wartość parametru, który może przyjąć jedną z dwóch wartości.
+     * Jeśli wartość parametru nie jest żadną z nich, kończy działanie programu.
+     *
+     * @param atrybuty - struktura przechowująca klucze i parametry;
+     * @param klucz    - klucz parametru;
+     * @param tak      - wartość, dla której zwracane jest true;
+     * @param nie      - wartość, dla której zwracane jest false.
+     * @return Wartość true, jeśli parametr ma wartość tak, wpp. false.
+     */
+    private boolean czyWariant(Map<String, String> atrybuty, String klucz, String tak, String
+            nie) {
+        if (!atrybuty.get(klucz).equals(tak) && !atrybuty.get(klucz).equals(nie))
+            zakończ("Niedozwolona wartość " + atrybuty.get(klucz) + " dla klucza " + klucz);
+        return atrybuty.get(klucz).equals(tak);
     }
 
     /**
@@ -287,6 +829,10 @@ public class Konfiguracja {
             zakończ("Niedozwolona wartość " + atrybuty.get(klucz) + " dla klucza " + klucz);
     }
 
+    public long getSeed() {
+        return seed;
+    }
+
     public String getPlikZRaportem() {
         return plikZRaportem;
     }
@@ -323,10 +869,155 @@ public class Konfiguracja {
         return maszynaLosująca;
     }
 
+    public String getRodzajMaszyny() {
+        return rodzajMaszyny;
+    }
+
+    /**
+     * Tworzy nową maszynę losującą rodzaju wybranego w konfiguracji.
+     *
+     * @param seed - seed maszyny.
+     * @return Nowa maszyna losująca.
+     */
+    Random nowaMaszynaLosująca(long seed) {
+        return MaszynaLosujaca.nowa(rodzajMaszyny, seed);
+    }
+
+    /**
+     * Zastępuje maszynę losującą maszyną wczytaną z pamięci populacji.
+     *
+     * @param maszynaLosująca - maszyna losująca w stanie po wylosowaniu grafu.
+     */
+    void setMaszynaLosująca(Random maszynaLosująca) {
+        this.maszynaLosująca = maszynaLosująca;
+    }
+
     public List<Double> getPrawdopodobieństwa() {
         return prawdopodobieństwa;
     }
 
+    public double getPrawdTowarzyski() {
+        return prawdTowarzyski;
+    }
+
+    public Silnik getSilnik() {
+        return silnik;
+    }
+
+    public boolean czyLiniowyGeneratorGrafu() {
+        return liniowyGeneratorGrafu;
+    }
+
+    public int getWątki() {
+        return wątki;
+    }
+
+    public boolean czyLosowaniZnajomiZnajomych() {
+        return losowaniZnajomiZnajomych;
+    }
+
+    public boolean czyRównoległeDni() {
+        return równoległeDni;
+    }
+
+    public int getReplikacje() {
+        return replikacje;
+    }
+
+    public double getSzerokośćPrzedziału() {
+        return szerokośćPrzedziału;
+    }
+
+    public int getMaksReplikacji() {
+        return Math.max(maksReplikacji, replikacje);
+    }
+
+    /**
+     * Sprawdza, czy symulowany ma być zespół replikacji zamiast jednej populacji.
+     *
+     * @return Wartość true, jeśli tworzony ma być raport zbiorczy, wpp. false.
+     */
+    public boolean czyZespół() {
+        return replikacje > 1 || szerokośćPrzedziału > 0;
+    }
+
+    /**
+     * Zwraca warianty przeglądu parametrów.
+     *
+     * @return Lista zmian parametrów kolejnych wariantów lub null, jeśli nie ma przeglądu.
+     */
+    public List<Map<String, String>> getWarianty() {
+        return warianty;
+    }
+
+    public boolean czyNiezależneLosowaniaWariantów() {
+        return niezależneLosowaniaWariantów;
+    }
+
+    public String getPlikBinarny() {
+        return plikBinarny;
+    }
+
+    public String getKatalogPamięci() {
+        return katalogPamięci;
+    }
+
+    public int getRozmiarPamięci() {
+        return rozmiarPamięci;
+    }
+
+    public String getPunktKontrolny() {
+        return punktKontrolny;
+    }
+
+    public int getOdstępPunktówKontrolnych() {
+        return odstępPunktówKontrolnych;
+    }
+
+    public boolean czyAktywneKroki() {
+        return aktywneKroki;
+    }
+
+    public boolean czyŚcisłeLosowania() {
+        return ścisłeLosowania;
+    }
+
+    public boolean czyAliasRodzajów() {
+        return aliasRodzajów;
+    }
+
+    public boolean czyZbiorczyPrzebiegChoroby() {
+        return zbiorczyPrzebiegChoroby;
+    }
+
+    public boolean czyZbiorczeSpotkania() {
+        return zbiorczeSpotkania;
+    }
+
+    public String getPlikPomiarów() {
+        return plikPomiarów;
+    }
+
+    public boolean czyPamięćPozaStertą() {
+        return pamięćPozaStertą;
+    }
+
+    public String getKatalogOdwzorowań() {
+        return katalogOdwzorowań;
+    }
+
+    public boolean czyPominiętaSekcjaGrafu() {
+        return pominiętaSekcjaGrafu;
+    }
+
+    public String getPlikGrafu() {
+        return plikGrafu;
+    }
+
+    public boolean czyPodsumowanie() {
+        return podsumowanie;
+    }
+
     /**
      * Zwraca tekstową reprezentację parametrów symulacji.
      *
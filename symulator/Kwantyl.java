@@ -0,0 +1,114 @@
+package symulator;
+
+import java.util.Arrays;
+
+/**
+ * Klasa szacująca kwantyl ciągu liczb bez jego zapamiętywania (algorytm P² Jaina i Chlamtaca).
+ * Przechowuje pięć znaczników - minimum, kwantyl rzędu p/2, p, (1+p)/2 i maksimum - i po
+ * każdej obserwacji poprawia ich wysokości interpolacją paraboliczną. Dopóki obserwacji jest
+ * mniej niż pięć, kwantyl wyznaczany jest dokładnie.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class Kwantyl {
+    /**
+     * Rząd kwantyla.
+     */
+    private final double p;
+    /**
+     * Wysokości znaczników.
+     */
+    private final double[] wysokości = new double[5];
+    /**
+     * Pozycje znaczników (od 1).
+     */
+    private final double[] pozycje = {1, 2, 3, 4, 5};
+    /**
+     * Pożądane pozycje znaczników i ich przyrosty po każdej obserwacji.
+     */
+    private final double[] pożądane;
+    private final double[] przyrosty;
+    /**
+     * Liczba obserwacji.
+     */
+    private long liczba;
+
+    /**
+     * Tworzy nowy obiekt klasy Kwantyl.
+     *
+     * @param p - rząd kwantyla z przedziału (0, 1).
+     */
+    Kwantyl(double p) {
+        this.p = p;
+        pożądane = new double[]{1, 1 + 2 * p, 1 + 4 * p, 3 + 2 * p, 5};
+        przyrosty = new double[]{0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    /**
+     * Dodaje obserwację.
+     *
+     * @param x - wartość obserwacji.
+     */
+    void dodaj(double x) {
+        if (liczba < 5) {
+            wysokości[(int) liczba++] = x;
+            if (liczba == 5) Arrays.sort(wysokości);
+            return;
+        }
+        liczba++;
+        int k;
+        if (x < wysokości[0]) {
+            wysokości[0] = x;
+            k = 0;
+        } else if (x >= wysokości[4]) {
+            wysokości[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= wysokości[k + 1]) k++;
+        }
+        for (int i = k + 1; i < 5; i++) pozycje[i]++;
+        for (int i = 0; i < 5; i++) pożądane[i] += przyrosty[i];
+        for (int i = 1; i < 4; i++) {
+            double d = pożądane[i] - pozycje[i];
+            if ((d >= 1 && pozycje[i + 1] - pozycje[i] > 1) ||
+                    (d <= -1 && pozycje[i - 1] - pozycje[i] < -1)) {
+                int s = (d > 0) ? 1 : -1;
+                double nowa = parabolicznie(i, s);
+                if (wysokości[i - 1] < nowa && nowa < wysokości[i + 1]) wysokości[i] = nowa;
+                else wysokości[i] += s * (wysokości[i + s] - wysokości[i]) /
+                        (pozycje[i + s] - pozycje[i]);
+                pozycje[i] += s;
+            }
+        }
+    }
+
+    /**
+     * Wyznacza nową wysokość znacznika wzorem parabolicznym.
+     *
+     * @param i - numer znacznika;
+     * @param s - kierunek przesunięcia znacznika (1 lub -1).
+     * @return Wysokość.
+     */
+    private double parabolicznie(int i, int s) {
+        double[] q = wysokości;
+        double[] n = pozycje;
+        return q[i] + s / (n[i + 1] - n[i - 1]) *
+                ((n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i]) +
+                        (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    /**
+     * Zwraca oszacowanie kwantyla.
+     *
+     * @return Kwantyl lub NaN, jeśli nie było obserwacji.
+     */
+    double wartość() {
+        if (liczba == 0) return Double.NaN;
+        if (liczba >= 5) return wysokości[2];
+        double[] posortowane = Arrays.copyOf(wysokości, (int) liczba);
+        Arrays.sort(posortowane);
+        return posortowane[(int) Math.round(p * (liczba - 1))];
+    }
+}
@@ -0,0 +1,93 @@
+package symulator;
+
+/**
+ * Klasa zliczająca żywych agentów populacji w poszczególnych stanach zdrowia.
+ * Populacja aktualizuje liczniki przy każdej zmianie stanu i każdej śmierci, więc odczyt
+ * liczności nie wymaga przeglądania agentów.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class LicznikStanow {
+    /**
+     * Liczby agentów w kolejnych stanach (indeksowane numerem stanu Stan.ordinal()).
+     */
+    private final int[] liczności;
+
+    /**
+     * Tworzy nowy licznik z zerowymi licznościami.
+     */
+    LicznikStanow() {
+        liczności = new int[Stan.values().length];
+    }
+
+    /**
+     * Tworzy kopię licznika.
+     *
+     * @param wzór - kopiowany licznik.
+     */
+    LicznikStanow(LicznikStanow wzór) {
+        liczności = wzór.liczności.clone();
+    }
+
+    /**
+     * Dolicza agenta w danym stanie.
+     *
+     * @param stan - numer stanu.
+     */
+    void dodaj(int stan) {
+        liczności[stan]++;
+    }
+
+    /**
+     * Odlicza agenta w danym stanie.
+     *
+     * @param stan - numer stanu.
+     */
+    void usuń(int stan) {
+        liczności[stan]--;
+    }
+
+    /**
+     * Przenosi agenta między stanami.
+     *
+     * @param z  - numer dotychczasowego stanu;
+     * @param na - numer nowego stanu.
+     */
+    void zmień(int z, int na) {
+        liczności[z]--;
+        liczności[na]++;
+    }
+
+    /**
+     * Zwraca liczbę żywych agentów w danym stanie.
+     *
+     * @param stan - stan zdrowia.
+     * @return Liczba agentów.
+     */
+    public int liczba(Stan stan) {
+        return liczności[stan.ordinal()];
+    }
+
+    /**
+     * Zwraca liczbę żywych agentów.
+     *
+     * @return Liczba agentów.
+     */
+    public int liczbaŻywych() {
+        int wynik = 0;
+        for (int liczność : liczności) wynik += liczność;
+        return wynik;
+    }
+
+    /**
+     * Zwraca napis reprezentujący stan populacji - liczbę osób kolejno zdrowych, chorych,
+     * uodpornionych oddzielonych spacją.
+     *
+     * @return Napis.
+     */
+    @Override
+    public String toString() {
+        return liczba(Stan.ZDROWY) + " " + liczba(Stan.CHORY) + " " + liczba(Stan.UODPORNIONY);
+    }
+}
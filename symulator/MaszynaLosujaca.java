@@ -0,0 +1,322 @@
+package symulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Klasa bazowa maszyn losujących symulacji (parametr opcjonalny maszynaLosująca).
+ * Maszyny rozszerzają klasę Random, więc zastępują ją w kodzie symulacji, ale nie synchronizują
+ * stanu przy każdym losowaniu i potrafią losować liczby blokami (wypełnij).
+ * Dostępne maszyny:
+ * - zgodna - ten sam generator co Random, z tymi samymi liczbami dla tego samego seeda, więc
+ * raporty są takie same jak dotychczas;
+ * - splitmix - generator SplitMix64 (te same liczby 64-bitowe i nextDouble co SplittableRandom
+ * z tym samym seedem);
+ * - xoshiro - generator xoshiro256** ze stanem wyznaczonym z seeda przez SplitMix64;
+ * - philox - licznikowy generator Philox4x32-10 z kluczem równym seedowi, wyznaczający liczby
+ * blokami kolejnych wartości licznika.
+ * Maszyny inne niż zgodna losują liczby całkowite z przedziału metodą mnożenia (Lemire), więc
+ * dają inne raporty niż zgodna. Wszystkie są serializowalne razem ze stanem, tak jak Random.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+abstract class MaszynaLosujaca extends Random {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Nazwy dostępnych maszyn używane w plikach z parametrami.
+     */
+    static final List<String> RODZAJE = Arrays.asList("zgodna", "splitmix", "xoshiro", "philox");
+    /**
+     * Stała złotego podziału używana przez generator SplitMix64.
+     */
+    private static final long ZŁOTA = 0x9e3779b97f4a7c15L;
+    /**
+     * Liczba dotychczasowych losowań podstawowych (next dla maszyny zgodnej, nextLong dla
+     * pozostałych), zliczana na potrzeby pomiarów.
+     */
+    long liczbaLosowań;
+
+    MaszynaLosujaca(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Tworzy maszynę losującą danego rodzaju.
+     *
+     * @param rodzaj - nazwa maszyny (jedna z RODZAJE);
+     * @param seed   - seed maszyny.
+     * @return Nowa maszyna losująca.
+     */
+    static MaszynaLosujaca nowa(String rodzaj, long seed) {
+        switch (rodzaj) {
+            case "splitmix":
+                return new SplitMix(seed);
+            case "xoshiro":
+                return new Xoshiro(seed);
+            case "philox":
+                return new Philox(seed);
+            default:
+                return new Zgodna(seed);
+        }
+    }
+
+    /**
+     * Zwraca liczbę dotychczasowych losowań podstawowych maszyny.
+     *
+     * @return Liczba losowań.
+     */
+    long getLiczbaLosowań() {
+        return liczbaLosowań;
+    }
+
+    /**
+     * Losuje kolejne liczby z przedziału [0, 1) do tablicy - tak jak kolejne wywołania
+     * nextDouble, ale bez wywołania metody dla każdej liczby.
+     *
+     * @param liczby - tablica na wylosowane liczby;
+     * @param ile    - liczba liczb do wylosowania.
+     */
+    void wypełnij(double[] liczby, int ile) {
+        for (int i = 0; i < ile; i++) liczby[i] = nextDouble();
+    }
+
+    /**
+     * Losuje kolejne liczby z przedziału [0, 1) do tablicy dowolną maszyną losującą (np.
+     * wczytaną z pamięci populacji albo punktu kontrolnego zapisanego przez klasę Random).
+     *
+     * @param maszynaLosująca - maszyna losująca;
+     * @param liczby          - tablica na wylosowane liczby;
+     * @param ile             - liczba liczb do wylosowania.
+     */
+    static void wypełnij(Random maszynaLosująca, double[] liczby, int ile) {
+        if (maszynaLosująca instanceof MaszynaLosujaca) {
+            ((MaszynaLosujaca) maszynaLosująca).wypełnij(liczby, ile);
+        } else {
+            for (int i = 0; i < ile; i++) liczby[i] = maszynaLosująca.nextDouble();
+        }
+    }
+
+    /**
+     * Generator liniowy kongruencyjny klasy Random, ze stanem w zwykłym polu zamiast
+     * AtomicLong. Daje dokładnie te same liczby co Random z tym samym seedem.
+     */
+    static final class Zgodna extends MaszynaLosujaca {
+        private static final long serialVersionUID = 1L;
+        private static final long MNOŻNIK = 0x5DEECE66DL;
+        private static final long PRZYROST = 0xBL;
+        private static final long MASKA = (1L << 48) - 1;
+
+        private long stan;
+
+        Zgodna(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            stan = (seed ^ MNOŻNIK) & MASKA;
+        }
+
+        @Override
+        protected int next(int bits) {
+            liczbaLosowań++;
+            stan = (stan * MNOŻNIK + PRZYROST) & MASKA;
+            return (int) (stan >>> (48 - bits));
+        }
+
+        @Override
+        void wypełnij(double[] liczby, int ile) {
+            long s = stan;
+            for (int i = 0; i < ile; i++) {
+                s = (s * MNOŻNIK + PRZYROST) & MASKA;
+                long starsze = s >>> 22;
+                s = (s * MNOŻNIK + PRZYROST) & MASKA;
+                liczby[i] = ((starsze << 27) + (s >>> 21)) * 0x1.0p-53;
+            }
+            stan = s;
+            liczbaLosowań += 2L * ile;
+        }
+    }
+
+    /**
+     * Klasa bazowa generatorów 64-bitowych. Pozostałe losowania wyznaczane są z nextLong.
+     */
+    abstract static class Maszyna64 extends MaszynaLosujaca {
+        private static final long serialVersionUID = 1L;
+
+        Maszyna64(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public abstract long nextLong();
+
+        @Override
+        protected int next(int bits) {
+            return (int) (nextLong() >>> (64 - bits));
+        }
+
+        @Override
+        public int nextInt() {
+            return (int) (nextLong() >>> 32);
+        }
+
+        /**
+         * Losuje liczbę z przedziału [0, bound) metodą mnożenia 32-bitowej liczby losowej
+         * przez bound, odrzucając nieliczne wyniki, które zaburzałyby równomierność.
+         *
+         * @param bound - górna granica (wyłącznie), dodatnia.
+         * @return Liczba losowa.
+         */
+        @Override
+        public int nextInt(int bound) {
+            if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+            long iloczyn = (nextLong() >>> 32) * bound;
+            if ((iloczyn & 0xffffffffL) < bound) {
+                long próg = (0x100000000L - bound) % bound;
+                while ((iloczyn & 0xffffffffL) < próg) iloczyn = (nextLong() >>> 32) * bound;
+            }
+            return (int) (iloczyn >>> 32);
+        }
+
+        @Override
+        public double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+    }
+
+    /**
+     * Generator SplitMix64 - stan zwiększany o stałą złotego podziału i mieszany.
+     */
+    static final class SplitMix extends Maszyna64 {
+        private static final long serialVersionUID = 1L;
+
+        private long stan;
+
+        SplitMix(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            stan = seed;
+        }
+
+        @Override
+        public long nextLong() {
+            liczbaLosowań++;
+            stan += ZŁOTA;
+            return ZbiorLongow.mieszaj(stan);
+        }
+    }
+
+    /**
+     * Generator xoshiro256** (Blackman, Vigna).
+     */
+    static final class Xoshiro extends Maszyna64 {
+        private static final long serialVersionUID = 1L;
+
+        private long s0, s1, s2, s3;
+
+        Xoshiro(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            s0 = ZbiorLongow.mieszaj(seed += ZŁOTA);
+            s1 = ZbiorLongow.mieszaj(seed += ZŁOTA);
+            s2 = ZbiorLongow.mieszaj(seed += ZŁOTA);
+            s3 = ZbiorLongow.mieszaj(seed + ZŁOTA);
+        }
+
+        @Override
+        public long nextLong() {
+            liczbaLosowań++;
+            long wynik = Long.rotateLeft(s1 * 5, 7) * 9;
+            long t = s1 << 17;
+            s2 ^= s0;
+            s3 ^= s1;
+            s1 ^= s2;
+            s0 ^= s3;
+            s2 ^= t;
+            s3 = Long.rotateLeft(s3, 45);
+            return wynik;
+        }
+    }
+
+    /**
+     * Licznikowy generator Philox4x32-10 (Salmon i in.). Liczba o numerze i zależy tylko od
+     * klucza i numeru, więc liczby wyznaczane są blokami, w pętli bez zależności między
+     * kolejnymi wartościami licznika.
+     */
+    static final class Philox extends Maszyna64 {
+        private static final long serialVersionUID = 1L;
+        private static final int M0 = 0xD2511F53;
+        private static final int M1 = 0xCD9E8D57;
+        private static final int W0 = 0x9E3779B9;
+        private static final int W1 = 0xBB67AE85;
+        /**
+         * Liczba liczb 64-bitowych w bloku (każda wartość licznika daje dwie).
+         */
+        private static final int BLOK = 64;
+
+        private int k0, k1;
+        /**
+         * Wartość licznika dla pierwszej liczby następnego bloku.
+         */
+        private long licznik;
+        private long[] bufor;
+        private int pozycja;
+
+        Philox(long seed) {
+            super(seed);
+        }
+
+        @Override
+        public synchronized void setSeed(long seed) {
+            super.setSeed(seed);
+            k0 = (int) seed;
+            k1 = (int) (seed >>> 32);
+            licznik = 0;
+            if (bufor == null) bufor = new long[BLOK];
+            pozycja = BLOK;
+        }
+
+        @Override
+        public long nextLong() {
+            liczbaLosowań++;
+            if (pozycja == BLOK) uzupełnij();
+            return bufor[pozycja++];
+        }
+
+        /**
+         * Wyznacza blok kolejnych liczb.
+         */
+        private void uzupełnij() {
+            for (int i = 0; i < BLOK; i += 2) {
+                long l = licznik++;
+                int c0 = (int) l, c1 = (int) (l >>> 32), c2 = 0, c3 = 0;
+                int a = k0, b = k1;
+                for (int runda = 0; runda < 10; runda++) {
+                    long p0 = (M0 & 0xffffffffL) * (c0 & 0xffffffffL);
+                    long p1 = (M1 & 0xffffffffL) * (c2 & 0xffffffffL);
+                    c0 = (int) (p1 >>> 32) ^ c1 ^ a;
+                    c1 = (int) p1;
+                    c2 = (int) (p0 >>> 32) ^ c3 ^ b;
+                    c3 = (int) p0;
+                    a += W0;
+                    b += W1;
+                }
+                bufor[i] = (c0 & 0xffffffffL) | ((long) c1 << 32);
+                bufor[i + 1] = (c2 & 0xffffffffL) | ((long) c3 << 32);
+            }
+            pozycja = 0;
+        }
+    }
+}
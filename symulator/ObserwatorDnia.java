@@ -0,0 +1,20 @@
+package symulator;
+
+/**
+ * Interfejs obiektu powiadamianego o stanie populacji po kolejnych dniach symulacji.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public interface ObserwatorDnia {
+    /**
+     * Przekazuje stan populacji na końcu dnia.
+     * Wywoływana dla dnia 0 (po wylosowaniu populacji i grafu, przed pierwszym dniem), a potem
+     * po każdym dniu symulacji. Licznik jest ten sam przez całą symulację i zmienia się po
+     * powrocie z metody.
+     *
+     * @param nrDnia  - numer dnia;
+     * @param licznik - licznik żywych agentów w poszczególnych stanach zdrowia.
+     */
+    void koniecDnia(int nrDnia, LicznikStanow licznik);
+}
@@ -0,0 +1,264 @@
+package symulator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Klasa reprezentująca dyskową pamięć wylosowanych populacji i grafów.
+ * Populacja i graf zależą tylko od seeda, liczby agentów, prawdopodobieństw rodzajów agentów,
+ * śrZnajomych i rodzaju generatora grafu, więc zapisane raz mogą zostać wczytane zamiast
+ * losowania.
+ * Plik zawiera rodzaje agentów, numer początkowo zarażonego agenta, graf w formacie CSR oraz
+ * stan maszyny losującej po wylosowaniu grafu - symulacja po wczytaniu losuje te same liczby
+ * co po losowaniu, więc raport się nie zmienia.
+ * Plik odwzorowywany jest w pamięci. Po zapisaniu nowego pliku najdawniej używane pliki są
+ * usuwane, dopóki łączny rozmiar pamięci przekracza limit.
+ * Liczby zapisane są w kolejności little-endian: nagłówek (long magia, int wersja,
+ * int liczbaAgentów, long seed, int śrZnajomych, int generator, long skrótRodzajów (skrót
+ * liczby, nazw, klas i prawdopodobieństw kolejnych rodzajów agentów),
+ * int zarażony, int liczbaWpisów, int długość stanu maszyny losującej), a po nim rodzaje
+ * (byte), początki list znajomych (int), znajomi (int) i serializowana maszyna losująca.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class PamiecPopulacji {
+    /**
+     * Znacznik początku pliku (napis "EPIDPOP1").
+     */
+    private static final long MAGIA = 0x31504f5044495045L;
+    private static final int WERSJA = 3;
+    private static final int ROZMIAR_NAGŁÓWKA = 52;
+    /**
+     * Przedrostek i rozszerzenie nazw plików pamięci.
+     */
+    private static final String PRZEDROSTEK = "populacja-";
+    private static final String ROZSZERZENIE = ".bin";
+
+    /**
+     * Parametry symulacji.
+     */
+    private final Konfiguracja parametry;
+    /**
+     * Skrót liczby, nazw, klas i prawdopodobieństw kolejnych rodzajów agentów - populacja
+     * wylosowana dla innej listy rodzajów o tych samych prawdopodobieństwach ma inny skrót.
+     */
+    private final long skrótRodzajów;
+    /**
+     * Ścieżka do pliku z populacją dla tych parametrów.
+     */
+    private final Path plik;
+
+    /**
+     * Wczytane rodzaje agentów, numer zarażonego agenta, graf i maszyna losująca.
+     */
+    private byte[] rodzaj;
+    private int zarażony;
+    private GrafCSR graf;
+    private Random maszynaLosująca;
+
+    /**
+     * Tworzy nowy obiekt klasy PamiecPopulacji.
+     *
+     * @param parametry - parametry symulacji;
+     * @param rodzaje   - rodzaje agentów.
+     */
+    private PamiecPopulacji(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        this.parametry = parametry;
+        long skrót = rodzaje.size();
+        for (RodzajAgenta rodzaj : rodzaje) {
+            skrót = ZbiorLongow.mieszaj(skrót ^ rodzaj.nazwa().hashCode());
+            skrót = ZbiorLongow.mieszaj(skrót ^ rodzaj.getClass().getName().hashCode());
+        }
+        for (double prawdopodobieństwo : RodzajAgenta.prawdopodobieństwa(rodzaje, parametry))
+            skrót = ZbiorLongow.mieszaj(skrót ^ Double.doubleToLongBits(prawdopodobieństwo));
+        skrótRodzajów = skrót;
+        long klucz = parametry.getSeed();
+        klucz = ZbiorLongow.mieszaj(klucz ^ parametry.getLiczbaAgentów());
+        klucz = ZbiorLongow.mieszaj(klucz ^ parametry.getŚrZnajomych());
+        klucz = ZbiorLongow.mieszaj(klucz ^ skrót);
+        klucz = ZbiorLongow.mieszaj(klucz ^ generator());
+        plik = Paths.get(parametry.getKatalogPamięci(),
+                PRZEDROSTEK + Long.toHexString(klucz) + ROZSZERZENIE);
+    }
+
+    /**
+     * Zwraca pamięć populacji, jeśli konfiguracja jej używa.
+     *
+     * @param parametry - parametry symulacji;
+     * @param rodzaje   - rodzaje agentów.
+     * @return Nowy obiekt lub null, jeśli nie podano katalogu pamięci.
+     */
+    static PamiecPopulacji dla(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        if (parametry.getKatalogPamięci() == null) return null;
+        return new PamiecPopulacji(parametry, rodzaje);
+    }
+
+    /**
+     * Zwraca kod generatora grafu (najmłodszy bit), rodzaju maszyny losującej (dwa kolejne
+     * bity) i wyboru rodzaju agenta (czwarty bit), od których zależy wylosowana populacja.
+     *
+     * @return Kod.
+     */
+    private int generator() {
+        return (parametry.czyLiniowyGeneratorGrafu() ? 1 : 0) |
+                MaszynaLosujaca.RODZAJE.indexOf(parametry.getRodzajMaszyny()) << 1 |
+                (parametry.czyAliasRodzajów() ? 1 : 0) << 3;
+    }
+
+    /**
+     * Wczytuje populację z pamięci.
+     * Plik uszkodzony lub zapisany dla innych parametrów jest traktowany jak brak pliku.
+     *
+     * @return Wartość true, jeśli populacja została wczytana, wpp. false.
+     */
+    boolean wczytaj() {
+        if (!Files.isRegularFile(plik)) return false;
+        try (FileChannel kanał = FileChannel.open(plik, StandardOpenOption.READ)) {
+            MappedByteBuffer bufor = kanał.map(FileChannel.MapMode.READ_ONLY, 0, kanał.size());
+            bufor.order(ByteOrder.LITTLE_ENDIAN);
+            if (bufor.getLong() != MAGIA || bufor.getInt() != WERSJA) return false;
+            int liczbaAgentów = bufor.getInt();
+            if (liczbaAgentów != parametry.getLiczbaAgentów() ||
+                    bufor.getLong() != parametry.getSeed() ||
+                    bufor.getInt() != parametry.getŚrZnajomych() ||
+                    bufor.getInt() != generator() ||
+                    bufor.getLong() != skrótRodzajów) return false;
+            zarażony = bufor.getInt();
+            int liczbaWpisów = bufor.getInt();
+            byte[] stanMaszyny = new byte[bufor.getInt()];
+            rodzaj = new byte[liczbaAgentów];
+            bufor.get(rodzaj);
+            int[] początki = new int[liczbaAgentów + 1];
+            int[] sąsiedzi = new int[liczbaWpisów];
+            bufor.asIntBuffer().get(początki).get(sąsiedzi);
+            bufor.position(bufor.position() + 4 * (liczbaAgentów + 1 + liczbaWpisów));
+            bufor.get(stanMaszyny);
+            graf = new GrafCSR(początki, sąsiedzi);
+            try (ObjectInputStream wejście = new ObjectInputStream(
+                    new ByteArrayInputStream(stanMaszyny))) {
+                maszynaLosująca = (Random) wejście.readObject();
+            }
+            Files.setLastModifiedTime(plik, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException | RuntimeException | ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Zapisuje wylosowaną populację do pamięci i usuwa najdawniej używane pliki ponad limit.
+     * Plik zapisywany jest pod tymczasową nazwą i dopiero potem przenoszony, więc równoległe
+     * symulacje nie odczytają niepełnego pliku. Błędy zapisu są pomijane - pamięć jest tylko
+     * przyspieszeniem.
+     *
+     * @param rodzaj          - rodzaje agentów;
+     * @param zarażony        - numer początkowo zarażonego agenta;
+     * @param graf            - graf społecznościowy;
+     * @param maszynaLosująca - maszyna losująca po wylosowaniu grafu.
+     */
+    void zapisz(byte[] rodzaj, int zarażony, GrafCSR graf, Random maszynaLosująca) {
+        Path tymczasowy = null;
+        try {
+            Files.createDirectories(plik.getParent());
+            ByteArrayOutputStream bajty = new ByteArrayOutputStream();
+            try (ObjectOutputStream wyjście = new ObjectOutputStream(bajty)) {
+                wyjście.writeObject(maszynaLosująca);
+            }
+            byte[] stanMaszyny = bajty.toByteArray();
+            int liczbaAgentów = rodzaj.length;
+            long rozmiar = ROZMIAR_NAGŁÓWKA + liczbaAgentów +
+                    4L * (liczbaAgentów + 1 + graf.liczbaWpisów()) + stanMaszyny.length;
+            tymczasowy = Files.createTempFile(plik.getParent(), PRZEDROSTEK, ".tmp");
+            try (FileChannel kanał = FileChannel.open(tymczasowy, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer bufor = kanał.map(FileChannel.MapMode.READ_WRITE, 0, rozmiar);
+                bufor.order(ByteOrder.LITTLE_ENDIAN);
+                bufor.putLong(MAGIA);
+                bufor.putInt(WERSJA);
+                bufor.putInt(liczbaAgentów);
+                bufor.putLong(parametry.getSeed());
+                bufor.putInt(parametry.getŚrZnajomych());
+                bufor.putInt(generator());
+                bufor.putLong(skrótRodzajów);
+                bufor.putInt(zarażony);
+                bufor.putInt(graf.liczbaWpisów());
+                bufor.putInt(stanMaszyny.length);
+                bufor.put(rodzaj);
+                for (int a = 0; a <= liczbaAgentów; a++)
+                    bufor.putInt((a == liczbaAgentów) ? graf.liczbaWpisów() : graf.początek(a));
+                for (int i = 0; i < graf.liczbaWpisów(); i++) bufor.putInt(graf.sąsiad(i));
+                bufor.put(stanMaszyny);
+                bufor.force();
+            }
+            Files.move(tymczasowy, plik, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            tymczasowy = null;
+            usuńNadmiar();
+        } catch (IOException | RuntimeException e) {
+            // Brak zapisu oznacza tylko, że populacja zostanie wylosowana ponownie.
+        } finally {
+            if (tymczasowy != null) {
+                try {
+                    Files.deleteIfExists(tymczasowy);
+                } catch (IOException e) {
+                    // Plik tymczasowy nie jest nigdy odczytywany.
+                }
+            }
+        }
+    }
+
+    /**
+     * Usuwa najdawniej używane pliki pamięci (poza właśnie zapisanym), dopóki ich łączny
+     * rozmiar przekracza limit.
+     */
+    private void usuńNadmiar() throws IOException {
+        List<Path> pliki = new ArrayList<>();
+        try (Stream<Path> wszystkie = Files.list(plik.getParent())) {
+            wszystkie.filter(p -> p.getFileName().toString().startsWith(PRZEDROSTEK) &&
+                    p.getFileName().toString().endsWith(ROZSZERZENIE)).forEach(pliki::add);
+        }
+        long łącznie = 0;
+        List<FileTime> czasy = new ArrayList<>();
+        for (Path p : pliki) {
+            łącznie += Files.size(p);
+            czasy.add(Files.getLastModifiedTime(p));
+        }
+        List<Integer> kolejność = new ArrayList<>();
+        for (int i = 0; i < pliki.size(); i++) kolejność.add(i);
+        kolejność.sort(Comparator.comparing(czasy::get));
+        long limit = parametry.getRozmiarPamięci() * (1L << 20);
+        for (int i : kolejność) {
+            if (łącznie <= limit) break;
+            if (pliki.get(i).equals(plik)) continue;
+            łącznie -= Files.size(pliki.get(i));
+            Files.deleteIfExists(pliki.get(i));
+        }
+    }
+
+    byte[] getRodzaj() {
+        return rodzaj;
+    }
+
+    int getZarażony() {
+        return zarażony;
+    }
+
+    GrafCSR getGraf() {
+        return graf;
+    }
+
+    Random getMaszynaLosująca() {
+        return maszynaLosująca;
+    }
+}
@@ -0,0 +1,295 @@
+package symulator;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Klasa przydzielająca pamięć poza stertą maszyny wirtualnej (parametr opcjonalny
+ * pamięćAgentów) dla struktur populacji, których rozmiar rośnie z liczbą krawędzi grafu
+ * i spotkań: grafu społecznościowego, kalendarza spotkań oraz krawędzi i zbiorów krawędzi
+ * przy losowaniu grafu (patrz GeneratorGrafu).
+ * Pamięć przydzielana jest w kawałkach jako bufory bezpośrednie albo - jeśli podano parametr
+ * opcjonalny katalogOdwzorowań - jako pliki w tym katalogu odwzorowane w pamięci, dzięki czemu
+ * przy braku pamięci operacyjnej system odkłada strony na dysk zamiast przerywać symulację.
+ * Plik jest usuwany zaraz po odwzorowaniu (jeśli system na to pozwala, wpp. przy zakończeniu
+ * programu), a miejsce na dysku zwalniane jest razem z buforem.
+ * Tablice w tej pamięci nie są przeglądane przez odśmiecacz i nie wliczają się do rozmiaru
+ * sterty - bufory bezpośrednie ogranicza tylko opcja -XX:MaxDirectMemorySize.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class PamiecPozaSterta {
+    /**
+     * Największa liczba elementów w jednym kawałku tablicy (kawałek zajmuje 1 GiB) oraz
+     * odpowiadające jej przesunięcie i maska indeksu.
+     */
+    private static final int PRZESUNIĘCIE = 28;
+    private static final int KAWAŁEK = 1 << PRZESUNIĘCIE;
+    private static final int MASKA = KAWAŁEK - 1;
+    /**
+     * Najmniejsza liczba elementów nowego kawałka.
+     */
+    private static final int NAJMNIEJSZY_KAWAŁEK = 1024;
+    private static final String PRZEDROSTEK = "pamiec-";
+
+    /**
+     * Katalog plików odwzorowanych w pamięci lub null dla buforów bezpośrednich.
+     */
+    private final Path katalog;
+
+    private PamiecPozaSterta(String katalog) {
+        this.katalog = (katalog == null) ? null : Paths.get(katalog);
+    }
+
+    /**
+     * Zwraca pamięć poza stertą, jeśli konfiguracja jej używa.
+     *
+     * @param parametry - parametry symulacji.
+     * @return Nowy obiekt lub null, jeśli populacja przechowywana jest na stercie.
+     */
+    static PamiecPozaSterta dla(Konfiguracja parametry) {
+        if (!parametry.czyPamięćPozaStertą()) return null;
+        return new PamiecPozaSterta(parametry.getKatalogOdwzorowań());
+    }
+
+    /**
+     * Tworzy nową, pustą tablicę liczb całkowitych.
+     *
+     * @param pamięć    - pamięć poza stertą lub null dla zwykłej tablicy na stercie;
+     * @param pojemność - początkowa liczba elementów, które można dodać bez powiększania tablicy.
+     * @return Nowa tablica.
+     */
+    static TablicaIntow tablica(PamiecPozaSterta pamięć, int pojemność) {
+        return (pamięć == null) ? new TablicaIntow(pojemność) : new Tablica(pamięć, pojemność);
+    }
+
+    /**
+     * Tworzy nowy, pusty zbiór liczb typu long.
+     *
+     * @param pamięć            - pamięć poza stertą lub null dla zwykłego zbioru na stercie;
+     * @param oczekiwanyRozmiar - liczba elementów, które można dodać bez powiększania zbioru.
+     * @return Nowy zbiór.
+     */
+    static ZbiorLongow zbiór(PamiecPozaSterta pamięć, int oczekiwanyRozmiar) {
+        return (pamięć == null) ? new ZbiorLongow(oczekiwanyRozmiar) :
+                new Zbior(pamięć, oczekiwanyRozmiar);
+    }
+
+    /**
+     * Przydziela bufor o danym rozmiarze z kolejnością bajtów tego komputera.
+     *
+     * @param bajty - rozmiar bufora.
+     * @return Nowy bufor wypełniony zerami.
+     * @throws UncheckedIOException jeśli nie uda się utworzyć lub odwzorować pliku.
+     */
+    private ByteBuffer przydziel(int bajty) {
+        if (katalog == null) return ByteBuffer.allocateDirect(bajty).order(ByteOrder.nativeOrder());
+        try {
+            Files.createDirectories(katalog);
+            Path plik = Files.createTempFile(katalog, PRZEDROSTEK, ".bin");
+            try (FileChannel kanał = FileChannel.open(plik, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                return kanał.map(FileChannel.MapMode.READ_WRITE, 0, bajty)
+                        .order(ByteOrder.nativeOrder());
+            } finally {
+                try {
+                    Files.delete(plik);
+                } catch (IOException e) {
+                    plik.toFile().deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rozszerzalna tablica liczb całkowitych w pamięci poza stertą.
+     * Elementy zajmują kolejne kawałki, z których wszystkie poza ostatnim mają największy
+     * rozmiar. Ostatni kawałek jest powiększany dwukrotnie jak zwykła tablica, a po osiągnięciu
+     * największego rozmiaru dołączany jest nowy, więc tablica może mieć do Integer.MAX_VALUE
+     * elementów, a powiększanie nie kopiuje pełnych kawałków.
+     */
+    private static final class Tablica extends TablicaIntow {
+        private final PamiecPozaSterta pamięć;
+        private ByteBuffer[] kawałki;
+        /**
+         * Łączna liczba elementów we wszystkich kawałkach.
+         */
+        private long pojemność;
+        private int rozmiar;
+
+        Tablica(PamiecPozaSterta pamięć, int pojemność) {
+            super(0);
+            this.pamięć = pamięć;
+            kawałki = new ByteBuffer[0];
+            zapewnij(Math.max(pojemność, 2));
+        }
+
+        /**
+         * Powiększa tablicę tak, aby mieściła co najmniej daną liczbę elementów.
+         *
+         * @param potrzebne - liczba elementów.
+         */
+        private void zapewnij(int potrzebne) {
+            while (pojemność < potrzebne) {
+                int ostatni = kawałki.length - 1;
+                if (ostatni >= 0 && kawałki[ostatni].capacity() < 4 * KAWAŁEK) {
+                    int długość = kawałki[ostatni].capacity() / 4;
+                    long brakujące = potrzebne - (long) ostatni * KAWAŁEK;
+                    int nowa = (int) Math.min(KAWAŁEK, Math.max(2L * długość, brakujące));
+                    ByteBuffer bufor = pamięć.przydziel(4 * nowa);
+                    bufor.put(0, kawałki[ostatni], 0, 4 * długość);
+                    kawałki[ostatni] = bufor;
+                    pojemność += nowa - długość;
+                } else {
+                    long brakujące = potrzebne - (long) kawałki.length * KAWAŁEK;
+                    int nowa = (int) Math.min(KAWAŁEK, Math.max(NAJMNIEJSZY_KAWAŁEK, brakujące));
+                    kawałki = Arrays.copyOf(kawałki, kawałki.length + 1);
+                    kawałki[ostatni + 1] = pamięć.przydziel(4 * nowa);
+                    pojemność += nowa;
+                }
+            }
+        }
+
+        @Override
+        void dodaj(int element) {
+            if (rozmiar == pojemność) zapewnij(rozmiar + 1);
+            set(rozmiar++, element);
+        }
+
+        @Override
+        int get(int indeks) {
+            return kawałki[indeks >>> PRZESUNIĘCIE].getInt((indeks & MASKA) << 2);
+        }
+
+        @Override
+        void set(int indeks, int element) {
+            kawałki[indeks >>> PRZESUNIĘCIE].putInt((indeks & MASKA) << 2, element);
+        }
+
+        @Override
+        int rozmiar() {
+            return rozmiar;
+        }
+
+        @Override
+        void wyczyść() {
+            rozmiar = 0;
+        }
+
+        @Override
+        void zmieńRozmiar(int rozmiar) {
+            zapewnij(rozmiar);
+            this.rozmiar = rozmiar;
+        }
+
+        @Override
+        void wypełnij(int element) {
+            for (int i = 0; i < rozmiar; i++) set(i, element);
+        }
+
+        @Override
+        TablicaIntow kopia() {
+            Tablica kopia = new Tablica(pamięć, rozmiar);
+            for (int k = 0; (long) k * KAWAŁEK < rozmiar; k++) {
+                int długość = (int) Math.min(KAWAŁEK, rozmiar - (long) k * KAWAŁEK);
+                kopia.kawałki[k].put(0, kawałki[k], 0, 4 * długość);
+            }
+            kopia.rozmiar = rozmiar;
+            return kopia;
+        }
+
+        @Override
+        void zapisz(DataOutput wyjście) throws IOException {
+            wyjście.writeInt(rozmiar);
+            for (int i = 0; i < rozmiar; i++) wyjście.writeInt(get(i));
+        }
+    }
+
+    /**
+     * Zbiór liczb typu long w pamięci poza stertą, z tym samym adresowaniem otwartym co
+     * ZbiorLongow. Tablica zbioru zajmuje jeden bufor, więc mieści do 2^26 elementów.
+     */
+    private static final class Zbior extends ZbiorLongow {
+        private final PamiecPozaSterta pamięć;
+        private LongBuffer tablica;
+        private int rozmiar;
+
+        Zbior(PamiecPozaSterta pamięć, int oczekiwanyRozmiar) {
+            super(0);
+            this.pamięć = pamięć;
+            int pojemność = 16;
+            while (pojemność < 2L * oczekiwanyRozmiar) pojemność <<= 1;
+            tablica = pusta(pojemność);
+        }
+
+        /**
+         * Przydziela tablicę wypełnioną wartością PUSTE.
+         *
+         * @param pojemność - liczba pól (potęga dwójki).
+         * @return Nowa tablica.
+         */
+        private LongBuffer pusta(int pojemność) {
+            LongBuffer nowa = pamięć.przydziel(8 * pojemność).asLongBuffer();
+            for (int i = 0; i < pojemność; i++) nowa.put(i, PUSTE);
+            return nowa;
+        }
+
+        @Override
+        boolean dodaj(long element) {
+            int maska = tablica.capacity() - 1;
+            int i = (int) mieszaj(element) & maska;
+            while (tablica.get(i) != PUSTE) {
+                if (tablica.get(i) == element) return false;
+                i = (i + 1) & maska;
+            }
+            tablica.put(i, element);
+            if (++rozmiar * 2 > tablica.capacity()) powiększ();
+            return true;
+        }
+
+        @Override
+        boolean zawiera(long element) {
+            int maska = tablica.capacity() - 1;
+            int i = (int) mieszaj(element) & maska;
+            while (tablica.get(i) != PUSTE) {
+                if (tablica.get(i) == element) return true;
+                i = (i + 1) & maska;
+            }
+            return false;
+        }
+
+        @Override
+        int rozmiar() {
+            return rozmiar;
+        }
+
+        /**
+         * Dwukrotnie powiększa tablicę i ponownie rozmieszcza w niej elementy.
+         */
+        private void powiększ() {
+            LongBuffer stara = tablica;
+            tablica = pusta(2 * stara.capacity());
+            int maska = tablica.capacity() - 1;
+            for (int j = 0; j < stara.capacity(); j++) {
+                long element = stara.get(j);
+                if (element == PUSTE) continue;
+                int i = (int) mieszaj(element) & maska;
+                while (tablica.get(i) != PUSTE) i = (i + 1) & maska;
+                tablica.put(i, element);
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package symulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Klasa zapisująca raport w postaci binarnej, kolumnowej (format opisany w RaportBinarny).
+ * Populacja i graf zapisywane są przed pierwszym dniem, przez duży bufor bezpośrednio do
+ * kanału pliku, a liczności kolejnych dni zbierane są w pamięci i zapisywane razem
+ * z nagłówkiem przy zamknięciu.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class PisarzBinarny implements Closeable {
+    /**
+     * Rozmiar bufora w bajtach.
+     */
+    private static final int ROZMIAR_BUFORA = 1 << 20;
+
+    /**
+     * Parametry symulacji zapisywane w nagłówku.
+     */
+    private final Konfiguracja parametry;
+    /**
+     * Kanał pliku z raportem.
+     */
+    private final FileChannel kanał;
+    /**
+     * Bufor, przez który zapisywane są sekcje.
+     */
+    private final ByteBuffer bufor;
+    /**
+     * Liczności kolejnych dni w kolejności: zdrowi, chorzy, uodpornieni.
+     */
+    private final int[] liczności;
+    /**
+     * Liczba dni (łącznie z dniem 0), których liczności zostały zapisane.
+     */
+    private int zapisaneDni;
+    /**
+     * Liczba agentów i wpisów grafu oraz położenia sekcji w pliku (0, jeśli populacja nie
+     * została zapisana).
+     */
+    private int liczbaAgentów;
+    private long liczbaWpisów;
+    private long sekcjaRodzajów;
+    private long sekcjaStanów;
+    private long sekcjaPoczątków;
+    private long sekcjaSąsiadów;
+
+    /**
+     * Tworzy nowy obiekt klasy PisarzBinarny. Istniejący plik jest zastępowany.
+     *
+     * @param plik      - ścieżka do pliku;
+     * @param parametry - parametry symulacji.
+     */
+    public PisarzBinarny(String plik, Konfiguracja parametry) throws IOException {
+        this.parametry = parametry;
+        kanał = FileChannel.open(Paths.get(plik), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        bufor = ByteBuffer.allocateDirect(ROZMIAR_BUFORA).order(ByteOrder.LITTLE_ENDIAN);
+        liczności = new int[3 * (parametry.getLiczbaDni() + 1)];
+        kanał.position(RaportBinarny.ROZMIAR_NAGŁÓWKA);
+    }
+
+    /**
+     * Tworzy obiekt zapisujący raport binarny, jeśli konfiguracja tego wymaga.
+     *
+     * @param parametry - parametry symulacji.
+     * @return Nowy obiekt lub null, jeśli nie podano pliku binarnego.
+     */
+    static PisarzBinarny dla(Konfiguracja parametry) throws IOException {
+        if (parametry.getPlikBinarny() == null) return null;
+        return new PisarzBinarny(parametry.getPlikBinarny(), parametry);
+    }
+
+    /**
+     * Zapisuje bufor do kanału i go czyści.
+     */
+    private void opróżnij() throws IOException {
+        bufor.flip();
+        while (bufor.hasRemaining()) kanał.write(bufor);
+        bufor.clear();
+    }
+
+    /**
+     * Zapewnia miejsce w buforze.
+     *
+     * @param bajty - potrzebna liczba bajtów.
+     */
+    private void miejsce(int bajty) throws IOException {
+        if (bufor.remaining() < bajty) opróżnij();
+    }
+
+    /**
+     * Uzupełnia plik zerami do wielokrotności 8 bajtów.
+     *
+     * @return Położenie kolejnej sekcji.
+     */
+    private long wyrównaj() throws IOException {
+        long pozycja = kanał.position() + bufor.position();
+        while (pozycja % 8 != 0) {
+            miejsce(1);
+            bufor.put((byte) 0);
+            pozycja++;
+        }
+        return pozycja;
+    }
+
+    /**
+     * Zapisuje tablicę bajtów jako sekcję.
+     *
+     * @param tablica - zapisywane bajty.
+     * @return Położenie sekcji.
+     */
+    private long sekcja(byte[] tablica) throws IOException {
+        long początek = wyrównaj();
+        for (int i = 0; i < tablica.length; ) {
+            miejsce(1);
+            int ile = Math.min(bufor.remaining(), tablica.length - i);
+            bufor.put(tablica, i, ile);
+            i += ile;
+        }
+        return początek;
+    }
+
+    /**
+     * Zapisuje populację i graf przed pierwszym dniem symulacji.
+     *
+     * @param rodzaj - rodzaje agentów (numery rodzajów, patrz RodzajAgenta.wczytaj);
+     * @param stan   - stany agentów (Stan.ordinal());
+     * @param graf   - graf społecznościowy bez zmarłych agentów.
+     */
+    void populacja(byte[] rodzaj, byte[] stan, GrafCSR graf) throws IOException {
+        liczbaAgentów = rodzaj.length;
+        liczbaWpisów = graf.liczbaWpisów();
+        sekcjaRodzajów = sekcja(rodzaj);
+        sekcjaStanów = sekcja(stan);
+        sekcjaPoczątków = wyrównaj();
+        for (int a = 0; a <= liczbaAgentów; a++) {
+            miejsce(8);
+            bufor.putLong((a == liczbaAgentów) ? liczbaWpisów : graf.początek(a));
+        }
+        sekcjaSąsiadów = wyrównaj();
+        for (int i = 0; i < liczbaWpisów; i++) {
+            miejsce(4);
+            bufor.putInt(graf.sąsiad(i));
+        }
+    }
+
+    /**
+     * Zapamiętuje liczności populacji na końcu dnia.
+     *
+     * @param nrDnia  - numer dnia (0 oznacza stan przed pierwszym dniem);
+     * @param licznik - licznik stanów populacji.
+     */
+    void dzień(int nrDnia, LicznikStanow licznik) {
+        liczności[3 * nrDnia] = licznik.liczba(Stan.ZDROWY);
+        liczności[3 * nrDnia + 1] = licznik.liczba(Stan.CHORY);
+        liczności[3 * nrDnia + 2] = licznik.liczba(Stan.UODPORNIONY);
+        zapisaneDni = nrDnia + 1;
+    }
+
+    /**
+     * Zapisuje liczności i nagłówek, a następnie zamyka plik.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long sekcjaLiczności = wyrównaj();
+            for (int i = 0; i < 3 * zapisaneDni; i++) {
+                miejsce(4);
+                bufor.putInt(liczności[i]);
+            }
+            opróżnij();
+            bufor.putLong(RaportBinarny.MAGIA);
+            bufor.putInt(RaportBinarny.WERSJA);
+            bufor.putInt(liczbaAgentów);
+            bufor.putLong(parametry.getSeed());
+            bufor.putInt(parametry.getLiczbaDni());
+            bufor.putInt(parametry.getŚrZnajomych());
+            bufor.putDouble(parametry.getPrawdTowarzyski());
+            bufor.putDouble(parametry.getPrawdSpotkania());
+            bufor.putDouble(parametry.getPrawdZarażenia());
+            bufor.putDouble(parametry.getPrawdWyzdrowienia());
+            bufor.putDouble(parametry.getŚmiertelność());
+            bufor.putLong(liczbaWpisów);
+            bufor.putLong(sekcjaRodzajów);
+            bufor.putLong(sekcjaStanów);
+            bufor.putLong(sekcjaPoczątków);
+            bufor.putLong(sekcjaSąsiadów);
+            bufor.putLong(sekcjaLiczności);
+            bufor.putInt(zapisaneDni);
+            bufor.flip();
+            kanał.position(0);
+            while (bufor.hasRemaining()) kanał.write(bufor);
+        } finally {
+            kanał.close();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package symulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Klasa zapisująca raport do pliku w miarę jego tworzenia.
+ * Tekst kodowany jest w UTF-8 do jednego z dwóch buforów. Zapełniony bufor przekazywany jest
+ * wątkowi piszącemu, który zapisuje go do kanału pliku, a w tym czasie symulacja wypełnia
+ * drugi bufor - zapis na dysk nakłada się na kolejne dni symulacji, a zajęta pamięć nie
+ * zależy od rozmiaru raportu.
+ * Tak jak dotychczas raport w pliku nie zawiera ostatniego znaku (końcowego znaku nowej linii).
+ * Błędy zapisu zgłaszane są jako UncheckedIOException przy kolejnym przekazaniu bufora albo
+ * przy zamknięciu.
+ * Przy wznawianiu symulacji z punktu kontrolnego (klasa PunktKontrolny) raport jest skracany do
+ * długości zapisanej w punkcie kontrolnym i dopisywany od tego miejsca.
+ * Raport tworzony metodą atomowy pisany jest do pliku tymczasowego w katalogu raportu
+ * i zastępuje plik z raportem dopiero po zatwierdzeniu (metoda zatwierdź), więc pod nazwą
+ * raportu nigdy nie ma raportu niepełnego, a raport przerwanej symulacji jest usuwany.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class PisarzRaportu implements Appendable, Closeable {
+    /**
+     * Rozmiar każdego z buforów w bajtach.
+     */
+    private static final int ROZMIAR_BUFORA = 1 << 20;
+    /**
+     * Pusty bufor oznaczający dla wątku piszącego koniec raportu.
+     */
+    private static final ByteBuffer KONIEC = ByteBuffer.allocate(0);
+
+    /**
+     * Kanał pliku z raportem.
+     */
+    private final FileChannel kanał;
+    /**
+     * Plik tymczasowy i plik z raportem, który zastępuje po zatwierdzeniu (null, jeśli raport
+     * pisany jest od razu do swojego pliku).
+     */
+    private final Path tymczasowy;
+    private final Path cel;
+    /**
+     * Bufory czekające na zapis i bufory gotowe do ponownego wypełnienia.
+     */
+    private final BlockingQueue<ByteBuffer> pełne = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<ByteBuffer> puste = new ArrayBlockingQueue<>(2);
+    /**
+     * Wątek zapisujący bufory do kanału.
+     */
+    private final Thread wątekPiszący;
+    /**
+     * Bufor, do którego trafia tekst.
+     */
+    private ByteBuffer bufor;
+    /**
+     * Liczba bajtów, którą zajmuje w UTF-8 ostatni dopisany znak.
+     */
+    private int długośćOstatniegoZnaku;
+    /**
+     * Pierwszy znak pary zastępczej czekający na drugi (0, jeśli nie ma takiego).
+     */
+    private char wysokiZastępczy;
+    /**
+     * Liczba bajtów w buforach przekazanych wątkowi piszącemu (łącznie z początkiem pliku
+     * zachowanym przy wznowieniu).
+     */
+    private long przekazane;
+    /**
+     * Liczba bajtów zapisanych już do kanału przez wątek piszący.
+     */
+    private long zapisane;
+    /**
+     * Pierwszy błąd zapisu zgłoszony przez wątek piszący.
+     */
+    private volatile IOException błąd;
+    /**
+     * Czy raport został już zamknięty.
+     */
+    private boolean zamknięty;
+
+    /**
+     * Tworzy nowy obiekt klasy PisarzRaportu i uruchamia wątek piszący.
+     * Istniejący plik jest zastępowany.
+     *
+     * @param plik - ścieżka do pliku z raportem.
+     */
+    public PisarzRaportu(String plik) throws IOException {
+        this(plik, 0);
+    }
+
+    /**
+     * Tworzy nowy obiekt klasy PisarzRaportu dopisujący do początku istniejącego raportu
+     * i uruchamia wątek piszący. Plik jest skracany do podanej długości.
+     *
+     * @param plik    - ścieżka do pliku z raportem;
+     * @param długość - liczba zachowanych bajtów z początku pliku.
+     */
+    public PisarzRaportu(String plik, long długość) throws IOException {
+        this(Paths.get(plik), null, długość);
+    }
+
+    private PisarzRaportu(Path plik, Path cel, long długość) throws IOException {
+        tymczasowy = (cel == null) ? null : plik;
+        this.cel = cel;
+        kanał = FileChannel.open(plik, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        kanał.truncate(długość);
+        kanał.position(długość);
+        przekazane = długość;
+        zapisane = długość;
+        bufor = ByteBuffer.allocateDirect(ROZMIAR_BUFORA);
+        puste.add(ByteBuffer.allocateDirect(ROZMIAR_BUFORA));
+        wątekPiszący = new Thread(this::piszBufory, "pisarz raportu");
+        wątekPiszący.setDaemon(true);
+        wątekPiszący.start();
+    }
+
+    /**
+     * Tworzy obiekt klasy PisarzRaportu piszący raport do pliku tymczasowego w katalogu
+     * raportu. Plik z raportem jest zastępowany dopiero przez metodę zatwierdź, a zamknięcie
+     * bez zatwierdzenia usuwa plik tymczasowy.
+     *
+     * @param plik - ścieżka do pliku z raportem.
+     * @return Nowy obiekt.
+     */
+    public static PisarzRaportu atomowy(String plik) throws IOException {
+        Path cel = Paths.get(plik).toAbsolutePath();
+        Path tymczasowy = Files.createTempFile(cel.getParent(), cel.getFileName().toString(),
+                ".tmp");
+        try {
+            return new PisarzRaportu(tymczasowy, cel, 0);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tymczasowy);
+            throw e;
+        }
+    }
+
+    /**
+     * Zapisuje do kanału kolejne przekazane bufory, aż do bufora KONIEC.
+     * Po błędzie bufory nie są już zapisywane, ale nadal są zwracane, żeby symulacja mogła
+     * dojść do miejsca, w którym błąd zostanie zgłoszony.
+     */
+    private void piszBufory() {
+        try {
+            while (true) {
+                ByteBuffer pełny = pełne.take();
+                if (pełny == KONIEC) return;
+                int rozmiar = pełny.remaining();
+                try {
+                    if (błąd == null) {
+                        while (pełny.hasRemaining()) kanał.write(pełny);
+                    }
+                } catch (IOException e) {
+                    błąd = e;
+                }
+                synchronized (this) {
+                    zapisane += rozmiar;
+                    notifyAll();
+                }
+                pełny.clear();
+                puste.put(pełny);
+            }
+        } catch (InterruptedException e) {
+            błąd = new InterruptedIOException();
+        } finally {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Przekazuje bieżący bufor wątkowi piszącemu i bierze pusty bufor.
+     */
+    private void przekaż() {
+        sprawdźBłąd();
+        przekazane += bufor.position();
+        bufor.flip();
+        try {
+            pełne.put(bufor);
+            bufor = puste.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException());
+        }
+    }
+
+    /**
+     * Zwraca liczbę bajtów dopisanego dotąd raportu (łącznie z ostatnim znakiem, który przy
+     * zamknięciu jest usuwany).
+     *
+     * @return Długość raportu w bajtach.
+     */
+    long długość() {
+        return przekazane + bufor.position();
+    }
+
+    /**
+     * Przekazuje wątkowi piszącemu dopisany dotąd tekst, nie czekając na jego zapisanie.
+     */
+    void wypchnij() {
+        if (bufor.position() > 0) przekaż();
+    }
+
+    /**
+     * Czeka, aż wątek piszący zapisze co najmniej podaną liczbę bajtów, i utrwala je na dysku.
+     * Może być wywoływana z innego wątku niż ten, który dopisuje raport.
+     *
+     * @param długość - liczba bajtów (nie większa niż długość() w chwili wywołania wypchnij).
+     * @throws IOException jeśli zapis się nie powiódł albo raport został zamknięty wcześniej.
+     */
+    void utrwal(long długość) throws IOException {
+        synchronized (this) {
+            while (zapisane < długość && błąd == null && wątekPiszący.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (błąd != null) throw błąd;
+            if (zapisane < długość) throw new IOException("Raport zamknięty przed zapisem");
+        }
+        kanał.force(false);
+    }
+
+    /**
+     * Zgłasza błąd zapisu, jeśli wystąpił.
+     */
+    private void sprawdźBłąd() {
+        if (błąd != null) throw new UncheckedIOException(błąd);
+    }
+
+    /**
+     * Zapewnia miejsce w bieżącym buforze.
+     *
+     * @param bajty - potrzebna liczba bajtów.
+     */
+    private void miejsce(int bajty) {
+        if (bufor.remaining() < bajty) przekaż();
+    }
+
+    @Override
+    public PisarzRaportu append(CharSequence tekst) {
+        for (int i = 0; i < tekst.length(); i++) append(tekst.charAt(i));
+        return this;
+    }
+
+    @Override
+    public PisarzRaportu append(CharSequence tekst, int początek, int koniec) {
+        return append(tekst.subSequence(początek, koniec));
+    }
+
+    /**
+     * Dopisuje znak zakodowany w UTF-8. Znak spoza BMP (para zastępcza) zapisywany jest po
+     * dopisaniu drugiego znaku pary, a niesparowany znak zastępczy - jako '?', tak jak przez
+     * PrintWriter.
+     *
+     * @param c - znak.
+     * @return Ten obiekt.
+     */
+    @Override
+    public PisarzRaportu append(char c) {
+        miejsce(4);
+        if (wysokiZastępczy != 0) {
+            char wysoki = wysokiZastępczy;
+            wysokiZastępczy = 0;
+            if (Character.isLowSurrogate(c)) {
+                int znak = Character.toCodePoint(wysoki, c);
+                bufor.put((byte) (0xf0 | (znak >> 18)));
+                bufor.put((byte) (0x80 | ((znak >> 12) & 0x3f)));
+                bufor.put((byte) (0x80 | ((znak >> 6) & 0x3f)));
+                bufor.put((byte) (0x80 | (znak & 0x3f)));
+                długośćOstatniegoZnaku = 4;
+                return this;
+            }
+            bufor.put((byte) '?');
+            miejsce(4);
+        }
+        if (c < 0x80) {
+            bufor.put((byte) c);
+            długośćOstatniegoZnaku = 1;
+        } else if (c < 0x800) {
+            bufor.put((byte) (0xc0 | (c >> 6)));
+            bufor.put((byte) (0x80 | (c & 0x3f)));
+            długośćOstatniegoZnaku = 2;
+        } else if (Character.isHighSurrogate(c)) {
+            wysokiZastępczy = c;
+        } else {
+            bufor.put((byte) (0xe0 | (c >> 12)));
+            bufor.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+            bufor.put((byte) (0x80 | (c & 0x3f)));
+            długośćOstatniegoZnaku = 3;
+        }
+        return this;
+    }
+
+    /**
+     * Dopisuje liczbę w zapisie dziesiętnym, bez tworzenia napisu.
+     *
+     * @param liczba - liczba.
+     * @return Ten obiekt.
+     */
+    public PisarzRaportu append(int liczba) {
+        miejsce(11);
+        if (liczba < 0) {
+            bufor.put((byte) '-');
+            if (liczba == Integer.MIN_VALUE) return append(Integer.toString(liczba).substring(1));
+            liczba = -liczba;
+        }
+        int cyfry = 1;
+        for (int p = liczba; p >= 10; p /= 10) cyfry++;
+        int koniec = bufor.position() + cyfry;
+        for (int i = koniec - 1; i >= bufor.position(); i--) {
+            bufor.put(i, (byte) ('0' + liczba % 10));
+            liczba /= 10;
+        }
+        bufor.position(koniec);
+        długośćOstatniegoZnaku = 1;
+        return this;
+    }
+
+    /**
+     * Dopisuje liczbę w zapisie dziesiętnym. Do obiektów PisarzRaportu, StringBuilder i Writer
+     * liczba dopisywana jest bez tworzenia napisu.
+     *
+     * @param wyjście - obiekt, do którego dopisywany jest tekst;
+     * @param liczba  - liczba.
+     */
+    static void dopisz(Appendable wyjście, int liczba) throws IOException {
+        if (wyjście instanceof PisarzRaportu) ((PisarzRaportu) wyjście).append(liczba);
+        else if (wyjście instanceof StringBuilder) ((StringBuilder) wyjście).append(liczba);
+        else if (wyjście instanceof Writer && liczba >= 0) {
+            char[] cyfry = new char[10];
+            int początek = cyfry.length;
+            do {
+                cyfry[--początek] = (char) ('0' + liczba % 10);
+                liczba /= 10;
+            } while (liczba > 0);
+            ((Writer) wyjście).write(cyfry, początek, cyfry.length - początek);
+        } else wyjście.append(Integer.toString(liczba));
+    }
+
+    /**
+     * Zamyka raport (patrz close) i, jeśli był pisany do pliku tymczasowego, zastępuje nim
+     * plik z raportem.
+     */
+    public void zatwierdź() throws IOException {
+        if (zamknięty) throw new IOException("Raport zamknięty przed zatwierdzeniem");
+        zamknij();
+        if (tymczasowy != null) Files.move(tymczasowy, cel, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Zapisuje resztę raportu, usuwa z pliku ostatni znak i zamyka plik.
+     * Niesparowany pierwszy znak pary zastępczej jest pomijany razem z ostatnim znakiem.
+     * Niezatwierdzony plik tymczasowy jest usuwany. Raport zamknięty wcześniej (także przez
+     * nieudane zatwierdzenie) nie jest zamykany ponownie.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!zamknięty) zamknij();
+        } finally {
+            if (tymczasowy != null) Files.deleteIfExists(tymczasowy);
+        }
+    }
+
+    /**
+     * Zapisuje resztę raportu, usuwa z pliku ostatni znak i zamyka plik.
+     */
+    private void zamknij() throws IOException {
+        zamknięty = true;
+        try {
+            if (wysokiZastępczy != 0) długośćOstatniegoZnaku = 0;
+            przekaż();
+            pełne.put(KONIEC);
+            wątekPiszący.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (UncheckedIOException e) {
+            kanał.close();
+            throw e.getCause();
+        }
+        try {
+            if (błąd != null) throw błąd;
+            kanał.truncate(kanał.size() - długośćOstatniegoZnaku);
+        } finally {
+            kanał.close();
+        }
+    }
+}
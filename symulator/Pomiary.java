@@ -0,0 +1,301 @@
+package symulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Klasa zbierająca pomiary przebiegu symulacji: czas i liczbę bajtów zaalokowanych w kolejnych
+ * fazach oraz liczby losowań, spotkań, zarażeń i zgonów w kolejnych dniach.
+ * Pomiary są zgłaszane jako zdarzenia JDK Flight Recorder (symulator.Faza i symulator.Dzien),
+ * a jeśli podano parametr opcjonalny plikPomiarów, zapisywane są też na koniec symulacji do
+ * tego pliku. Pomiary są zbierane tylko wtedy, gdy podano plik pomiarów albo gdy w chwili
+ * tworzenia populacji trwa nagranie JFR z włączonymi zdarzeniami symulatora - w przeciwnym
+ * razie populacja nie ma obiektu pomiarów, a fazy nie są mierzone.
+ * Alokacja mierzona jest dla wątku wykonującego fazę (w trybie równoległych dni bez wątków
+ * puli), a losowania tylko dla maszyny losującej symulacji (bez strumieni trybu równoległego).
+ * Spotkania pominięte w trybie aktywnych kroków nie są liczone.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class Pomiary {
+    /**
+     * Mierzone fazy symulacji.
+     */
+    enum Faza {
+        LOSOWANIE_AGENTÓW("losowanieAgentów"),
+        LOSOWANIE_GRAFU("losowanieGrafu"),
+        POCZĄTEK_DNIA("początekDnia"),
+        UMAWIANIE_SPOTKAŃ("umówSpotkania"),
+        SPOTKANIA("przeprowadźSpotkania"),
+        RAPORT("raport");
+
+        private final String nazwa;
+
+        Faza(String nazwa) {
+            this.nazwa = nazwa;
+        }
+    }
+
+    /**
+     * Zdarzenie JFR zakończenia fazy symulacji.
+     */
+    @Name("symulator.Faza")
+    @Label("Faza symulacji")
+    @Category("Symulator epidemii")
+    @Description("Czas i alokacja jednej fazy symulacji")
+    static final class ZdarzenieFazy extends Event {
+        @Label("Faza")
+        String faza;
+        @Label("Dzień")
+        int dzień;
+        @Label("Alokacja")
+        @DataAmount
+        long alokacja;
+    }
+
+    /**
+     * Zdarzenie JFR zakończenia dnia symulacji.
+     */
+    @Name("symulator.Dzien")
+    @Label("Dzień symulacji")
+    @Category("Symulator epidemii")
+    @Description("Liczby zdarzeń jednego dnia symulacji")
+    static final class ZdarzenieDnia extends Event {
+        @Label("Dzień")
+        int dzień;
+        @Label("Losowania")
+        long losowania;
+        @Label("Spotkania")
+        long spotkania;
+        @Label("Zarażenia")
+        int zarażenia;
+        @Label("Zgony")
+        int zgony;
+        @Label("Chorzy")
+        int chorzy;
+    }
+
+    private final Konfiguracja parametry;
+    /**
+     * Licznik alokacji wątków (null, jeśli maszyna wirtualna go nie udostępnia).
+     */
+    private final com.sun.management.ThreadMXBean wątki;
+    /**
+     * Łączny czas [ns], alokacja [B] i liczba wywołań kolejnych faz.
+     */
+    private final long[] czas;
+    private final long[] alokacja;
+    private final long[] wywołania;
+    /**
+     * Liczby losowań, spotkań, zarażeń i zgonów w kolejnych dniach (-1 dla dni, które nie
+     * były przeprowadzane w tym przebiegu, np. przed wznowieniem).
+     */
+    private final long[] losowania;
+    private final long[] spotkania;
+    private final int[] zarażenia;
+    private final int[] zgony;
+    /**
+     * Początek bieżącej fazy i jej zdarzenie JFR.
+     */
+    private long początekCzasu;
+    private long początekAlokacji;
+    private ZdarzenieFazy zdarzenie;
+    /**
+     * Liczba spotkań bieżącego dnia oraz stan z końca poprzedniego dnia.
+     */
+    private long spotkaniaDnia;
+    private long poprzednieLosowania;
+    private int poprzedniZdrowi;
+    private int poprzedniŻywi;
+
+    private Pomiary(Konfiguracja parametry) {
+        this.parametry = parametry;
+        ThreadMXBean wątki = ManagementFactory.getThreadMXBean();
+        this.wątki = (wątki instanceof com.sun.management.ThreadMXBean &&
+                ((com.sun.management.ThreadMXBean) wątki).isThreadAllocatedMemoryEnabled()) ?
+                (com.sun.management.ThreadMXBean) wątki : null;
+        int liczbaFaz = Faza.values().length;
+        czas = new long[liczbaFaz];
+        alokacja = new long[liczbaFaz];
+        wywołania = new long[liczbaFaz];
+        int liczbaDni = parametry.getLiczbaDni() + 1;
+        losowania = new long[liczbaDni];
+        spotkania = new long[liczbaDni];
+        zarażenia = new int[liczbaDni];
+        zgony = new int[liczbaDni];
+        Arrays.fill(losowania, -1);
+        poprzednieLosowania = liczbaLosowań(parametry.getMaszynaLosująca());
+        poprzedniZdrowi = parametry.getLiczbaAgentów();
+        poprzedniŻywi = parametry.getLiczbaAgentów();
+    }
+
+    /**
+     * Zwraca obiekt pomiarów symulacji, jeśli pomiary są włączone.
+     *
+     * @param parametry - parametry symulacji.
+     * @return Nowy obiekt lub null, jeśli pomiary nie są zbierane.
+     */
+    static Pomiary dla(Konfiguracja parametry) {
+        if (parametry.getPlikPomiarów() == null && !czyNagrywanie()) return null;
+        return new Pomiary(parametry);
+    }
+
+    /**
+     * Sprawdza, czy trwa nagranie JFR, w którym włączone są zdarzenia symulatora.
+     *
+     * @return Wartość true, jeśli zdarzenia faz są nagrywane, wpp. false.
+     */
+    private static boolean czyNagrywanie() {
+        return FlightRecorder.isInitialized() &&
+                EventType.getEventType(ZdarzenieFazy.class).isEnabled();
+    }
+
+    /**
+     * Zwraca liczbę dotychczasowych losowań maszyny losującej.
+     *
+     * @param maszynaLosująca - maszyna losująca.
+     * @return Liczba losowań lub 0, jeśli maszyna ich nie liczy.
+     */
+    private static long liczbaLosowań(Random maszynaLosująca) {
+        return (maszynaLosująca instanceof MaszynaLosujaca) ?
+                ((MaszynaLosujaca) maszynaLosująca).getLiczbaLosowań() : 0;
+    }
+
+    private long alokacja() {
+        return (wątki == null) ? 0 : wątki.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Rozpoczyna pomiar fazy. Fazy nie mogą się zagnieżdżać.
+     */
+    void początek() {
+        zdarzenie = new ZdarzenieFazy();
+        zdarzenie.begin();
+        początekAlokacji = alokacja();
+        początekCzasu = System.nanoTime();
+    }
+
+    /**
+     * Kończy pomiar fazy rozpoczętej przez początek().
+     *
+     * @param faza   - mierzona faza;
+     * @param nrDnia - numer dnia (0 dla losowania populacji).
+     */
+    void koniec(Faza faza, int nrDnia) {
+        long czasFazy = System.nanoTime() - początekCzasu;
+        long alokacjaFazy = alokacja() - początekAlokacji;
+        czas[faza.ordinal()] += czasFazy;
+        alokacja[faza.ordinal()] += alokacjaFazy;
+        wywołania[faza.ordinal()]++;
+        zdarzenie.end();
+        if (zdarzenie.shouldCommit()) {
+            zdarzenie.faza = faza.nazwa;
+            zdarzenie.dzień = nrDnia;
+            zdarzenie.alokacja = alokacjaFazy;
+            zdarzenie.commit();
+        }
+        zdarzenie = null;
+    }
+
+    /**
+     * Dolicza spotkania, do których doszło w bieżącym dniu.
+     *
+     * @param liczba - liczba spotkań.
+     */
+    void spotkania(int liczba) {
+        spotkaniaDnia += liczba;
+    }
+
+    /**
+     * Ustawia stan z końca poprzedniego dnia przy wznowieniu symulacji od punktu kontrolnego.
+     *
+     * @param licznik - licznik stanów wczytanej populacji.
+     */
+    void wznowienie(LicznikStanow licznik) {
+        poprzednieLosowania = liczbaLosowań(parametry.getMaszynaLosująca());
+        poprzedniZdrowi = licznik.liczba(Stan.ZDROWY);
+        poprzedniŻywi = żywi(licznik);
+    }
+
+    /**
+     * Zamyka pomiary dnia. Zarażenia to ubytek zdrowych, a zgony - ubytek żywych agentów.
+     *
+     * @param nrDnia  - numer dnia;
+     * @param licznik - licznik stanów po zakończeniu dnia.
+     */
+    void koniecDnia(int nrDnia, LicznikStanow licznik) {
+        long losowaniaDotąd = liczbaLosowań(parametry.getMaszynaLosująca());
+        losowania[nrDnia] = losowaniaDotąd - poprzednieLosowania;
+        spotkania[nrDnia] = spotkaniaDnia;
+        zarażenia[nrDnia] = poprzedniZdrowi - licznik.liczba(Stan.ZDROWY);
+        zgony[nrDnia] = poprzedniŻywi - żywi(licznik);
+        poprzednieLosowania = losowaniaDotąd;
+        poprzedniZdrowi = licznik.liczba(Stan.ZDROWY);
+        poprzedniŻywi = żywi(licznik);
+        spotkaniaDnia = 0;
+        ZdarzenieDnia zdarzenieDnia = new ZdarzenieDnia();
+        if (zdarzenieDnia.shouldCommit()) {
+            zdarzenieDnia.dzień = nrDnia;
+            zdarzenieDnia.losowania = losowania[nrDnia];
+            zdarzenieDnia.spotkania = spotkania[nrDnia];
+            zdarzenieDnia.zarażenia = zarażenia[nrDnia];
+            zdarzenieDnia.zgony = zgony[nrDnia];
+            zdarzenieDnia.chorzy = licznik.liczba(Stan.CHORY);
+            zdarzenieDnia.commit();
+        }
+    }
+
+    private static int żywi(LicznikStanow licznik) {
+        return licznik.liczba(Stan.ZDROWY) + licznik.liczba(Stan.CHORY) +
+                licznik.liczba(Stan.UODPORNIONY);
+    }
+
+    /**
+     * Zapisuje pomiary do pliku pomiarów, jeśli go podano. Plik zawiera oddzielone spacjami
+     * kolumny: dla każdej fazy jej nazwę, łączny czas [ns], alokację [B] i liczbę wywołań, a dla
+     * każdego przeprowadzonego dnia jego numer oraz liczby losowań, spotkań, zarażeń i zgonów.
+     * Wiersze zaczynające się od # są komentarzami.
+     *
+     * @throws UncheckedIOException jeśli zapis się nie powiedzie.
+     */
+    void zapisz() {
+        if (parametry.getPlikPomiarów() == null) return;
+        try (PrintWriter wyjście = new PrintWriter(Files.newBufferedWriter(
+                Paths.get(parametry.getPlikPomiarów()), StandardCharsets.UTF_8))) {
+            wyjście.println("# faza czas[ns] alokacja[B] wywołania");
+            for (Faza faza : Faza.values()) {
+                int f = faza.ordinal();
+                wyjście.println(faza.nazwa + " " + czas[f] + " " + alokacja[f] + " " +
+                        wywołania[f]);
+            }
+            wyjście.println();
+            wyjście.println("# dzień losowania spotkania zarażenia zgony");
+            for (int d = 0; d < losowania.length; d++) {
+                if (losowania[d] < 0) continue;
+                wyjście.println(d + " " + losowania[d] + " " + spotkania[d] + " " + zarażenia[d] +
+                        " " + zgony[d]);
+            }
+            if (wyjście.checkError()) throw new IOException("Błąd zapisu pliku pomiarów");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package symulator;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Klasa reprezentująca populację.
@@ -11,6 +14,11 @@ import java.util.*;
  * @version 2018.0611
  */
 public class Populacja {
+    /**
+     * Największa liczba liczb losowanych jednym blokiem przy losowaniu agentów.
+     */
+    private static final int BLOK_LOSOWAŃ = 4096;
+
     /**
      * Obiekt klasy Konfiguracja.
      * Zawiera parametry dla symulatora epidemii.
@@ -20,6 +28,57 @@ public class Populacja {
      * Obiekt klasy List przechowujący agentów obecnych w populacji.
      */
     private List<Agent> agenci;
+    /**
+     * Agenci w kolejności identyfikatorów (agent o identyfikatorze id ma indeks id - 1),
+     * łącznie ze zmarłymi.
+     */
+    private Agent[] agenciWgNumeru;
+    /**
+     * Numery rodzajów agentów (indeksy na liście rodzajów) w kolejności identyfikatorów.
+     */
+    private byte[] numeryRodzajów;
+    /**
+     * Czy agenci kolejnych rodzajów mają znajomych znajomych (rodzaje o zachowaniu
+     * TOWARZYSKI, patrz RodzajAgenta.zachowanie).
+     */
+    private boolean[] towarzyskie;
+    /**
+     * Numery żywych zarażonych agentów w trybie aktywnych kroków (Konfiguracja.czyAktywneKroki)
+     * - początek dnia przegląda tylko ich - i przy zbiorczym przebiegu choroby
+     * (Konfiguracja.czyZbiorczyPrzebiegChoroby), wpp. null.
+     */
+    private BitSet chorzy;
+    /**
+     * Losowania zbiorczego przebiegu choroby na początku dnia.
+     */
+    private PrzebiegZbiorczy przebiegZbiorczy;
+    /**
+     * Kalendarz spotkań umówionych przez agentów.
+     */
+    private KalendarzSpotkan kalendarz;
+    /**
+     * Licznik żywych agentów w poszczególnych stanach zdrowia.
+     */
+    private LicznikStanow licznik;
+    /**
+     * Tablica pomocnicza do oznaczania zmarłych partnerów spotkań bez jej czyszczenia.
+     * Agent jest oznaczony, jeśli jego pole ma wartość równą atrybutowi znacznik.
+     */
+    private int[] znaczniki;
+    private int znacznik;
+    /**
+     * Tablica na liczby losowane blokami (patrz losuj).
+     */
+    private double[] losowe;
+    /**
+     * Pomiary faz i dni symulacji (null, jeśli nie są zbierane - patrz Pomiary).
+     */
+    private Pomiary pomiary;
+    /**
+     * Miary epidemiologiczne podsumowania raportu (null, jeśli raport go nie ma - patrz
+     * Analizy).
+     */
+    private Analizy analizy;
 
     /**
      * Tworzy nowy obiekt klasy Populacja.
@@ -27,32 +86,21 @@ public class Populacja {
     public Populacja(Konfiguracja parametry) {
         this.parametry = parametry;
         agenci = new ArrayList<>();
+        kalendarz = new KalendarzSpotkan(parametry.getLiczbaAgentów(), parametry.getLiczbaDni());
+        licznik = new LicznikStanow();
+        znaczniki = new int[parametry.getLiczbaAgentów()];
+        przebiegZbiorczy = new PrzebiegZbiorczy();
+        pomiary = Pomiary.dla(parametry);
     }
 
     /**
-     * Liczy, ile jest aktualnie chorych osób w populacji.
+     * Zwraca licznik żywych agentów w poszczególnych stanach zdrowia.
+     * Licznik jest aktualizowany na bieżąco w trakcie symulacji.
      *
-     * @return Liczba obiektów klasy Agent zawartych w atrybucie agenci, mających stan CHORY.
+     * @return Licznik stanów populacji.
      */
-    private int liczbaChorych() {
-        int wynik = 0;
-        for (Agent a : agenci) {
-            if (a.getStan() == Stan.CHORY) wynik++;
-        }
-        return wynik;
-    }
-
-    /**
-     * Liczy, ile jest aktualnie zdrowych osób w populacji.
-     *
-     * @return Liczba obiektów klasy Agent zawartych w atrybucie agenci, mających stan ZDROWY.
-     */
-    private int liczbaZdrowych() {
-        int wynik = 0;
-        for (Agent a : agenci) {
-            if (a.getStan() == Stan.ZDROWY) wynik++;
-        }
-        return wynik;
+    public LicznikStanow getLicznikStanów() {
+        return licznik;
     }
 
     /**
@@ -61,58 +109,162 @@ public class Populacja {
      * wyzdrowieć (z prawd. prawdWyzdrowienia).
      * Agent, który umarł przestaje uczestniczyć w symulacji, a agent
      * który wyzdrowiał nabiera odporność i już nigdy nie zachoruje.
+     * Po śmierciach znajomi znajomych wyznaczani są ponownie tylko dla agentów towarzyskich
+     * odległych od zmarłych o co najwyżej dwie krawędzie - u pozostałych nic się nie zmienia.
+     * W trybie aktywnych kroków przeglądani są tylko zarażeni, w tej samej kolejności, a zmarli
+     * są usuwani z listy agentów razem, po przejrzeniu wszystkich.
+     * Każdy zarażony losuje jedną liczbę, więc wszystkie liczby losowane są z góry jednym
+     * blokiem.
+     * Przy zbiorczym przebiegu choroby zmarli i wyzdrowiali losowani są razem (patrz
+     * PrzebiegZbiorczy).
      */
     private void początekDnia() {
-        double losowyDouble;
+        if (parametry.czyZbiorczyPrzebiegChoroby()) {
+            początekDniaZbiorczy();
+            return;
+        }
+        double[] losowe = losuj(licznik.liczba(Stan.CHORY));
+        int i = 0;
         boolean ktośUmarł = false;
-        Iterator<Agent> iter = agenci.iterator();
-        while (iter.hasNext()) {
-            Agent a = iter.next();
-            if (a.getStan() == Stan.CHORY) {
-                losowyDouble = parametry.getMaszynaLosująca().nextDouble();
-                if (losowyDouble <= parametry.getŚmiertelność()) {
-                    a.śmierć();
+        Set<Agent> doOdświeżenia = new HashSet<>();
+        if (parametry.czyAktywneKroki()) {
+            for (int nr = chorzy.nextSetBit(0); nr >= 0; nr = chorzy.nextSetBit(nr + 1)) {
+                Agent a = agenciWgNumeru[nr];
+                if (przebiegChoroby(a, losowe[i++], doOdświeżenia)) ktośUmarł = true;
+                if (!a.czyŻywy() || a.getStan() != Stan.CHORY) chorzy.clear(nr);
+            }
+            if (ktośUmarł) agenci.removeIf(a -> !a.czyŻywy());
+        } else {
+            Iterator<Agent> iter = agenci.iterator();
+            while (iter.hasNext()) {
+                Agent a = iter.next();
+                if (a.getStan() == Stan.CHORY && przebiegChoroby(a, losowe[i++], doOdświeżenia)) {
                     iter.remove();
                     ktośUmarł = true;
-                } else if (losowyDouble <= parametry.getŚmiertelność() + parametry
-                        .getPrawdWyzdrowienia()) {
-                    a.setStan(Stan.UODPORNIONY);
                 }
             }
         }
-        if (ktośUmarł) {
-            for (Agent a : agenci) {
-                if (a.getClass() == AgentTowarzyski.class) {
-                    ((AgentTowarzyski) a).dodajZnajomychZnajomych();
-                }
-            }
+        if (ktośUmarł) odśwież(doOdświeżenia);
+    }
+
+    /**
+     * Symuluje początek dnia przy zbiorczym przebiegu choroby - zmarli i wyzdrowiali losowani
+     * są razem spośród zarażonych, a zmarli są usuwani z listy agentów po wszystkich zgonach.
+     */
+    private void początekDniaZbiorczy() {
+        przebiegZbiorczy.losuj(chorzy, parametry.getŚmiertelność(),
+                parametry.getPrawdWyzdrowienia(), parametry.getMaszynaLosująca());
+        Set<Agent> doOdświeżenia = new HashSet<>();
+        for (int i = 0; i < przebiegZbiorczy.getLiczbaZgonów(); i++) {
+            int nr = przebiegZbiorczy.zmarły(i);
+            śmierć(agenciWgNumeru[nr], doOdświeżenia);
+            chorzy.clear(nr);
+        }
+        for (int i = 0; i < przebiegZbiorczy.getLiczbaWyzdrowień(); i++) {
+            int nr = przebiegZbiorczy.wyzdrowiały(i);
+            agenciWgNumeru[nr].setStan(Stan.UODPORNIONY);
+            chorzy.clear(nr);
+        }
+        if (przebiegZbiorczy.getLiczbaZgonów() > 0) {
+            agenci.removeIf(a -> !a.czyŻywy());
+            odśwież(doOdświeżenia);
         }
     }
 
+    /**
+     * Ponownie wyznacza znajomych znajomych agentów towarzyskich po śmierciach.
+     *
+     * @param doOdświeżenia - zbiór agentów do odświeżenia.
+     */
+    private void odśwież(Set<Agent> doOdświeżenia) {
+        for (Agent a : doOdświeżenia) {
+            if (czyTowarzyski(a)) ((AgentTowarzyski) a).dodajZnajomychZnajomych();
+        }
+    }
+
+    /**
+     * Sprawdza, czy agent ma znajomych znajomych, na podstawie numeru jego rodzaju.
+     *
+     * @param a - agent.
+     * @return Wartość true dla agenta rodzaju o zachowaniu TOWARZYSKI, wpp. false.
+     */
+    private boolean czyTowarzyski(Agent a) {
+        return towarzyskie[numeryRodzajów[a.getId() - 1]];
+    }
+
+    /**
+     * Losuje, czy zarażony agent umiera (z prawd. śmiertelność), czy zdrowieje (z prawd.
+     * prawdWyzdrowienia). Przy śmierci agenta jego znajomi i ich znajomi trafiają do zbioru
+     * agentów, których znajomych znajomych trzeba wyznaczyć ponownie.
+     *
+     * @param a             - zarażony agent;
+     * @param losowyDouble  - liczba wylosowana dla agenta;
+     * @param doOdświeżenia - zbiór agentów do odświeżenia.
+     * @return Wartość true, jeśli agent umarł, wpp. false.
+     */
+    private boolean przebiegChoroby(Agent a, double losowyDouble, Set<Agent> doOdświeżenia) {
+        if (losowyDouble <= parametry.getŚmiertelność()) {
+            śmierć(a, doOdświeżenia);
+            return true;
+        } else if (losowyDouble <= parametry.getŚmiertelność() + parametry
+                .getPrawdWyzdrowienia()) {
+            a.setStan(Stan.UODPORNIONY);
+        }
+        return false;
+    }
+
+    /**
+     * Uśmierca agenta. Jego znajomi i ich znajomi trafiają do zbioru agentów, których znajomych
+     * znajomych trzeba wyznaczyć ponownie.
+     *
+     * @param a             - zmarły agent;
+     * @param doOdświeżenia - zbiór agentów do odświeżenia.
+     */
+    private void śmierć(Agent a, Set<Agent> doOdświeżenia) {
+        for (Agent znajomy : a.getZnajomi()) {
+            doOdświeżenia.add(znajomy);
+            doOdświeżenia.addAll(znajomy.getZnajomi());
+        }
+        a.śmierć();
+    }
+
+    /**
+     * Losuje blokiem kolejne liczby z przedziału [0, 1) - te same, które wylosowałyby kolejne
+     * wywołania nextDouble maszyny losującej symulacji.
+     *
+     * @param ile - liczba liczb do wylosowania.
+     * @return Tablica, której początek zawiera wylosowane liczby.
+     */
+    private double[] losuj(int ile) {
+        if (losowe == null || losowe.length < ile) losowe = new double[Math.max(16, ile)];
+        MaszynaLosujaca.wypełnij(parametry.getMaszynaLosująca(), losowe, ile);
+        return losowe;
+    }
+
     /**
      * Losuje populację.
-     * W chwili obecnej rozważamy dwa rodzaje agentów: zwykłych i towarzyskich.
-     * Rodzaj agenta określany jest przez losowanie przy użyciu parametru prawdTowarzyski.
+     * Rodzaj agenta określany jest przez losowanie przy użyciu prawdopodobieństw rodzajów
+     * (domyślnie zwykłych i towarzyskich, z parametrem prawdTowarzyski).
      * Wszyscy poza jednym wylosowanym agentem zaczynają jako zdrowi (bez odporności), a jeden
      * zaczyna jako zarażony.
      *
-     * @param konstruktory - zbiór konstruktorów, spośród których mogą być utworzeni nowi agenci.
+     * @param rodzaje - rodzaje agentów, spośród których mogą być utworzeni nowi agenci.
      */
-    private void losowanieAgentów(List<Constructor<? extends Agent>> konstruktory) throws
-            IllegalAccessException, InvocationTargetException, InstantiationException {
-        double losowyDouble;
-        double suma = 0;
+    private void losowanieAgentów(List<RodzajAgenta> rodzaje) {
+        WyborRodzaju wybór = WyborRodzaju.dla(parametry, rodzaje);
+        towarzyskie = RodzajAgenta.towarzyskie(rodzaje);
+        RodzajAgenta[] tablicaRodzajów = rodzaje.toArray(new RodzajAgenta[0]);
+        numeryRodzajów = new byte[parametry.getLiczbaAgentów()];
         for (int i = 1; i <= parametry.getLiczbaAgentów(); i++) {
-            losowyDouble = parametry.getMaszynaLosująca().nextDouble();
-            int opcja = -1;
-            for (Double d : parametry.getPrawdopodobieństwa()) {
-                suma += d;
-                opcja++;
-                if (losowyDouble <= suma) break;
-            }
-            agenci.add(konstruktory.get(opcja).newInstance(i, Stan.ZDROWY, parametry));
-            suma = 0;
+            if ((i - 1) % BLOK_LOSOWAŃ == 0)
+                losuj(Math.min(BLOK_LOSOWAŃ, parametry.getLiczbaAgentów() - i + 1));
+            int opcja = wybór.wybierz(losowe[(i - 1) % BLOK_LOSOWAŃ]);
+            numeryRodzajów[i - 1] = (byte) opcja;
+            Agent a = tablicaRodzajów[opcja].nowy(i, Stan.ZDROWY, parametry);
+            agenci.add(a);
+            a.dołącz(kalendarz, licznik);
         }
+        agenciWgNumeru = agenci.toArray(new Agent[0]);
         int agentZarażony = parametry.getMaszynaLosująca().nextInt(parametry.getLiczbaAgentów());
         agenci.get(agentZarażony).setStan(Stan.CHORY);
     }
@@ -124,6 +276,10 @@ public class Populacja {
      * (tzn. żadna inna liczba krawędzi nie dawała innego lepszej średniej).
      */
     private void losowanieGrafu() {
+        if (parametry.czyLiniowyGeneratorGrafu()) {
+            losowanieGrafuLiniowe();
+            return;
+        }
         int liczbaKrawędzi = parametry.getLiczbaAgentów() * parametry.getŚrZnajomych() / 2;
         int i = 0;
         Agent agent1, agent2;
@@ -138,37 +294,393 @@ public class Populacja {
             }
         }
         for (Agent a : agenci) {
-            if (a.getClass() == AgentTowarzyski.class) {
-                ((AgentTowarzyski) a).dodajZnajomychZnajomych();
-            }
+            if (czyTowarzyski(a)) ((AgentTowarzyski) a).dodajZnajomychZnajomych();
+        }
+    }
+
+    /**
+     * Losuje graf przy pomocy klasy GeneratorGrafu.
+     * Rozkład grafu jest taki sam jak w losowanieGrafu, ale czas losowania jest liniowy
+     * względem liczby krawędzi. Seed grafu losowany jest z maszyny losującej symulacji.
+     */
+    private void losowanieGrafuLiniowe() {
+        ForkJoinPool pula = Rownolegle.nowaPula(parametry.getWątki());
+        GeneratorGrafu generator = new GeneratorGrafu(parametry.getLiczbaAgentów(), (long)
+                parametry.getLiczbaAgentów() * parametry.getŚrZnajomych() / 2, parametry
+                .getMaszynaLosująca().nextLong(), pula);
+        long[] krawędzie = generator.losuj();
+        Rownolegle.zamknij(pula);
+        Agent agent1, agent2;
+        for (long krawędź : krawędzie) {
+            agent1 = agenci.get(generator.pierwszy(krawędź));
+            agent2 = agenci.get(generator.drugi(krawędź));
+            agent1.dodajZnajomego(agent2);
+            agent2.dodajZnajomego(agent1);
+        }
+        for (Agent a : agenci) {
+            if (czyTowarzyski(a)) ((AgentTowarzyski) a).dodajZnajomychZnajomych();
         }
     }
 
     /**
      * Przeprowadza symulację epidemii.
      *
-     * @param konstruktory - zbiór konstruktorów, spośród których mogą być utworzeni nowi agenci.
+     * @param rodzaje - rodzaje agentów, spośród których mogą być utworzeni nowi agenci.
      * @return Obiekt klasy String zawierający informację o początkowej sieci społecznościowej
      * oraz stan populacji po każdym dniu.
      */
-    public String symulacja(List<Constructor<? extends Agent>> konstruktory) throws
-            IllegalAccessException, InstantiationException,
-            InvocationTargetException {
+    public String symulacja(List<RodzajAgenta> rodzaje) {
         StringBuilder wynik = new StringBuilder();
-        losowanieAgentów(konstruktory);
-        losowanieGrafu();
-        wynik.append(this.toString());
-        wynik.append(System.lineSeparator());
-        wynik.append("# liczność w kolejnych dniach");
-        wynik.append(System.lineSeparator());
-        for (int nrDnia = 1; nrDnia <= parametry.getLiczbaDni(); nrDnia++) {
-            wynik.append(licznośćPopulacji());
-            symulacjaDnia(nrDnia);
-        }
-        wynik.append(licznośćPopulacji());
+        symulacja(rodzaje, wynik);
         return wynik.toString();
     }
 
+    /**
+     * Przeprowadza symulację epidemii, dopisując raport w miarę jego tworzenia
+     * (patrz symulacja(List)). Jeśli konfiguracja tego wymaga, zapisuje też raport binarny.
+     *
+     * @param rodzaje - rodzaje agentów, spośród których mogą być utworzeni nowi agenci;
+     * @param wyjście - obiekt, do którego dopisywany jest raport (np. PisarzRaportu).
+     * @throws UncheckedIOException jeśli dopisywanie do wyjścia się nie powiedzie.
+     */
+    public void symulacja(List<RodzajAgenta> rodzaje, Appendable wyjście) {
+        symulacja(rodzaje, wyjście, null);
+    }
+
+    /**
+     * Przeprowadza symulację epidemii z punktami kontrolnymi, dopisując raport w miarę jego
+     * tworzenia. Jeśli istnieje punkt kontrolny tej symulacji, jest ona od niego wznawiana.
+     *
+     * @param rodzaje - rodzaje agentów, spośród których mogą być utworzeni nowi agenci;
+     * @param wyjście - obiekt, do którego dopisywany jest raport (otwarty przez
+     *                PunktKontrolny.otwórzRaport);
+     * @param punkt   - punkt kontrolny symulacji (lub null).
+     * @throws UncheckedIOException jeśli dopisywanie do wyjścia albo wczytanie punktu
+     *                              kontrolnego się nie powiedzie.
+     */
+    public void symulacja(List<RodzajAgenta> rodzaje, Appendable wyjście,
+                          PunktKontrolny punkt) {
+        analizy = Analizy.dla(parametry, RodzajAgenta.nazwy(rodzaje));
+        int pierwszyDzień = 1;
+        if (punkt != null && punkt.czyWznowienie()) {
+            Migawka migawka;
+            try (DataInputStream wejście = punkt.wczytaj()) {
+                migawka = Migawka.wczytaj(wejście, parametry.getLiczbaAgentów());
+                kalendarz.wczytaj(wejście);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            odtwórz(migawka, rodzaje);
+            pierwszyDzień = punkt.getDzień() + 1;
+        } else {
+            losowanie(rodzaje);
+        }
+        try (PisarzBinarny binarny = PisarzBinarny.dla(parametry)) {
+            przebieg(pierwszyDzień, (nrDnia, licznik) -> {
+                try {
+                    if (nrDnia == 0) {
+                        SekcjaGrafu.zapisz(parametry, wyjście, this::drukuj);
+                        wyjście.append(System.lineSeparator());
+                        wyjście.append("# liczność w kolejnych dniach");
+                        wyjście.append(System.lineSeparator());
+                        if (binarny != null) zapiszPopulację(binarny);
+                    }
+                    wyjście.append(licznośćPopulacji());
+                    if (binarny != null) binarny.dzień(nrDnia, licznik);
+                    if (punkt != null && punkt.czyPora(nrDnia)) {
+                        Migawka migawka = new Migawka(agenciWgNumeru, numeryRodzajów,
+                                towarzyskie);
+                        KalendarzSpotkan spotkania = new KalendarzSpotkan(kalendarz);
+                        punkt.zapisz(nrDnia, strumień -> {
+                            migawka.zapisz(strumień);
+                            spotkania.zapisz(strumień);
+                        });
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (analizy != null) analizy.dopisz(wyjście);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Zapisuje populację i graf do raportu binarnego, przepisując je do postaci kolumnowej.
+     * Rodzajem agenta w raporcie jest numer jego rodzaju, tak jak w silniku kolumnowym.
+     *
+     * @param binarny - obiekt zapisujący raport binarny.
+     */
+    private void zapiszPopulację(PisarzBinarny binarny) throws IOException {
+        int liczbaAgentów = agenciWgNumeru.length;
+        byte[] stan = new byte[liczbaAgentów];
+        int[][] znajomi = new int[liczbaAgentów][];
+        int[] długości = new int[liczbaAgentów];
+        for (Agent a : agenciWgNumeru) {
+            int nr = a.getId() - 1;
+            stan[nr] = (byte) a.getStan().ordinal();
+            znajomi[nr] = new int[a.getZnajomi().size()];
+            for (Agent znajomy : a.getZnajomi()) znajomi[nr][długości[nr]++] = znajomy.getId() - 1;
+        }
+        binarny.populacja(numeryRodzajów, stan, GrafCSR.zList(znajomi, długości));
+    }
+
+    /**
+     * Przeprowadza symulację epidemii bez tworzenia raportu.
+     *
+     * @param rodzaje    - rodzaje agentów (patrz symulacja(List));
+     * @param obserwator - obiekt powiadamiany o stanie populacji po kolejnych dniach.
+     */
+    public void symulacja(List<RodzajAgenta> rodzaje, ObserwatorDnia obserwator) {
+        losowanie(rodzaje);
+        przebieg(1, obserwator);
+    }
+
+    /**
+     * Losuje populację i graf.
+     *
+     * @param rodzaje - rodzaje agentów (patrz symulacja(List)).
+     */
+    private void losowanie(List<RodzajAgenta> rodzaje) {
+        if (pomiary != null) pomiary.początek();
+        losowanieAgentów(rodzaje);
+        if (pomiary != null) {
+            pomiary.koniec(Pomiary.Faza.LOSOWANIE_AGENTÓW, 0);
+            pomiary.początek();
+        }
+        losowanieGrafu();
+        ustawMaksymalnyStopień();
+        if (pomiary != null) pomiary.koniec(Pomiary.Faza.LOSOWANIE_GRAFU, 0);
+        // Raport zawsze porządkował agentów według identyfikatorów przed pierwszym dniem (w
+        // toString), a od kolejności zależą losowania w kolejnych dniach. Przed pierwszym
+        // dniem wszyscy agenci żyją, więc wystarczy przepisać ich z tablicy numerów.
+        agenci.clear();
+        agenci.addAll(Arrays.asList(agenciWgNumeru));
+    }
+
+    /**
+     * Przeprowadza kolejne dni symulacji wylosowanej (albo odtworzonej z punktu kontrolnego)
+     * populacji.
+     *
+     * W trybie aktywnych kroków dni po wygaśnięciu epidemii nie są symulowane (przy ścisłych
+     * losowaniach wykonywane są tylko ich losowania), a obserwator dostaje niezmieniony licznik.
+     * Jeśli pomiary są zbierane, powiadomienie obserwatora jest mierzone jako faza raportu,
+     * a na końcu pomiary są zapisywane.
+     *
+     * @param pierwszyDzień - numer pierwszego dnia do przeprowadzenia (1, jeśli symulacja nie
+     *                      jest wznawiana - wtedy obserwator jest powiadamiany też o dniu 0);
+     * @param obserwator    - obiekt powiadamiany o stanie populacji po kolejnych dniach.
+     */
+    private void przebieg(int pierwszyDzień, ObserwatorDnia obserwator) {
+        if (parametry.czyAktywneKroki() || parametry.czyZbiorczyPrzebiegChoroby()) {
+            chorzy = new BitSet(agenciWgNumeru.length);
+            for (Agent a : agenci) {
+                if (a.getStan() == Stan.CHORY) chorzy.set(a.getId() - 1);
+            }
+        }
+        if (pomiary != null && pierwszyDzień > 1) pomiary.wznowienie(licznik);
+        if (pierwszyDzień == 1) koniecDnia(obserwator, 0);
+        boolean wygasła = false;
+        int sprawdzenie = pierwszyDzień;
+        for (int nrDnia = pierwszyDzień; nrDnia <= parametry.getLiczbaDni(); nrDnia++) {
+            if (parametry.czyAktywneKroki() && !wygasła && nrDnia >= sprawdzenie) {
+                int dzień = wygaśnięcie(nrDnia - 1);
+                wygasła = dzień < 0;
+                sprawdzenie = dzień + 1;
+            }
+            if (!wygasła) {
+                symulacjaDnia(nrDnia);
+            } else if (parametry.czyŚcisłeLosowania()) {
+                for (Agent a : agenci) a.umówSpotkania(nrDnia);
+                kalendarz.zamknijDzień(nrDnia);
+            }
+            koniecDnia(obserwator, nrDnia);
+        }
+        if (pomiary != null) pomiary.zapisz();
+    }
+
+    /**
+     * Powiadamia obserwatora o końcu dnia i zamyka pomiary dnia.
+     *
+     * @param obserwator - obiekt powiadamiany o stanie populacji;
+     * @param nrDnia     - numer dnia.
+     */
+    private void koniecDnia(ObserwatorDnia obserwator, int nrDnia) {
+        if (analizy != null) analizy.koniecDnia(nrDnia, licznik);
+        if (pomiary == null) {
+            obserwator.koniecDnia(nrDnia, licznik);
+            return;
+        }
+        pomiary.początek();
+        obserwator.koniecDnia(nrDnia, licznik);
+        pomiary.koniec(Pomiary.Faza.RAPORT, nrDnia);
+        pomiary.koniecDnia(nrDnia, licznik);
+    }
+
+    /**
+     * Sprawdza, czy epidemia wygasła po danym dniu, czyli czy stan populacji nie może się już
+     * zmienić: żaden żywy agent nie jest zarażony i nie zaplanowano spotkań ze zmarłymi
+     * agentami (zmarli pozostają zarażeni, a ponowne spotkanie ze zmarłym tego samego dnia
+     * dochodzi do skutku - patrz przeprowadźSpotkania).
+     *
+     * @param nrDnia - numer zakończonego dnia.
+     * @return -1, jeśli epidemia wygasła, wpp. numer dnia, po którym należy sprawdzić ponownie.
+     */
+    private int wygaśnięcie(int nrDnia) {
+        if (licznik.liczba(Stan.CHORY) > 0) return nrDnia;
+        int dzień = kalendarz.ostatniDzieńZ(nrDnia, nr -> !agenciWgNumeru[nr].czyŻywy());
+        return (dzień == 0) ? -1 : dzień;
+    }
+
+    /**
+     * Kopia stanu agentów populacji do punktu kontrolnego, w postaci numerów agentów.
+     */
+    private static final class Migawka {
+        /**
+         * Numer rodzaju, stan zdrowia i informacja, czy agent żyje, dla każdego agenta.
+         */
+        final byte[] rodzaj;
+        final byte[] stan;
+        final boolean[] żywy;
+        /**
+         * Numery znajomych każdego agenta oraz jego znajomych znajomych (null dla agentów
+         * innych niż towarzyscy).
+         */
+        final int[][] znajomi;
+        final int[][] znajomiZnajomych;
+
+        private Migawka(int liczbaAgentów) {
+            rodzaj = new byte[liczbaAgentów];
+            stan = new byte[liczbaAgentów];
+            żywy = new boolean[liczbaAgentów];
+            znajomi = new int[liczbaAgentów][];
+            znajomiZnajomych = new int[liczbaAgentów][];
+        }
+
+        /**
+         * Kopiuje stan agentów.
+         *
+         * @param agenci      - agenci w kolejności identyfikatorów;
+         * @param rodzaje     - numery rodzajów agentów w tej samej kolejności;
+         * @param towarzyskie - czy agenci kolejnych rodzajów mają znajomych znajomych.
+         */
+        Migawka(Agent[] agenci, byte[] rodzaje, boolean[] towarzyskie) {
+            this(agenci.length);
+            System.arraycopy(rodzaje, 0, rodzaj, 0, agenci.length);
+            for (int nr = 0; nr < agenci.length; nr++) {
+                Agent a = agenci[nr];
+                stan[nr] = (byte) a.getStan().ordinal();
+                żywy[nr] = a.czyŻywy();
+                znajomi[nr] = numery(a.getZnajomi());
+                if (towarzyskie[rodzaj[nr]])
+                    znajomiZnajomych[nr] = numery(((AgentTowarzyski) a).getZnajomiZnajomych());
+            }
+        }
+
+        private static int[] numery(List<Agent> agenci) {
+            int[] wynik = new int[agenci.size()];
+            for (int i = 0; i < wynik.length; i++) wynik[i] = agenci.get(i).getId() - 1;
+            return wynik;
+        }
+
+        void zapisz(DataOutputStream wyjście) throws IOException {
+            wyjście.writeInt(rodzaj.length);
+            wyjście.write(rodzaj);
+            wyjście.write(stan);
+            for (int nr = 0; nr < rodzaj.length; nr++) {
+                wyjście.writeBoolean(żywy[nr]);
+                zapisz(wyjście, znajomi[nr]);
+                zapisz(wyjście, znajomiZnajomych[nr]);
+            }
+        }
+
+        private static void zapisz(DataOutputStream wyjście, int[] numery) throws IOException {
+            wyjście.writeInt((numery == null) ? -1 : numery.length);
+            if (numery != null) {
+                for (int numer : numery) wyjście.writeInt(numer);
+            }
+        }
+
+        static Migawka wczytaj(DataInputStream wejście, int liczbaAgentów) throws IOException {
+            if (wejście.readInt() != liczbaAgentów)
+                throw new IOException("Punkt kontrolny dla innej liczby agentów");
+            Migawka migawka = new Migawka(liczbaAgentów);
+            wejście.readFully(migawka.rodzaj);
+            wejście.readFully(migawka.stan);
+            for (int nr = 0; nr < liczbaAgentów; nr++) {
+                migawka.żywy[nr] = wejście.readBoolean();
+                migawka.znajomi[nr] = wczytaj(wejście);
+                migawka.znajomiZnajomych[nr] = wczytaj(wejście);
+            }
+            return migawka;
+        }
+
+        private static int[] wczytaj(DataInputStream wejście) throws IOException {
+            int rozmiar = wejście.readInt();
+            if (rozmiar < 0) return null;
+            int[] numery = new int[rozmiar];
+            for (int i = 0; i < rozmiar; i++) numery[i] = wejście.readInt();
+            return numery;
+        }
+    }
+
+    /**
+     * Odtwarza agentów populacji z kopii zapisanej w punkcie kontrolnym.
+     * Żywi agenci dołączają do populacji w kolejności identyfikatorów, a zmarli zachowują
+     * swoje listy znajomych, tak jak po śmierci.
+     *
+     * @param migawka - kopia stanu agentów;
+     * @param rodzaje - rodzaje agentów.
+     */
+    private void odtwórz(Migawka migawka, List<RodzajAgenta> rodzaje) {
+        int liczbaAgentów = migawka.rodzaj.length;
+        agenciWgNumeru = new Agent[liczbaAgentów];
+        numeryRodzajów = migawka.rodzaj;
+        towarzyskie = RodzajAgenta.towarzyskie(rodzaje);
+        for (int nr = 0; nr < liczbaAgentów; nr++) {
+            Agent a = rodzaje.get(migawka.rodzaj[nr]).nowy(nr + 1,
+                    Stan.values()[migawka.stan[nr]], parametry);
+            agenciWgNumeru[nr] = a;
+            if (migawka.żywy[nr]) {
+                a.dołącz(kalendarz, licznik);
+                agenci.add(a);
+            } else {
+                a.żywy = false;
+            }
+        }
+        for (int nr = 0; nr < liczbaAgentów; nr++) {
+            Agent a = agenciWgNumeru[nr];
+            for (int znajomy : migawka.znajomi[nr]) a.dodajZnajomego(agenciWgNumeru[znajomy]);
+            if (migawka.znajomiZnajomych[nr] == null) continue;
+            List<Agent> znajomiZnajomych = ((AgentTowarzyski) a).getZnajomiZnajomych();
+            for (int znajomy : migawka.znajomiZnajomych[nr])
+                znajomiZnajomych.add(agenciWgNumeru[znajomy]);
+        }
+        ustawMaksymalnyStopień();
+    }
+
+    /**
+     * Przekazuje agentom towarzyskim największą liczbę znajomych w wylosowanym grafie, jeśli
+     * losują oni znajomych znajomych (patrz AgentTowarzyski.losujZnajomegoZnajomych).
+     * Krawędź ze zmarłym agentem pozostaje tylko na liście tego z jej końców, który zmarł
+     * pierwszy, więc po wznowieniu z punktu kontrolnego jest liczona z tej listy obu końcom.
+     */
+    private void ustawMaksymalnyStopień() {
+        if (!parametry.czyLosowaniZnajomiZnajomych()) return;
+        int[] stopnie = new int[agenciWgNumeru.length];
+        for (Agent a : agenciWgNumeru) {
+            stopnie[a.getId() - 1] += a.getZnajomi().size();
+            if (a.czyŻywy()) continue;
+            for (Agent znajomy : a.getZnajomi()) stopnie[znajomy.getId() - 1]++;
+        }
+        int maksymalnyStopień = 0;
+        for (int stopień : stopnie) maksymalnyStopień = Math.max(maksymalnyStopień, stopień);
+        for (Agent a : agenciWgNumeru) {
+            if (czyTowarzyski(a)) ((AgentTowarzyski) a).setMaksymalnyStopień(maksymalnyStopień);
+        }
+    }
+
     /**
      * Przeprowadza symulację dnia.
      * Symulowany jest początek dnia. Każdy agent planuje spotkania.
@@ -177,9 +689,98 @@ public class Populacja {
      * @param nrDnia - numer dnia, dla którego przeprowadzana jest symulacja.
      */
     private void symulacjaDnia(int nrDnia) {
+        if (pomiary == null) {
+            początekDnia();
+            for (Agent a : agenci) a.umówSpotkania(nrDnia);
+            przeprowadźSpotkania(nrDnia);
+            return;
+        }
+        pomiary.początek();
         początekDnia();
+        pomiary.koniec(Pomiary.Faza.POCZĄTEK_DNIA, nrDnia);
+        pomiary.początek();
         for (Agent a : agenci) a.umówSpotkania(nrDnia);
-        for (Agent a : agenci) a.przeprowadźSpotkania(nrDnia);
+        pomiary.koniec(Pomiary.Faza.UMAWIANIE_SPOTKAŃ, nrDnia);
+        pomiary.początek();
+        przeprowadźSpotkania(nrDnia);
+        pomiary.koniec(Pomiary.Faza.SPOTKANIA, nrDnia);
+    }
+
+    /**
+     * Przeprowadza spotkania zaplanowane na dany dzień.
+     * Agenci przeprowadzają umówione przez siebie spotkania w kolejności na liście agentów,
+     * każdy w kolejności umawiania. Śmierć agenta odwołuje u każdego z jego znajomych pierwsze
+     * umówione z nim spotkanie każdego dnia, więc takie spotkanie jest pomijane. Zmarły agent
+     * zachowuje listę znajomych, więc wystarczy w niej sprawdzić organizatora spotkania.
+     * W trybie aktywnych kroków dzień, w którego spotkaniach nie bierze udziału żaden zarażony
+     * (także zmarły), jest pomijany bez porządkowania spotkań. W trybie aktywnych kroków i przy
+     * zbiorczym przebiegu choroby nowo zarażeni trafiają do zbioru zarażonych.
+     *
+     * @param nrDnia - numer dnia, w którym przeprowadzane są spotkania.
+     */
+    private void przeprowadźSpotkania(int nrDnia) {
+        boolean aktywne = parametry.czyAktywneKroki();
+        if (aktywne && !kalendarz.czySpotkanie(nrDnia,
+                nr -> agenciWgNumeru[nr].getStan() == Stan.CHORY)) {
+            kalendarz.zamknijDzień(nrDnia);
+            return;
+        }
+        if (!kalendarz.otwórzDzień(nrDnia)) return;
+        int liczbaSpotkań = 0;
+        for (Agent a : agenci) {
+            int nr = a.getId() - 1;
+            if (kalendarz.początek(nr) == kalendarz.koniec(nr)) continue;
+            int z = nowyZnacznik();
+            for (int k = kalendarz.początek(nr); k < kalendarz.koniec(nr); k++) {
+                Agent partner = agenciWgNumeru[kalendarz.partner(k)];
+                if (!partner.czyŻywy() && znaczniki[kalendarz.partner(k)] != z) {
+                    znaczniki[kalendarz.partner(k)] = z;
+                    if (partner.maZnajomego(a)) continue;
+                }
+                if (analizy == null) a.spotkanie(partner);
+                else spotkanie(a, partner);
+                liczbaSpotkań++;
+                if (chorzy != null) {
+                    if (a.getStan() == Stan.CHORY) chorzy.set(nr);
+                    if (partner.getStan() == Stan.CHORY && partner.czyŻywy())
+                        chorzy.set(kalendarz.partner(k));
+                }
+            }
+        }
+        if (pomiary != null) pomiary.spotkania(liczbaSpotkań);
+        kalendarz.zamknijDzień(nrDnia);
+    }
+
+    /**
+     * Przeprowadza spotkanie (patrz Agent.spotkanie) i zgłasza analizom zarażenie, do którego
+     * w nim doszło, razem z zarażającym i jego rodzajem.
+     *
+     * @param a       - agent, który umówił spotkanie;
+     * @param partner - agent, z którym agent się spotyka.
+     */
+    private void spotkanie(Agent a, Agent partner) {
+        boolean zdrowy = a.getStan() == Stan.ZDROWY;
+        boolean partnerZdrowy = partner.getStan() == Stan.ZDROWY;
+        a.spotkanie(partner);
+        int nr = a.getId() - 1;
+        int nrPartnera = partner.getId() - 1;
+        if (zdrowy && a.getStan() == Stan.CHORY)
+            analizy.zarażenie(nr, nrPartnera, numeryRodzajów[nrPartnera]);
+        else if (partnerZdrowy && partner.getStan() == Stan.CHORY)
+            analizy.zarażenie(nrPartnera, nr, numeryRodzajów[nr]);
+    }
+
+    /**
+     * Zwraca nową wartość znacznika, której nie ma jeszcze żadne pole tablicy znaczniki.
+     *
+     * @return Wartość znacznika.
+     */
+    private int nowyZnacznik() {
+        if (znacznik == Integer.MAX_VALUE) {
+            Arrays.fill(znaczniki, 0);
+            znacznik = 0;
+        }
+        return ++znacznik;
     }
 
     /**
@@ -189,8 +790,7 @@ public class Populacja {
      * @return Napis.
      */
     private String licznośćPopulacji() {
-        return liczbaZdrowych() + " " + liczbaChorych() + " " + (agenci.size() - liczbaChorych()
-                - liczbaZdrowych()) + System.lineSeparator();
+        return licznik.toString() + System.lineSeparator();
     }
 
     /**
@@ -202,19 +802,33 @@ public class Populacja {
      */
     @Override
     public String toString() {
-        Collections.sort(agenci, Comparator.comparing(Agent::getId));
         StringBuilder s = new StringBuilder();
+        try {
+            drukuj(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Dopisuje informację o sieci społecznościowej (patrz toString) agent po agencie, bez
+     * tworzenia napisu z całym grafem. Żywi agenci przeglądani są w kolejności numerów,
+     * bez sortowania listy agentów.
+     *
+     * @param s - obiekt, do którego dopisywany jest tekst.
+     */
+    private void drukuj(Appendable s) throws IOException {
         s.append("# agenci jako: id typ lub id* typ dla chorego");
         s.append(System.lineSeparator());
-        for (Agent a : agenci) {
-            s.append(a.toString());
+        for (Agent a : agenciWgNumeru) {
+            if (a.czyŻywy()) a.drukuj(s);
         }
         s.append(System.lineSeparator());
         s.append("# graf");
         s.append(System.lineSeparator());
-        for (Agent a : agenci) {
-            s.append(a.drukujZnajomych());
+        for (Agent a : agenciWgNumeru) {
+            if (a.czyŻywy()) a.drukujZnajomych(s);
         }
-        return s.toString();
     }
 }
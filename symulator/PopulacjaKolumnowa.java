@@ -0,0 +1,1430 @@
+package symulator;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Klasa reprezentująca populację przechowywaną kolumnowo.
+ * Zamiast obiektów klasy Agent stan populacji przechowywany jest w tablicach typów prostych
+ * indeksowanych numerem agenta (agent o identyfikatorze id ma numer id - 1).
+ * Losowanie przebiega w tej samej kolejności co w klasie Populacja, więc dla tego samego seeda
+ * obie klasy dają identyczny raport.
+ * W trybie równoległych dni (Konfiguracja.czyRównoległeDni) każda faza dnia jest dzielona między
+ * wątki według zakresów numerów agentów. Każdy agent losuje wtedy z własnego strumienia
+ * (StrumienLosowy), wyniki faz stosowane są w kolejności numerów agentów, a zdarzenia fazy
+ * rozstrzygane są względem stanów z jej początku - raport nie zależy od liczby wątków.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class PopulacjaKolumnowa {
+    /**
+     * Kody stanów zdrowia przechowywane w tablicy stan.
+     */
+    private static final byte CHORY = (byte) Stan.CHORY.ordinal();
+    private static final byte ZDROWY = (byte) Stan.ZDROWY.ordinal();
+    private static final byte UODPORNIONY = (byte) Stan.UODPORNIONY.ordinal();
+    /**
+     * Odsetek wpisów grafu wskazujących na zmarłych agentów, po przekroczeniu którego graf jest
+     * zagęszczany.
+     */
+    private static final double PRÓG_ZAGĘSZCZANIA = 0.25;
+    /**
+     * Numery faz dnia, z których każda ma w trybie równoległym własne strumienie losowe.
+     */
+    private static final int FAZA_POCZĄTKU = 0;
+    private static final int FAZA_UMAWIANIA = 1;
+    private static final int FAZA_SPOTKAŃ = 2;
+    /**
+     * Największa liczba liczb losowanych jednym blokiem przy losowaniu agentów.
+     */
+    private static final int BLOK_LOSOWAŃ = 4096;
+
+    /**
+     * Obiekt klasy Konfiguracja.
+     * Zawiera parametry dla symulatora epidemii.
+     */
+    private Konfiguracja parametry;
+    /**
+     * Liczba agentów w populacji na początku symulacji.
+     */
+    private int liczbaAgentów;
+    /**
+     * Stan zdrowia każdego z agentów.
+     */
+    private byte[] stan;
+    /**
+     * Rodzaj każdego z agentów - numer rodzaju na liście rodzaje.
+     */
+    private byte[] rodzaj;
+    /**
+     * Rodzaje agentów, ich nazwy używane w raporcie i to, czy agenci kolejnych rodzajów
+     * spotykają się ze znajomymi znajomych (zachowanie TOWARZYSKI), czy tylko ze znajomymi
+     * (zachowanie ZWYKŁY, patrz RodzajAgenta.zachowanie).
+     */
+    private final List<RodzajAgenta> rodzaje;
+    private final String[] nazwyRodzajów;
+    private final boolean[] towarzyskie;
+    /**
+     * Numery agentów, którzy nadal uczestniczą w symulacji.
+     */
+    private BitSet żywi;
+    /**
+     * Numery żywych zarażonych agentów - jedynych, którzy losują na początku dnia.
+     * W trybie aktywnych kroków (Konfiguracja.czyAktywneKroki) początek dnia przegląda tylko ich.
+     */
+    private BitSet chorzy;
+    /**
+     * Losowania zbiorczego przebiegu choroby na początku dnia
+     * (Konfiguracja.czyZbiorczyPrzebiegChoroby).
+     */
+    private PrzebiegZbiorczy przebiegZbiorczy;
+    /**
+     * Pomiary faz i dni symulacji (null, jeśli nie są zbierane - patrz Pomiary).
+     */
+    private Pomiary pomiary;
+    /**
+     * Miary epidemiologiczne podsumowania raportu (null, jeśli raport go nie ma - patrz
+     * Analizy).
+     */
+    private Analizy analizy;
+    /**
+     * Licznik żywych agentów w poszczególnych stanach zdrowia.
+     */
+    private LicznikStanow licznik;
+    /**
+     * Graf społecznościowy. Śmierć agenta nie zmienia grafu - zmarli znajomi są pomijani przy
+     * przeglądaniu list znajomych, a zmarły agent zachowuje swoją listę.
+     */
+    private GrafCSR graf;
+    /**
+     * Liczba żywych znajomych każdego z agentów.
+     */
+    private int[] liczbaZnajomych;
+    /**
+     * Liczba wpisów w grafie wskazujących na agentów zmarłych od ostatniego zagęszczenia.
+     */
+    private int martweWpisy;
+    /**
+     * Największa długość listy znajomych w grafie. Ogranicza liczbę żywych znajomych każdego
+     * agenta przy losowaniu znajomych znajomych bez zapamiętywania.
+     */
+    private int maksymalnyStopień;
+    /**
+     * Agenci towarzyscy, których znajomych znajomych trzeba wyznaczyć ponownie po śmierci
+     * agentów w bieżącym dniu.
+     */
+    private BitSet doOdświeżenia;
+    /**
+     * Znajomi wraz z ich znajomymi dla agentów towarzyskich (null dla agentów zwykłych oraz
+     * dla wszystkich agentów, jeśli znajomi znajomych są losowani bez zapamiętywania).
+     */
+    private int[][] znajomiZnajomych;
+    private int[] liczbaZnajomychZnajomych;
+    /**
+     * Kalendarz spotkań zaplanowanych na kolejne dni symulacji.
+     */
+    private KalendarzSpotkan kalendarz;
+    /**
+     * Pamięć poza stertą dla grafu i kalendarza albo null, jeśli są przechowywane na stercie.
+     */
+    private PamiecPozaSterta pamięćPozaStertą;
+    /**
+     * Tablica pomocnicza do oznaczania odwiedzonych agentów bez jej czyszczenia.
+     * Agent jest oznaczony, jeśli jego pole ma wartość równą atrybutowi znacznik.
+     */
+    private int[] znaczniki;
+    private int znacznik;
+    /**
+     * Tablica na liczby losowane blokami (patrz losuj).
+     */
+    private double[] losowe;
+    /**
+     * Pamięć robocza kolejnych zakresów agentów. W trybie sekwencyjnym jest jeden zakres.
+     */
+    private Brudnopis[] brudnopisy;
+    /**
+     * Seed strumieni losowych trybu równoległego.
+     */
+    private long seedStrumieni;
+    /**
+     * Pula wątków dla trybu równoległego (null, jeśli obliczenia są jednowątkowe).
+     */
+    private ForkJoinPool pula;
+    /**
+     * Czy tablice znajomiZnajomych są współdzielone z populacją, z której skopiowano tę
+     * populację - wtedy nie można ich zmieniać i wyznaczanie znajomych znajomych tworzy nowe.
+     */
+    private boolean współdzieloneListy;
+
+    /**
+     * Pamięć robocza jednego zakresu agentów. Zbiera wyniki fazy dnia, które są stosowane
+     * po jej zakończeniu, w kolejności zakresów.
+     */
+    private static final class Brudnopis {
+        /**
+         * Strumień losowy agentów zakresu (null w trybie sekwencyjnym).
+         */
+        final StrumienLosowy strumień;
+        final TablicaIntow zmarli = new TablicaIntow(16);
+        final TablicaIntow wyzdrowiali = new TablicaIntow(16);
+        final TablicaIntow zarażeni = new TablicaIntow(16);
+        /**
+         * Numery agentów, którzy zarazili kolejnych zarażonych (tylko przy podsumowaniu).
+         */
+        final TablicaIntow zarażający = new TablicaIntow(16);
+        /**
+         * Umówione spotkania jako trójki (dzień, organizator, partner).
+         */
+        final TablicaIntow spotkania = new TablicaIntow(16);
+        /**
+         * Liczba spotkań, do których doszło w zakresie w bieżącym dniu.
+         */
+        int liczbaSpotkań;
+        /**
+         * Posortowani żywi znajomi agenta, dla którego losowany jest znajomy znajomych, i ich
+         * liczba (w trybie równoległym), albo wartość znacznika, którym oznaczeni są w tablicy
+         * znaczniki (w trybie sekwencyjnym). Wyznaczani są przy pierwszym losowaniu w umawianiu
+         * spotkań agenta - znajomiGotowi.
+         */
+        final int[] znajomi;
+        int liczbaZnajomych;
+        int znacznikZnajomych;
+        boolean znajomiGotowi;
+        /**
+         * Partnerzy organizatora, z którymi może dojść do zarażenia, z powtórzeniami
+         * (patrz przeprowadźSpotkaniaZbiorczo).
+         */
+        int[] partnerzy = new int[16];
+
+        Brudnopis(StrumienLosowy strumień, int maksymalnyStopień) {
+            this.strumień = strumień;
+            znajomi = new int[maksymalnyStopień];
+        }
+    }
+
+    /**
+     * Tworzy nowy obiekt klasy PopulacjaKolumnowa z rodzajami agentów dostępnymi na ścieżce
+     * klas (patrz RodzajAgenta.wczytaj).
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii.
+     */
+    public PopulacjaKolumnowa(Konfiguracja parametry) {
+        this(parametry, RodzajAgenta.wczytaj());
+    }
+
+    /**
+     * Tworzy nowy obiekt klasy PopulacjaKolumnowa.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii;
+     * @param rodzaje   - rodzaje agentów, spośród których losowane są rodzaje agentów
+     *                  populacji.
+     * @throws IllegalArgumentException jeśli któryś rodzaj nie ma zachowania w silniku
+     *                                  kolumnowym.
+     */
+    public PopulacjaKolumnowa(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        for (RodzajAgenta r : rodzaje) {
+            if (r.zachowanie() == null)
+                throw new IllegalArgumentException("Rodzaj agenta " + r.nazwa() +
+                        " nie może wystąpić w silniku kolumnowym");
+        }
+        this.parametry = parametry;
+        this.rodzaje = rodzaje;
+        nazwyRodzajów = RodzajAgenta.nazwy(rodzaje);
+        towarzyskie = RodzajAgenta.towarzyskie(rodzaje);
+        liczbaAgentów = parametry.getLiczbaAgentów();
+        stan = new byte[liczbaAgentów];
+        rodzaj = new byte[liczbaAgentów];
+        żywi = new BitSet(liczbaAgentów);
+        chorzy = new BitSet(liczbaAgentów);
+        licznik = new LicznikStanow();
+        doOdświeżenia = new BitSet(liczbaAgentów);
+        liczbaZnajomych = new int[liczbaAgentów];
+        znajomiZnajomych = new int[liczbaAgentów][];
+        liczbaZnajomychZnajomych = new int[liczbaAgentów];
+        pamięćPozaStertą = PamiecPozaSterta.dla(parametry);
+        kalendarz = new KalendarzSpotkan(liczbaAgentów, parametry.getLiczbaDni(),
+                pamięćPozaStertą);
+        znaczniki = new int[liczbaAgentów];
+        przebiegZbiorczy = new PrzebiegZbiorczy();
+        pomiary = Pomiary.dla(parametry);
+        analizy = Analizy.dla(parametry, nazwyRodzajów);
+    }
+
+    /**
+     * Tworzy kopię wylosowanej populacji (przed pierwszym dniem symulacji) z innymi parametrami
+     * epidemiologicznymi. Graf, rodzaje agentów i listy znajomych znajomych są współdzielone
+     * z populacją wzorcową i nie są przez kopię zmieniane, a kopiowany jest tylko stan
+     * zmieniający się w trakcie symulacji.
+     *
+     * @param wzór      - wylosowana populacja;
+     * @param parametry - parametry kopii (z tymi samymi parametrami populacji i grafu).
+     */
+    PopulacjaKolumnowa(PopulacjaKolumnowa wzór, Konfiguracja parametry) {
+        this.parametry = parametry;
+        liczbaAgentów = wzór.liczbaAgentów;
+        stan = wzór.stan.clone();
+        rodzaj = wzór.rodzaj;
+        rodzaje = wzór.rodzaje;
+        nazwyRodzajów = wzór.nazwyRodzajów;
+        towarzyskie = wzór.towarzyskie;
+        żywi = (BitSet) wzór.żywi.clone();
+        chorzy = (BitSet) wzór.chorzy.clone();
+        licznik = new LicznikStanow(wzór.licznik);
+        graf = wzór.graf;
+        liczbaZnajomych = wzór.liczbaZnajomych.clone();
+        martweWpisy = wzór.martweWpisy;
+        maksymalnyStopień = wzór.maksymalnyStopień;
+        doOdświeżenia = new BitSet(liczbaAgentów);
+        znajomiZnajomych = wzór.znajomiZnajomych.clone();
+        liczbaZnajomychZnajomych = wzór.liczbaZnajomychZnajomych.clone();
+        współdzieloneListy = true;
+        pamięćPozaStertą = PamiecPozaSterta.dla(parametry);
+        kalendarz = new KalendarzSpotkan(liczbaAgentów, parametry.getLiczbaDni(),
+                pamięćPozaStertą);
+        znaczniki = new int[liczbaAgentów];
+        przebiegZbiorczy = new PrzebiegZbiorczy();
+        pomiary = Pomiary.dla(parametry);
+        analizy = Analizy.dla(parametry, nazwyRodzajów);
+    }
+
+    /**
+     * Zwraca licznik żywych agentów w poszczególnych stanach zdrowia.
+     * Licznik jest aktualizowany na bieżąco w trakcie symulacji.
+     *
+     * @return Licznik stanów populacji.
+     */
+    public LicznikStanow getLicznikStanów() {
+        return licznik;
+    }
+
+    /**
+     * Ustawia stan żywego agenta, aktualizując licznik stanów.
+     *
+     * @param a    - numer agenta;
+     * @param nowy - kod nowego stanu.
+     */
+    private void setStan(int a, byte nowy) {
+        licznik.zmień(stan[a], nowy);
+        stan[a] = nowy;
+        if (nowy == CHORY) chorzy.set(a);
+        else chorzy.clear(a);
+    }
+
+    /**
+     * Zwraca nową wartość znacznika, której nie ma jeszcze żadne pole tablicy znaczniki.
+     *
+     * @return Wartość znacznika.
+     */
+    private int nowyZnacznik() {
+        if (znacznik == Integer.MAX_VALUE) {
+            Arrays.fill(znaczniki, 0);
+            znacznik = 0;
+        }
+        return ++znacznik;
+    }
+
+    /**
+     * Losuje blokiem kolejne liczby z przedziału [0, 1) - te same, które wylosowałyby kolejne
+     * wywołania nextDouble maszyny losującej symulacji.
+     *
+     * @param ile - liczba liczb do wylosowania.
+     * @return Tablica, której początek zawiera wylosowane liczby.
+     */
+    private double[] losuj(int ile) {
+        if (losowe == null || losowe.length < ile) losowe = new double[Math.max(16, ile)];
+        MaszynaLosujaca.wypełnij(parametry.getMaszynaLosująca(), losowe, ile);
+        return losowe;
+    }
+
+    /**
+     * Losuje populację.
+     * Rodzaj agenta określany jest przez losowanie przy użyciu prawdopodobieństw rodzajów
+     * (domyślnie zwykłych i towarzyskich, z parametrem prawdTowarzyski, patrz WyborRodzaju).
+     * Wszyscy poza jednym wylosowanym agentem zaczynają jako zdrowi (bez odporności), a jeden
+     * zaczyna jako zarażony.
+     */
+    private void losowanieAgentów() {
+        WyborRodzaju wybór = WyborRodzaju.dla(parametry, rodzaje);
+        for (int a = 0; a < liczbaAgentów; a++) {
+            if (a % BLOK_LOSOWAŃ == 0) losuj(Math.min(BLOK_LOSOWAŃ, liczbaAgentów - a));
+            rodzaj[a] = (byte) wybór.wybierz(losowe[a % BLOK_LOSOWAŃ]);
+            stan[a] = ZDROWY;
+            licznik.dodaj(ZDROWY);
+        }
+        żywi.set(0, liczbaAgentów);
+        setStan(parametry.getMaszynaLosująca().nextInt(liczbaAgentów), CHORY);
+    }
+
+    /**
+     * Losuje graf, czyli połączenia między agentami w populacji.
+     * Odtwarza tasowanie listy agentów z klasy Populacja na tablicy numerów agentów, dzięki
+     * czemu powstaje ten sam graf co w klasie Populacja. Listy znajomych budowane w trakcie
+     * losowania są na koniec przepisywane do grafu w formacie CSR.
+     */
+    private void losowanieGrafu() {
+        if (parametry.czyLiniowyGeneratorGrafu()) {
+            losowanieGrafuLiniowe();
+            return;
+        }
+        Random maszynaLosująca = parametry.getMaszynaLosująca();
+        int liczbaKrawędzi = parametry.getLiczbaAgentów() * parametry.getŚrZnajomych() / 2;
+        int[] kolejność = new int[liczbaAgentów];
+        int[][] znajomi = new int[liczbaAgentów][];
+        for (int a = 0; a < liczbaAgentów; a++) {
+            kolejność[a] = a;
+            znajomi[a] = new int[Math.max(2, parametry.getŚrZnajomych())];
+        }
+        int i = 0;
+        int agent1, agent2, pomocniczy, losowy;
+        while (i < liczbaKrawędzi) {
+            for (int j = liczbaAgentów; j > 1; j--) {
+                losowy = maszynaLosująca.nextInt(j);
+                pomocniczy = kolejność[j - 1];
+                kolejność[j - 1] = kolejność[losowy];
+                kolejność[losowy] = pomocniczy;
+            }
+            agent1 = kolejność[1];
+            agent2 = kolejność[2];
+            if (!maZnajomego(znajomi, agent1, agent2)) {
+                dodajZnajomego(znajomi, agent1, agent2);
+                dodajZnajomego(znajomi, agent2, agent1);
+                i++;
+            }
+        }
+        graf = GrafCSR.zList(znajomi, liczbaZnajomych);
+        poLosowaniuGrafu();
+    }
+
+    /**
+     * Losuje graf przy pomocy klasy GeneratorGrafu (patrz Populacja.losowanieGrafuLiniowe).
+     * Przy pamięci poza stertą krawędzie od razu trafiają poza stertę.
+     */
+    private void losowanieGrafuLiniowe() {
+        ForkJoinPool pula = Rownolegle.nowaPula(parametry.getWątki());
+        GeneratorGrafu generator = new GeneratorGrafu(liczbaAgentów, (long) liczbaAgentów *
+                parametry.getŚrZnajomych() / 2, parametry.getMaszynaLosująca().nextLong(), pula);
+        if (pamięćPozaStertą == null) {
+            graf = GrafCSR.zKrawędzi(liczbaAgentów, generator.losuj());
+        } else {
+            graf = GrafCSR.zPar(liczbaAgentów, generator.losuj(pamięćPozaStertą),
+                    pamięćPozaStertą);
+        }
+        Rownolegle.zamknij(pula);
+        poLosowaniuGrafu();
+    }
+
+    /**
+     * Przygotowuje liczby znajomych oraz znajomych znajomych po wylosowaniu grafu.
+     */
+    private void poLosowaniuGrafu() {
+        for (int a = 0; a < liczbaAgentów; a++) {
+            liczbaZnajomych[a] = graf.stopień(a);
+            maksymalnyStopień = Math.max(maksymalnyStopień, liczbaZnajomych[a]);
+        }
+        if (parametry.czyLosowaniZnajomiZnajomych()) return;
+        for (int a = 0; a < liczbaAgentów; a++) {
+            if (towarzyskie[rodzaj[a]]) dodajZnajomychZnajomych(a);
+        }
+    }
+
+    /**
+     * Sprawdza, czy agent posiada danego znajomego w trakcie losowania grafu.
+     *
+     * @param znajomi - listy znajomych;
+     * @param a       - numer agenta;
+     * @param znajomy - numer potencjalnego znajomego.
+     * @return Wartość true, jeśli agent posiada danego znajomego, wpp. false.
+     */
+    private boolean maZnajomego(int[][] znajomi, int a, int znajomy) {
+        int[] lista = znajomi[a];
+        for (int k = 0; k < liczbaZnajomych[a]; k++) {
+            if (lista[k] == znajomy) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dodaje znajomego na koniec listy znajomych agenta w trakcie losowania grafu.
+     *
+     * @param znajomi - listy znajomych;
+     * @param a       - numer agenta;
+     * @param znajomy - numer znajomego do dodania.
+     */
+    private void dodajZnajomego(int[][] znajomi, int a, int znajomy) {
+        if (liczbaZnajomych[a] == znajomi[a].length)
+            znajomi[a] = Arrays.copyOf(znajomi[a], 2 * znajomi[a].length);
+        znajomi[a][liczbaZnajomych[a]++] = znajomy;
+    }
+
+    /**
+     * Zwraca żywego znajomego agenta o danym numerze na liście znajomych.
+     * Jeśli lista agenta nie zawiera zmarłych, wynik wyznaczany jest w czasie stałym.
+     *
+     * @param a - numer agenta;
+     * @param k - numer znajomego wśród żywych znajomych agenta (od 0).
+     * @return Numer agenta będącego znajomym.
+     */
+    private int znajomy(int a, int k) {
+        if (liczbaZnajomych[a] == graf.stopień(a)) return graf.sąsiad(graf.początek(a) + k);
+        for (int i = graf.początek(a); ; i++) {
+            if (żywi.get(graf.sąsiad(i)) && k-- == 0) return graf.sąsiad(i);
+        }
+    }
+
+    /**
+     * Wyznacza znajomych wraz z ich znajomymi dla agenta towarzyskiego.
+     * Kolejność jest taka sama jak w AgentTowarzyski.dodajZnajomychZnajomych - najpierw
+     * znajomi, potem znajomi kolejnych znajomych, bez powtórzeń.
+     *
+     * @param a - numer agenta towarzyskiego.
+     */
+    private void dodajZnajomychZnajomych(int a) {
+        int z = nowyZnacznik();
+        int[] wynik = znajomiZnajomych[a];
+        if (wynik == null || współdzieloneListy)
+            wynik = new int[Math.max(2, liczbaZnajomych[a])];
+        int rozmiar = 0;
+        for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+            int znajomy = graf.sąsiad(i);
+            if (!żywi.get(znajomy)) continue;
+            if (rozmiar == wynik.length) wynik = Arrays.copyOf(wynik, 2 * wynik.length);
+            wynik[rozmiar++] = znajomy;
+            znaczniki[znajomy] = z;
+        }
+        for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+            int znajomy = graf.sąsiad(i);
+            if (!żywi.get(znajomy)) continue;
+            for (int j = graf.początek(znajomy); j < graf.koniec(znajomy); j++) {
+                int kandydat = graf.sąsiad(j);
+                if (znaczniki[kandydat] != z && żywi.get(kandydat)) {
+                    znaczniki[kandydat] = z;
+                    if (rozmiar == wynik.length) wynik = Arrays.copyOf(wynik, 2 * wynik.length);
+                    wynik[rozmiar++] = kandydat;
+                }
+            }
+        }
+        znajomiZnajomych[a] = wynik;
+        liczbaZnajomychZnajomych[a] = rozmiar;
+    }
+
+    /**
+     * Losuje jednostajnie agenta spośród znajomych agenta i ich znajomych, bez wyznaczania
+     * całego zbioru (patrz dodajZnajomychZnajomych).
+     * Losowany jest znajomy, a następnie z prawdopodobieństwem proporcjonalnym do 1 + liczby
+     * jego znajomych on sam albo jeden z jego znajomych (losowanie z odrzucaniem, ograniczone
+     * przez maksymalnyStopień). Agent, do którego można dojść w ten sposób na k sposobów, jest
+     * akceptowany z prawdopodobieństwem 1/k, więc każdy agent zbioru jest równie prawdopodobny.
+     * Agent musi mieć co najmniej jednego żywego znajomego. Żywi znajomi agenta wyznaczani są
+     * raz na umawianie spotkań agenta (patrz czyZnajomy) - w trybie równoległym do posortowanej
+     * tablicy z brudnopisu, więc metoda nie zmienia wtedy stanu populacji i może być wywoływana
+     * współbieżnie, a w sekwencyjnym są oznaczani w tablicy znaczniki.
+     *
+     * @param a               - numer agenta towarzyskiego;
+     * @param maszynaLosująca - źródło liczb losowych;
+     * @param brudnopis       - pamięć robocza wywołującego.
+     * @return Numer wylosowanego agenta.
+     */
+    private int losujZnajomegoZnajomych(int a, Random maszynaLosująca, Brudnopis brudnopis) {
+        if (!brudnopis.znajomiGotowi) {
+            brudnopis.znajomiGotowi = true;
+            if (brudnopis.strumień == null) {
+                int z = nowyZnacznik();
+                for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+                    if (żywi.get(graf.sąsiad(i))) znaczniki[graf.sąsiad(i)] = z;
+                }
+                brudnopis.znacznikZnajomych = z;
+            } else {
+                int liczba = 0;
+                for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+                    if (żywi.get(graf.sąsiad(i))) brudnopis.znajomi[liczba++] = graf.sąsiad(i);
+                }
+                Arrays.sort(brudnopis.znajomi, 0, liczba);
+                brudnopis.liczbaZnajomych = liczba;
+            }
+        }
+        while (true) {
+            int znajomy = znajomy(a, maszynaLosująca.nextInt(liczbaZnajomych[a]));
+            int losowy = maszynaLosująca.nextInt(maksymalnyStopień + 1);
+            if (losowy > liczbaZnajomych[znajomy]) continue;
+            int kandydat = (losowy == 0) ? znajomy : znajomy(znajomy, losowy - 1);
+            int krotność = czyZnajomy(kandydat, brudnopis) ? 1 : 0;
+            for (int i = graf.początek(kandydat); i < graf.koniec(kandydat); i++) {
+                if (czyZnajomy(graf.sąsiad(i), brudnopis)) krotność++;
+            }
+            if (krotność == 1 || maszynaLosująca.nextInt(krotność) == 0) return kandydat;
+        }
+    }
+
+    /**
+     * Sprawdza, czy agent jest żywym znajomym agenta, dla którego losowany jest znajomy
+     * znajomych (patrz losujZnajomegoZnajomych).
+     *
+     * @param b         - numer agenta;
+     * @param brudnopis - pamięć robocza z wyznaczonymi znajomymi.
+     * @return Wartość true, jeśli agent jest żywym znajomym, wpp. false.
+     */
+    private boolean czyZnajomy(int b, Brudnopis brudnopis) {
+        if (brudnopis.strumień == null) return znaczniki[b] == brudnopis.znacznikZnajomych;
+        return Arrays.binarySearch(brudnopis.znajomi, 0, brudnopis.liczbaZnajomych, b) >= 0;
+    }
+
+    /**
+     * Usuwa agenta z symulacji.
+     * Agent przestaje być liczony wśród żywych znajomych swoich znajomych, ale graf się nie
+     * zmienia. Spotkania umówione z nim przez znajomych są pomijane w przeprowadźSpotkania.
+     *
+     * @param a - numer agenta.
+     */
+    private void śmierć(int a) {
+        żywi.clear(a);
+        chorzy.clear(a);
+        licznik.usuń(stan[a]);
+        for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+            if (żywi.get(graf.sąsiad(i))) liczbaZnajomych[graf.sąsiad(i)]--;
+        }
+        martweWpisy += graf.stopień(a);
+        if (!parametry.czyLosowaniZnajomiZnajomych()) oznaczDoOdświeżenia(a);
+    }
+
+    /**
+     * Oznacza agentów towarzyskich, których znajomi znajomych mogli się zmienić po śmierci
+     * agenta - czyli tych, którzy byli od niego odlegli o co najwyżej dwie krawędzie.
+     *
+     * @param zmarły - numer zmarłego agenta.
+     */
+    private void oznaczDoOdświeżenia(int zmarły) {
+        for (int i = graf.początek(zmarły); i < graf.koniec(zmarły); i++) {
+            int znajomy = graf.sąsiad(i);
+            if (!żywi.get(znajomy)) continue;
+            if (towarzyskie[rodzaj[znajomy]]) doOdświeżenia.set(znajomy);
+            for (int j = graf.początek(znajomy); j < graf.koniec(znajomy); j++) {
+                if (towarzyskie[rodzaj[graf.sąsiad(j)]]) doOdświeżenia.set(graf.sąsiad(j));
+            }
+        }
+    }
+
+    /**
+     * Symuluje początek dnia.
+     * Na początku każdego dnia każdy zarażony agent może umrzeć (z prawd. śmiertelność) lub
+     * wyzdrowieć (z prawd. prawdWyzdrowienia).
+     * Po śmierciach znajomi znajomych wyznaczani są ponownie tylko dla agentów towarzyskich
+     * odległych od zmarłych o co najwyżej dwie krawędzie - u pozostałych nic się nie zmienia.
+     * W trybie aktywnych kroków przeglądani są tylko zarażeni, w tej samej kolejności.
+     * Każdy zarażony losuje jedną liczbę, więc wszystkie liczby losowane są z góry jednym
+     * blokiem.
+     * Przy zbiorczym przebiegu choroby zmarli i wyzdrowiali losowani są razem (patrz
+     * PrzebiegZbiorczy).
+     */
+    private void początekDnia() {
+        if (parametry.czyZbiorczyPrzebiegChoroby()) {
+            początekDniaZbiorczy(parametry.getMaszynaLosująca());
+            return;
+        }
+        double[] losowe = losuj(licznik.liczba(Stan.CHORY));
+        int i = 0;
+        double losowyDouble;
+        boolean ktośUmarł = false;
+        BitSet przeglądani = parametry.czyAktywneKroki() ? chorzy : żywi;
+        for (int a = przeglądani.nextSetBit(0); a >= 0; a = przeglądani.nextSetBit(a + 1)) {
+            if (stan[a] == CHORY) {
+                losowyDouble = losowe[i++];
+                if (losowyDouble <= parametry.getŚmiertelność()) {
+                    śmierć(a);
+                    ktośUmarł = true;
+                } else if (losowyDouble <= parametry.getŚmiertelność() + parametry
+                        .getPrawdWyzdrowienia()) {
+                    setStan(a, UODPORNIONY);
+                }
+            }
+        }
+        if (ktośUmarł) poŚmierciach();
+    }
+
+    /**
+     * Symuluje początek dnia przy zbiorczym przebiegu choroby - zmarli i wyzdrowiali losowani
+     * są razem spośród zarażonych.
+     *
+     * @param maszynaLosująca - źródło liczb losowych.
+     */
+    private void początekDniaZbiorczy(Random maszynaLosująca) {
+        przebiegZbiorczy.losuj(chorzy, parametry.getŚmiertelność(),
+                parametry.getPrawdWyzdrowienia(), maszynaLosująca);
+        for (int i = 0; i < przebiegZbiorczy.getLiczbaZgonów(); i++)
+            śmierć(przebiegZbiorczy.zmarły(i));
+        for (int i = 0; i < przebiegZbiorczy.getLiczbaWyzdrowień(); i++)
+            setStan(przebiegZbiorczy.wyzdrowiały(i), UODPORNIONY);
+        if (przebiegZbiorczy.getLiczbaZgonów() > 0) poŚmierciach();
+    }
+
+    /**
+     * Porządkuje populację po śmierciach na początku dnia - w razie potrzeby zagęszcza graf
+     * i ponownie wyznacza znajomych znajomych oznaczonych agentów.
+     */
+    private void poŚmierciach() {
+        if (martweWpisy > PRÓG_ZAGĘSZCZANIA * graf.liczbaWpisów()) {
+            graf = graf.zagęszczony(żywi);
+            martweWpisy = 0;
+        }
+        doOdświeżenia.and(żywi);
+        for (int a = doOdświeżenia.nextSetBit(0); a >= 0; a = doOdświeżenia.nextSetBit(a + 1))
+            dodajZnajomychZnajomych(a);
+        doOdświeżenia.clear();
+    }
+
+    /**
+     * Planuje spotkania agenta zgodnie z zasadami dla jego rodzaju
+     * (patrz AgentZwykly.umówSpotkania i AgentTowarzyski.umówSpotkania).
+     *
+     * Umówione spotkania trafiają do brudnopisu, z którego są przepisywane do kalendarza.
+     *
+     * @param a               - numer agenta;
+     * @param nrDnia          - numer dnia, w którym przeprowadzane jest umawianie spotkań;
+     * @param maszynaLosująca - źródło liczb losowych;
+     * @param brudnopis       - pamięć robocza wywołującego.
+     */
+    private void umówSpotkania(int a, int nrDnia, Random maszynaLosująca, Brudnopis brudnopis) {
+        double pr = parametry.getPrawdSpotkania();
+        if (towarzyskie[rodzaj[a]]) {
+            if (stan[a] == CHORY) umówSpotkania(a, nrDnia, false, liczbaZnajomych[a], pr,
+                    maszynaLosująca, brudnopis);
+            else if (znajomiZnajomych[a] == null) umówSpotkania(a, nrDnia, true,
+                    liczbaZnajomych[a], pr, maszynaLosująca, brudnopis);
+            else umówSpotkania(a, nrDnia, true, liczbaZnajomychZnajomych[a], pr,
+                    maszynaLosująca, brudnopis);
+        } else {
+            if (stan[a] == CHORY) pr /= 2;
+            umówSpotkania(a, nrDnia, false, liczbaZnajomych[a], pr, maszynaLosująca, brudnopis);
+        }
+    }
+
+    /**
+     * Planuje spotkania agenta z zadanej puli znajomych (patrz Agent.umówSpotkania).
+     * Jeśli znajomi znajomych agenta nie są zapamiętani, są losowani przez
+     * losujZnajomegoZnajomych, a rozmiarPuli służy tylko do sprawdzenia, czy pula jest pusta.
+     *
+     * @param a                   - numer agenta;
+     * @param nrDnia              - numer dnia, w którym przeprowadzane jest umawianie spotkań;
+     * @param zeZnajomymiZnajomych - czy pulą są znajomi znajomych, czy tylko znajomi agenta;
+     * @param rozmiarPuli         - liczba agentów w puli;
+     * @param prawdSpotkania      - prawdopodobieństwo, z jakim agent decyduje czy chce się
+     *                            spotkać;
+     * @param maszynaLosująca     - źródło liczb losowych;
+     * @param brudnopis           - pamięć robocza wywołującego.
+     */
+    private void umówSpotkania(int a, int nrDnia, boolean zeZnajomymiZnajomych, int rozmiarPuli,
+                               double prawdSpotkania, Random maszynaLosująca,
+                               Brudnopis brudnopis) {
+        if (rozmiarPuli == 0 || parametry.getLiczbaDni() == nrDnia) return;
+        brudnopis.znajomiGotowi = false;
+        double losowyDouble = maszynaLosująca.nextDouble();
+        int znajomy, dzień;
+        while (losowyDouble <= prawdSpotkania) {
+            if (!zeZnajomymiZnajomych)
+                znajomy = znajomy(a, maszynaLosująca.nextInt(rozmiarPuli));
+            else if (znajomiZnajomych[a] != null)
+                znajomy = znajomiZnajomych[a][maszynaLosująca.nextInt(rozmiarPuli)];
+            else znajomy = losujZnajomegoZnajomych(a, maszynaLosująca, brudnopis);
+            dzień = nrDnia + 1 + maszynaLosująca.nextInt(parametry.getLiczbaDni() - nrDnia);
+            brudnopis.spotkania.dodaj(dzień);
+            brudnopis.spotkania.dodaj(a);
+            brudnopis.spotkania.dodaj(znajomy);
+            losowyDouble = maszynaLosująca.nextDouble();
+        }
+    }
+
+    /**
+     * Przeprowadza spotkania zaplanowane na dany dzień.
+     * Spotkania przeprowadzane są w kolejności numerów agentów, którzy je umówili, a dla
+     * jednego agenta w kolejności umawiania - tak jak w klasie Populacja.
+     * Śmierć agenta usuwa z każdego dnia u każdego z jego znajomych pierwsze umówione z nim
+     * spotkanie (patrz Agent.usuńZnajomego), więc takie spotkanie jest tu pomijane. Zmarły
+     * agent zachowuje w grafie swoją listę znajomych (zagęszczanie usuwa z niej tylko zmarłych),
+     * więc wystarczy w niej sprawdzić żywego organizatora.
+     * W trybie aktywnych kroków dzień, w którego spotkaniach nie bierze udziału żaden zarażony
+     * (także zmarły), jest pomijany bez porządkowania spotkań - nikt nie może w nim zachorować.
+     *
+     * @param nrDnia - numer dnia, w którym przeprowadzane są spotkania.
+     */
+    private void przeprowadźSpotkania(int nrDnia) {
+        if (czyDzieńBezZarażonych(nrDnia)) {
+            kalendarz.zamknijDzień(nrDnia);
+            return;
+        }
+        if (!kalendarz.otwórzDzień(nrDnia)) return;
+        Random maszynaLosująca = parametry.getMaszynaLosująca();
+        double prawdZarażenia = parametry.getPrawdZarażenia();
+        int liczbaSpotkań = 0;
+        for (int a = 0; a < liczbaAgentów; a++) {
+            if (!żywi.get(a) || kalendarz.początek(a) == kalendarz.koniec(a)) continue;
+            int z = nowyZnacznik();
+            for (int k = kalendarz.początek(a); k < kalendarz.koniec(a); k++) {
+                int b = kalendarz.partner(k);
+                if (!żywi.get(b) && znaczniki[b] != z) {
+                    znaczniki[b] = z;
+                    if (graf.czySąsiedzi(b, a)) continue;
+                }
+                liczbaSpotkań++;
+                if (stan[b] == CHORY && stan[a] == ZDROWY) {
+                    if (maszynaLosująca.nextDouble() <= prawdZarażenia) {
+                        setStan(a, CHORY);
+                        if (analizy != null) analizy.zarażenie(a, b, rodzaj[b]);
+                    }
+                } else if (stan[b] == ZDROWY && stan[a] == CHORY) {
+                    if (maszynaLosująca.nextDouble() <= prawdZarażenia) {
+                        setStan(b, CHORY);
+                        if (analizy != null) analizy.zarażenie(b, a, rodzaj[a]);
+                    }
+                }
+            }
+        }
+        if (pomiary != null) pomiary.spotkania(liczbaSpotkań);
+        kalendarz.zamknijDzień(nrDnia);
+    }
+
+    /**
+     * Sprawdza w trybie aktywnych kroków, czy w spotkaniach danego dnia nie bierze udziału
+     * żaden zarażony agent (żywy albo zmarły).
+     *
+     * @param nrDnia - numer dnia.
+     * @return Wartość true, jeśli spotkania można pominąć, wpp. false (zawsze w trybie pełnym).
+     */
+    private boolean czyDzieńBezZarażonych(int nrDnia) {
+        return parametry.czyAktywneKroki() && !kalendarz.czySpotkanie(nrDnia,
+                a -> stan[a] == CHORY);
+    }
+
+    /**
+     * Przeprowadza symulację epidemii.
+     *
+     * @return Obiekt klasy String zawierający informację o początkowej sieci społecznościowej
+     * oraz stan populacji po każdym dniu.
+     */
+    public String symulacja() {
+        losowanie();
+        return raport();
+    }
+
+    /**
+     * Losuje populację i graf.
+     * Jeśli konfiguracja używa pamięci populacji, populacja i graf są z niej wczytywane,
+     * a wylosowane - zapisywane do niej.
+     */
+    void losowanie() {
+        PamiecPopulacji pamięć = PamiecPopulacji.dla(parametry, rodzaje);
+        if (pamięć != null && pamięć.wczytaj()) {
+            wczytanie(pamięć);
+            return;
+        }
+        if (pomiary != null) pomiary.początek();
+        losowanieAgentów();
+        if (pomiary != null) {
+            pomiary.koniec(Pomiary.Faza.LOSOWANIE_AGENTÓW, 0);
+            pomiary.początek();
+        }
+        losowanieGrafu();
+        if (pomiary != null) pomiary.koniec(Pomiary.Faza.LOSOWANIE_GRAFU, 0);
+        if (pamięć == null) return;
+        int zarażony = 0;
+        while (stan[zarażony] != CHORY) zarażony++;
+        pamięć.zapisz(rodzaj, zarażony, graf, parametry.getMaszynaLosująca());
+    }
+
+    /**
+     * Przepisuje populację i graf wczytane z pamięci populacji (odpowiednik losowania agentów
+     * i grafu) oraz zastępuje maszynę losującą wczytaną, aby dalsze losowania były takie same.
+     *
+     * @param pamięć - pamięć populacji z wczytaną populacją.
+     */
+    private void wczytanie(PamiecPopulacji pamięć) {
+        System.arraycopy(pamięć.getRodzaj(), 0, rodzaj, 0, liczbaAgentów);
+        for (int a = 0; a < liczbaAgentów; a++) {
+            stan[a] = ZDROWY;
+            licznik.dodaj(ZDROWY);
+        }
+        żywi.set(0, liczbaAgentów);
+        setStan(pamięć.getZarażony(), CHORY);
+        graf = pamięć.getGraf();
+        parametry.setMaszynaLosująca(pamięć.getMaszynaLosująca());
+        poLosowaniuGrafu();
+    }
+
+    /**
+     * Przeprowadza symulację wylosowanej populacji.
+     *
+     * @return Obiekt klasy String zawierający informację o początkowej sieci społecznościowej
+     * oraz stan populacji po każdym dniu.
+     */
+    String raport() {
+        StringBuilder wynik = new StringBuilder();
+        raport(wynik);
+        return wynik.toString();
+    }
+
+    /**
+     * Przeprowadza symulację epidemii, dopisując raport w miarę jego tworzenia
+     * (patrz symulacja()).
+     *
+     * @param wyjście - obiekt, do którego dopisywany jest raport (np. PisarzRaportu).
+     * @throws UncheckedIOException jeśli dopisywanie do wyjścia się nie powiedzie.
+     */
+    public void symulacja(Appendable wyjście) {
+        symulacja(wyjście, null);
+    }
+
+    /**
+     * Przeprowadza symulację epidemii z punktami kontrolnymi, dopisując raport w miarę jego
+     * tworzenia. Jeśli istnieje punkt kontrolny tej symulacji, jest ona od niego wznawiana.
+     *
+     * @param wyjście - obiekt, do którego dopisywany jest raport (otwarty przez
+     *                PunktKontrolny.otwórzRaport);
+     * @param punkt   - punkt kontrolny symulacji (lub null).
+     * @throws UncheckedIOException jeśli dopisywanie do wyjścia albo wczytanie punktu
+     *                              kontrolnego się nie powiedzie.
+     */
+    public void symulacja(Appendable wyjście, PunktKontrolny punkt) {
+        if (punkt != null && punkt.czyWznowienie()) {
+            try (DataInputStream wejście = punkt.wczytaj()) {
+                wczytajStan(wejście);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            raport(wyjście, punkt, punkt.getDzień() + 1);
+        } else {
+            losowanie();
+            raport(wyjście, punkt, 1);
+        }
+    }
+
+    /**
+     * Przeprowadza symulację wylosowanej populacji, dopisując raport w miarę jego tworzenia.
+     * Jeśli konfiguracja tego wymaga, zapisuje też raport binarny.
+     *
+     * @param wyjście - obiekt, do którego dopisywany jest raport.
+     */
+    void raport(Appendable wyjście) {
+        raport(wyjście, null, 1);
+    }
+
+    /**
+     * Przeprowadza symulację od danego dnia, dopisując raport w miarę jego tworzenia
+     * i zapisując punkty kontrolne.
+     *
+     * @param wyjście       - obiekt, do którego dopisywany jest raport;
+     * @param punkt         - punkt kontrolny symulacji (lub null);
+     * @param pierwszyDzień - numer pierwszego dnia do przeprowadzenia.
+     */
+    private void raport(Appendable wyjście, PunktKontrolny punkt, int pierwszyDzień) {
+        try (PisarzBinarny binarny = PisarzBinarny.dla(parametry)) {
+            przebieg(pierwszyDzień, (nrDnia, licznik) -> {
+                try {
+                    if (nrDnia == 0) {
+                        SekcjaGrafu.zapisz(parametry, wyjście, this::drukuj);
+                        wyjście.append(System.lineSeparator());
+                        wyjście.append("# liczność w kolejnych dniach");
+                        wyjście.append(System.lineSeparator());
+                        if (binarny != null) binarny.populacja(rodzaj, stan, graf);
+                    }
+                    wyjście.append(licznośćPopulacji());
+                    if (binarny != null) binarny.dzień(nrDnia, licznik);
+                    if (punkt != null && punkt.czyPora(nrDnia)) punkt.zapisz(nrDnia, migawka());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (analizy != null) analizy.dopisz(wyjście);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Przeprowadza symulację epidemii bez tworzenia raportu.
+     *
+     * @param obserwator - obiekt powiadamiany o stanie populacji po kolejnych dniach.
+     */
+    public void symulacja(ObserwatorDnia obserwator) {
+        losowanie();
+        przebieg(1, obserwator);
+    }
+
+    /**
+     * Przeprowadza kolejne dni symulacji wylosowanej (albo wczytanej z punktu kontrolnego)
+     * populacji. Seed strumieni trybu równoległego losowany jest po wylosowaniu grafu.
+     * W trybie aktywnych kroków dni po wygaśnięciu epidemii nie są symulowane (przy ścisłych
+     * losowaniach wykonywane są tylko ich losowania), a obserwator dostaje niezmieniony licznik.
+     * Jeśli pomiary są zbierane, powiadomienie obserwatora jest mierzone jako faza raportu,
+     * a na końcu pomiary są zapisywane.
+     *
+     * @param pierwszyDzień - numer pierwszego dnia do przeprowadzenia (1, jeśli symulacja nie
+     *                      jest wznawiana - wtedy obserwator jest powiadamiany też o dniu 0);
+     * @param obserwator    - obiekt powiadamiany o stanie populacji po kolejnych dniach.
+     */
+    void przebieg(int pierwszyDzień, ObserwatorDnia obserwator) {
+        if (pierwszyDzień == 1 && parametry.czyRównoległeDni())
+            seedStrumieni = parametry.getMaszynaLosująca().nextLong();
+        przygotujBrudnopisy();
+        if (pomiary != null && pierwszyDzień > 1) pomiary.wznowienie(licznik);
+        if (pierwszyDzień == 1) koniecDnia(obserwator, 0);
+        boolean wygasła = false;
+        int sprawdzenie = pierwszyDzień;
+        for (int nrDnia = pierwszyDzień; nrDnia <= parametry.getLiczbaDni(); nrDnia++) {
+            if (parametry.czyAktywneKroki() && !wygasła && nrDnia >= sprawdzenie) {
+                int dzień = wygaśnięcie(nrDnia - 1);
+                wygasła = dzień < 0;
+                sprawdzenie = dzień + 1;
+            }
+            if (!wygasła) symulacjaDnia(nrDnia);
+            else if (parametry.czyŚcisłeLosowania()) losowaniaPoWygaśnięciu(nrDnia);
+            koniecDnia(obserwator, nrDnia);
+        }
+        Rownolegle.zamknij(pula);
+        if (pomiary != null) pomiary.zapisz();
+    }
+
+    /**
+     * Powiadamia obserwatora o końcu dnia i zamyka pomiary dnia.
+     *
+     * @param obserwator - obiekt powiadamiany o stanie populacji;
+     * @param nrDnia     - numer dnia.
+     */
+    private void koniecDnia(ObserwatorDnia obserwator, int nrDnia) {
+        if (analizy != null) analizy.koniecDnia(nrDnia, licznik);
+        if (pomiary == null) {
+            obserwator.koniecDnia(nrDnia, licznik);
+            return;
+        }
+        pomiary.początek();
+        obserwator.koniecDnia(nrDnia, licznik);
+        pomiary.koniec(Pomiary.Faza.RAPORT, nrDnia);
+        pomiary.koniecDnia(nrDnia, licznik);
+    }
+
+    /**
+     * Sprawdza, czy epidemia wygasła po danym dniu, czyli czy stan populacji nie może się już
+     * zmienić: żaden żywy agent nie jest zarażony, a w trybie sekwencyjnym nie zaplanowano też
+     * spotkań ze zmarłymi agentami (zmarli pozostają zarażeni, a ponowne spotkanie ze zmarłym
+     * tego samego dnia dochodzi do skutku - patrz przeprowadźSpotkania).
+     *
+     * @param nrDnia - numer zakończonego dnia.
+     * @return -1, jeśli epidemia wygasła, wpp. numer dnia, po którym należy sprawdzić ponownie.
+     */
+    private int wygaśnięcie(int nrDnia) {
+        if (licznik.liczba(Stan.CHORY) > 0) return nrDnia;
+        if (parametry.czyRównoległeDni()) return -1;
+        int dzień = kalendarz.ostatniDzieńZ(nrDnia, a -> !żywi.get(a));
+        return (dzień == 0) ? -1 : dzień;
+    }
+
+    /**
+     * Wykonuje losowania umawiania spotkań dnia po wygaśnięciu epidemii, nie zapisując spotkań
+     * - na początku dnia i w spotkaniach losują tylko zarażeni, więc to jedyne losowania dnia.
+     * W trybie równoległym dni nie losują z maszyny losującej symulacji.
+     *
+     * @param nrDnia - numer dnia.
+     */
+    private void losowaniaPoWygaśnięciu(int nrDnia) {
+        if (parametry.czyRównoległeDni()) return;
+        Brudnopis brudnopis = brudnopisy[0];
+        for (int a = żywi.nextSetBit(0); a >= 0; a = żywi.nextSetBit(a + 1))
+            umówSpotkania(a, nrDnia, parametry.getMaszynaLosująca(), brudnopis);
+        brudnopis.spotkania.wyczyść();
+    }
+
+    /**
+     * Przygotowuje pamięć roboczą zakresów agentów, a w trybie równoległym także pulę wątków
+     * i strumienie losowe.
+     * Liczba zakresów zależy od liczby wątków, ale podział na zakresy nie wpływa na wynik.
+     */
+    private void przygotujBrudnopisy() {
+        if (!parametry.czyRównoległeDni()) {
+            brudnopisy = new Brudnopis[]{new Brudnopis(null, maksymalnyStopień)};
+            return;
+        }
+        pula = Rownolegle.nowaPula(parametry.getWątki());
+        int liczbaZakresów = (pula == null) ? 1 :
+                Math.min(liczbaAgentów, 4 * parametry.getWątki());
+        brudnopisy = new Brudnopis[liczbaZakresów];
+        for (int c = 0; c < liczbaZakresów; c++)
+            brudnopisy[c] = new Brudnopis(new StrumienLosowy(seedStrumieni), maksymalnyStopień);
+    }
+
+    /**
+     * Kopiuje stan populacji po zakończeniu dnia do punktu kontrolnego.
+     * Kopiowane są tylko tablice zmieniające się w trakcie symulacji - graf i rodzaje agentów
+     * się nie zmieniają, a listy znajomych znajomych stają się współdzielone z kopią, więc
+     * ich ponowne wyznaczanie tworzy nowe tablice.
+     *
+     * @return Zapis skopiowanego stanu.
+     */
+    private PunktKontrolny.Zapis migawka() {
+        byte[] stan = this.stan.clone();
+        long[] żywi = this.żywi.toLongArray();
+        GrafCSR graf = this.graf;
+        int[] liczbaZnajomych = this.liczbaZnajomych.clone();
+        int martweWpisy = this.martweWpisy;
+        int maksymalnyStopień = this.maksymalnyStopień;
+        int[][] znajomiZnajomych = this.znajomiZnajomych.clone();
+        int[] liczbaZnajomychZnajomych = this.liczbaZnajomychZnajomych.clone();
+        współdzieloneListy = true;
+        KalendarzSpotkan kalendarz = new KalendarzSpotkan(this.kalendarz);
+        long seedStrumieni = this.seedStrumieni;
+        return wyjście -> {
+            wyjście.writeInt(liczbaAgentów);
+            wyjście.write(rodzaj);
+            wyjście.write(stan);
+            wyjście.writeInt(żywi.length);
+            for (long słowo : żywi) wyjście.writeLong(słowo);
+            graf.zapisz(wyjście);
+            for (int a = 0; a < liczbaAgentów; a++) wyjście.writeInt(liczbaZnajomych[a]);
+            wyjście.writeInt(martweWpisy);
+            wyjście.writeInt(maksymalnyStopień);
+            for (int a = 0; a < liczbaAgentów; a++) {
+                if (znajomiZnajomych[a] == null) {
+                    wyjście.writeInt(-1);
+                    continue;
+                }
+                wyjście.writeInt(liczbaZnajomychZnajomych[a]);
+                for (int i = 0; i < liczbaZnajomychZnajomych[a]; i++)
+                    wyjście.writeInt(znajomiZnajomych[a][i]);
+            }
+            kalendarz.zapisz(wyjście);
+            wyjście.writeLong(seedStrumieni);
+        };
+    }
+
+    /**
+     * Wczytuje stan populacji zapisany w punkcie kontrolnym (patrz migawka()).
+     *
+     * @param wejście - strumień danych punktu kontrolnego.
+     */
+    private void wczytajStan(DataInputStream wejście) throws IOException {
+        if (wejście.readInt() != liczbaAgentów)
+            throw new IOException("Punkt kontrolny dla innej liczby agentów");
+        wejście.readFully(rodzaj);
+        wejście.readFully(stan);
+        long[] słowa = new long[wejście.readInt()];
+        for (int i = 0; i < słowa.length; i++) słowa[i] = wejście.readLong();
+        żywi = BitSet.valueOf(słowa);
+        for (int a = żywi.nextSetBit(0); a >= 0; a = żywi.nextSetBit(a + 1)) {
+            licznik.dodaj(stan[a]);
+            if (stan[a] == CHORY) chorzy.set(a);
+        }
+        graf = GrafCSR.wczytaj(wejście, pamięćPozaStertą);
+        for (int a = 0; a < liczbaAgentów; a++) liczbaZnajomych[a] = wejście.readInt();
+        martweWpisy = wejście.readInt();
+        maksymalnyStopień = wejście.readInt();
+        for (int a = 0; a < liczbaAgentów; a++) {
+            int rozmiar = wejście.readInt();
+            if (rozmiar < 0) continue;
+            znajomiZnajomych[a] = new int[Math.max(2, rozmiar)];
+            for (int i = 0; i < rozmiar; i++) znajomiZnajomych[a][i] = wejście.readInt();
+            liczbaZnajomychZnajomych[a] = rozmiar;
+        }
+        kalendarz.wczytaj(wejście);
+        seedStrumieni = wejście.readLong();
+    }
+
+    /**
+     * Przeprowadza symulację dnia.
+     * Symulowany jest początek dnia. Każdy agent planuje spotkania.
+     * Następnie dochodzi do zaplanowanych na dany dzień spotkań.
+     * W trybie równoległym każda z tych trzech faz wykonywana jest współbieżnie dla zakresów
+     * agentów i tylko odczytuje stan populacji, a jej wyniki zapisywane są w brudnopisach
+     * i stosowane po zakończeniu fazy.
+     * W odróżnieniu od trybu sekwencyjnego spotkania ze zmarłymi agentami są wtedy zawsze
+     * odwoływane, a zarażenie w trakcie dnia nie przenosi się dalej w tym samym dniu.
+     * Jeśli pomiary są zbierane, mierzona jest każda z faz.
+     *
+     * @param nrDnia - numer dnia, dla którego przeprowadzana jest symulacja.
+     */
+    private void symulacjaDnia(int nrDnia) {
+        boolean równoległe = parametry.czyRównoległeDni();
+        if (pomiary != null) pomiary.początek();
+        if (równoległe) początekDniaRównoległy(nrDnia);
+        else początekDnia();
+        if (pomiary != null) {
+            pomiary.koniec(Pomiary.Faza.POCZĄTEK_DNIA, nrDnia);
+            pomiary.początek();
+        }
+        if (równoległe) {
+            Rownolegle.dlaKażdego(pula, brudnopisy.length, c -> umówSpotkania(c, nrDnia));
+        } else {
+            for (int a = żywi.nextSetBit(0); a >= 0; a = żywi.nextSetBit(a + 1))
+                umówSpotkania(a, nrDnia, parametry.getMaszynaLosująca(), brudnopisy[0]);
+        }
+        for (Brudnopis brudnopis : brudnopisy) {
+            kalendarz.dodajWszystkie(brudnopis.spotkania);
+            brudnopis.spotkania.wyczyść();
+        }
+        if (pomiary != null) {
+            pomiary.koniec(Pomiary.Faza.UMAWIANIE_SPOTKAŃ, nrDnia);
+            pomiary.początek();
+        }
+        if (równoległe) przeprowadźSpotkaniaRównolegle(nrDnia);
+        else przeprowadźSpotkania(nrDnia);
+        if (pomiary != null) pomiary.koniec(Pomiary.Faza.SPOTKANIA, nrDnia);
+    }
+
+    /**
+     * Przeprowadza spotkania dnia w trybie równoległym - zakresy agentów współbieżnie,
+     * a zarażenia stosowane są po zakończeniu fazy.
+     *
+     * @param nrDnia - numer dnia.
+     */
+    private void przeprowadźSpotkaniaRównolegle(int nrDnia) {
+        if (czyDzieńBezZarażonych(nrDnia)) {
+            kalendarz.zamknijDzień(nrDnia);
+            return;
+        }
+        if (!kalendarz.otwórzDzień(nrDnia)) return;
+        Rownolegle.dlaKażdego(pula, brudnopisy.length, c -> przeprowadźSpotkania(c, nrDnia));
+        for (Brudnopis brudnopis : brudnopisy) {
+            for (int i = 0; i < brudnopis.zarażeni.rozmiar(); i++) {
+                int a = brudnopis.zarażeni.get(i);
+                if (stan[a] == ZDROWY) {
+                    setStan(a, CHORY);
+                    if (analizy != null) {
+                        int zarażający = brudnopis.zarażający.get(i);
+                        analizy.zarażenie(a, zarażający, rodzaj[zarażający]);
+                    }
+                }
+            }
+            brudnopis.zarażeni.wyczyść();
+            brudnopis.zarażający.wyczyść();
+            if (pomiary != null) pomiary.spotkania(brudnopis.liczbaSpotkań);
+            brudnopis.liczbaSpotkań = 0;
+        }
+        kalendarz.zamknijDzień(nrDnia);
+    }
+
+    /**
+     * Symuluje początek dnia w trybie równoległym - zakresy agentów rozstrzygane są
+     * współbieżnie, a zgony i wyzdrowienia stosowane po zakończeniu fazy.
+     * Zbiorczy przebieg choroby losowany jest w jednym wątku, ze strumienia dnia o numerze
+     * agenta równym liczbie agentów (czyli bez agenta).
+     *
+     * @param nrDnia - numer dnia.
+     */
+    private void początekDniaRównoległy(int nrDnia) {
+        if (parametry.czyZbiorczyPrzebiegChoroby()) {
+            StrumienLosowy strumień = brudnopisy[0].strumień;
+            strumień.ustaw(liczbaAgentów, nrDnia, FAZA_POCZĄTKU);
+            początekDniaZbiorczy(strumień);
+            return;
+        }
+        Rownolegle.dlaKażdego(pula, brudnopisy.length, c -> początekDnia(c, nrDnia));
+        boolean ktośUmarł = false;
+        for (Brudnopis brudnopis : brudnopisy) {
+            for (int i = 0; i < brudnopis.zmarli.rozmiar(); i++) {
+                śmierć(brudnopis.zmarli.get(i));
+                ktośUmarł = true;
+            }
+            for (int i = 0; i < brudnopis.wyzdrowiali.rozmiar(); i++)
+                setStan(brudnopis.wyzdrowiali.get(i), UODPORNIONY);
+            brudnopis.zmarli.wyczyść();
+            brudnopis.wyzdrowiali.wyczyść();
+        }
+        if (ktośUmarł) poŚmierciach();
+    }
+
+    /**
+     * Zwraca numer pierwszego agenta zakresu.
+     *
+     * @param c - numer zakresu (liczba brudnopisy.length oznacza koniec ostatniego zakresu).
+     * @return Numer agenta.
+     */
+    private int początekZakresu(int c) {
+        return (int) ((long) c * liczbaAgentów / brudnopisy.length);
+    }
+
+    /**
+     * Rozstrzyga początek dnia dla zakresu agentów w trybie równoległym
+     * (patrz początekDnia()). Zmarli i wyzdrowiali zapisywani są w brudnopisie zakresu.
+     *
+     * @param c      - numer zakresu;
+     * @param nrDnia - numer dnia.
+     */
+    private void początekDnia(int c, int nrDnia) {
+        Brudnopis brudnopis = brudnopisy[c];
+        double śmiertelność = parametry.getŚmiertelność();
+        double prawdWyzdrowienia = parametry.getPrawdWyzdrowienia();
+        int koniec = początekZakresu(c + 1);
+        BitSet przeglądani = parametry.czyAktywneKroki() ? chorzy : żywi;
+        for (int a = przeglądani.nextSetBit(początekZakresu(c)); a >= 0 && a < koniec;
+             a = przeglądani.nextSetBit(a + 1)) {
+            if (stan[a] != CHORY) continue;
+            brudnopis.strumień.ustaw(a, nrDnia, FAZA_POCZĄTKU);
+            double losowyDouble = brudnopis.strumień.nextDouble();
+            if (losowyDouble <= śmiertelność) brudnopis.zmarli.dodaj(a);
+            else if (losowyDouble <= śmiertelność + prawdWyzdrowienia)
+                brudnopis.wyzdrowiali.dodaj(a);
+        }
+    }
+
+    /**
+     * Planuje spotkania żywych agentów zakresu w trybie równoległym.
+     *
+     * @param c      - numer zakresu;
+     * @param nrDnia - numer dnia.
+     */
+    private void umówSpotkania(int c, int nrDnia) {
+        Brudnopis brudnopis = brudnopisy[c];
+        int koniec = początekZakresu(c + 1);
+        for (int a = żywi.nextSetBit(początekZakresu(c)); a >= 0 && a < koniec;
+             a = żywi.nextSetBit(a + 1)) {
+            brudnopis.strumień.ustaw(a, nrDnia, FAZA_UMAWIANIA);
+            umówSpotkania(a, nrDnia, brudnopis.strumień, brudnopis);
+        }
+    }
+
+    /**
+     * Przeprowadza spotkania organizowane przez agentów zakresu w trybie równoległym.
+     * Losowania organizatora pochodzą z jego strumienia, w kolejności umawiania spotkań.
+     * Zarażeni zapisywani są w brudnopisie zakresu.
+     *
+     * @param c      - numer zakresu;
+     * @param nrDnia - numer dnia.
+     */
+    private void przeprowadźSpotkania(int c, int nrDnia) {
+        Brudnopis brudnopis = brudnopisy[c];
+        double prawdZarażenia = parametry.getPrawdZarażenia();
+        boolean zbiorcze = parametry.czyZbiorczeSpotkania();
+        int koniec = początekZakresu(c + 1);
+        for (int a = żywi.nextSetBit(początekZakresu(c)); a >= 0 && a < koniec;
+             a = żywi.nextSetBit(a + 1)) {
+            if (kalendarz.początek(a) == kalendarz.koniec(a)) continue;
+            brudnopis.strumień.ustaw(a, nrDnia, FAZA_SPOTKAŃ);
+            if (zbiorcze) {
+                przeprowadźSpotkaniaZbiorczo(a, brudnopis, prawdZarażenia);
+                continue;
+            }
+            for (int k = kalendarz.początek(a); k < kalendarz.koniec(a); k++) {
+                int b = kalendarz.partner(k);
+                if (!żywi.get(b)) continue;
+                brudnopis.liczbaSpotkań++;
+                if (stan[b] == CHORY && stan[a] == ZDROWY) {
+                    if (brudnopis.strumień.nextDouble() <= prawdZarażenia)
+                        zarażenie(brudnopis, a, b);
+                } else if (stan[b] == ZDROWY && stan[a] == CHORY) {
+                    if (brudnopis.strumień.nextDouble() <= prawdZarażenia)
+                        zarażenie(brudnopis, b, a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Przeprowadza spotkania organizatora w trybie równoległym zbiorczo dla każdej pary
+     * (parametr opcjonalny spotkania). Spotkania, w których nikt nie może się zarazić, są tylko
+     * liczone. Pozostali partnerzy są sortowani, a k spotkań z tym samym partnerem rozstrzyga
+     * jedno losowanie z prawdopodobieństwem zarażenia 1 - (1 - prawdZarażenia)^k. Stany nie
+     * zmieniają się w trakcie fazy, więc rozkład zarażeń jest taki sam jak przy losowaniu dla
+     * każdego spotkania osobno.
+     *
+     * @param a              - numer organizatora;
+     * @param brudnopis      - brudnopis zakresu organizatora;
+     * @param prawdZarażenia - prawdopodobieństwo zarażenia w jednym spotkaniu.
+     */
+    private void przeprowadźSpotkaniaZbiorczo(int a, Brudnopis brudnopis, double prawdZarażenia) {
+        int[] partnerzy = brudnopis.partnerzy;
+        int n = 0;
+        for (int k = kalendarz.początek(a); k < kalendarz.koniec(a); k++) {
+            int b = kalendarz.partner(k);
+            if (!żywi.get(b)) continue;
+            brudnopis.liczbaSpotkań++;
+            if ((stan[b] == CHORY && stan[a] == ZDROWY) ||
+                    (stan[b] == ZDROWY && stan[a] == CHORY)) {
+                if (n == partnerzy.length) {
+                    partnerzy = Arrays.copyOf(partnerzy, 2 * n);
+                    brudnopis.partnerzy = partnerzy;
+                }
+                partnerzy[n++] = b;
+            }
+        }
+        if (n > 1) Arrays.sort(partnerzy, 0, n);
+        for (int i = 0, j; i < n; i = j) {
+            int b = partnerzy[i];
+            for (j = i + 1; j < n && partnerzy[j] == b; ) j++;
+            double prawd = (j - i == 1) ? prawdZarażenia : 1 - Math.pow(1 - prawdZarażenia, j - i);
+            if (brudnopis.strumień.nextDouble() <= prawd) {
+                if (stan[a] == ZDROWY) zarażenie(brudnopis, a, b);
+                else zarażenie(brudnopis, b, a);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje w brudnopisie zarażenie w trybie równoległym, a przy podsumowaniu także
+     * zarażającego.
+     *
+     * @param brudnopis  - brudnopis zakresu organizatora spotkania;
+     * @param zarażony   - numer zarażonego agenta;
+     * @param zarażający - numer agenta, który zaraził.
+     */
+    private void zarażenie(Brudnopis brudnopis, int zarażony, int zarażający) {
+        brudnopis.zarażeni.dodaj(zarażony);
+        if (analizy != null) brudnopis.zarażający.dodaj(zarażający);
+    }
+
+    /**
+     * Zwraca napis reprezentujący stan populacji na końcu dnia symulacji.
+     * Napis zawiera liczbę osób kolejno zdrowych, chorych, uodpornionych oddzielonych spacją.
+     *
+     * @return Napis.
+     */
+    private String licznośćPopulacji() {
+        return licznik.toString() + System.lineSeparator();
+    }
+
+    /**
+     * Zwraca napis zawierający informację o początkowej sieci społecznościowej.
+     * Napis zawiera informacje o wszystkich agentach w populacji
+     * oraz reprezentację grafu społecznościowego.
+     *
+     * @return Napis.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            drukuj(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Dopisuje informację o sieci społecznościowej (patrz toString) agent po agencie, bez
+     * tworzenia napisu z całym grafem.
+     *
+     * @param s - obiekt, do którego dopisywany jest tekst.
+     */
+    private void drukuj(Appendable s) throws IOException {
+        s.append("# agenci jako: id typ lub id* typ dla chorego");
+        s.append(System.lineSeparator());
+        for (int a = żywi.nextSetBit(0); a >= 0; a = żywi.nextSetBit(a + 1)) {
+            PisarzRaportu.dopisz(s, a + 1);
+            if (stan[a] == CHORY) s.append('*');
+            s.append(' ');
+            s.append(nazwyRodzajów[rodzaj[a]]);
+            s.append(System.lineSeparator());
+        }
+        s.append(System.lineSeparator());
+        s.append("# graf");
+        s.append(System.lineSeparator());
+        for (int a = żywi.nextSetBit(0); a >= 0; a = żywi.nextSetBit(a + 1)) {
+            PisarzRaportu.dopisz(s, a + 1);
+            for (int i = graf.początek(a); i < graf.koniec(a); i++) {
+                if (!żywi.get(graf.sąsiad(i))) continue;
+                s.append(' ');
+                PisarzRaportu.dopisz(s, graf.sąsiad(i) + 1);
+            }
+            s.append(System.lineSeparator());
+        }
+    }
+}
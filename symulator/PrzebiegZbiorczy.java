@@ -0,0 +1,170 @@
+package symulator;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Klasa rozstrzygająca początek dnia zbiorczo dla wszystkich zarażonych (parametr opcjonalny
+ * przebiegChoroby).
+ * Zamiast jednej liczby losowej dla każdego zarażonego losowane są liczby zgonów i wyzdrowień
+ * z rozkładu wielomianowego (jako dwa rozkłady dwumianowe), a następnie zmarli i wyzdrowiali
+ * wybierani są bez zwracania spośród zarażonych (częściowe tasowanie Fishera-Yatesa tablicy
+ * ich numerów). Każdy zarażony umiera, zdrowieje lub pozostaje zarażony z tymi samymi
+ * prawdopodobieństwami i niezależnie od innych, tak jak przy losowaniu dla każdego osobno,
+ * ale liczba losowań zależy od liczby zgonów i wyzdrowień, a nie od liczby zarażonych.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class PrzebiegZbiorczy {
+    /**
+     * Średnia, poniżej której rozkład dwumianowy losowany jest przez odwracanie dystrybuanty
+     * od zera, a nie od mody.
+     */
+    private static final double MAŁA_ŚREDNIA = 30;
+    /**
+     * Logarytmy silni liczb mniejszych niż ich liczba (dla większych - wzór Stirlinga).
+     */
+    private static final double[] LOGARYTMY_SILNI = new double[256];
+
+    static {
+        for (int k = 2; k < LOGARYTMY_SILNI.length; k++)
+            LOGARYTMY_SILNI[k] = LOGARYTMY_SILNI[k - 1] + Math.log(k);
+    }
+
+    /**
+     * Numery zarażonych agentów - na początku tablicy zmarli, po nich wyzdrowiali.
+     */
+    private int[] zarażeni;
+    private int liczbaZgonów;
+    private int liczbaWyzdrowień;
+
+    PrzebiegZbiorczy() {
+        zarażeni = new int[16];
+    }
+
+    /**
+     * Losuje zmarłych i wyzdrowiałych spośród zarażonych.
+     * Zarażony umiera z prawdopodobieństwem śmiertelność, a jeśli nie umrze, zdrowieje tak, jak
+     * przy losowaniu osobno (z prawdopodobieństwem prawdWyzdrowienia, ale nie większym niż
+     * 1 - śmiertelność).
+     *
+     * @param chorzy            - numery żywych zarażonych agentów;
+     * @param śmiertelność      - prawdopodobieństwo śmierci;
+     * @param prawdWyzdrowienia - prawdopodobieństwo wyzdrowienia;
+     * @param maszynaLosująca   - źródło liczb losowych.
+     */
+    void losuj(BitSet chorzy, double śmiertelność, double prawdWyzdrowienia,
+               Random maszynaLosująca) {
+        int n = chorzy.cardinality();
+        if (zarażeni.length < n) zarażeni = new int[Math.max(n, 2 * zarażeni.length)];
+        int i = 0;
+        for (int a = chorzy.nextSetBit(0); a >= 0; a = chorzy.nextSetBit(a + 1)) zarażeni[i++] = a;
+        liczbaZgonów = dwumianowy(maszynaLosująca, n, śmiertelność);
+        double warunkowe = (śmiertelność >= 1) ? 0 :
+                Math.min(prawdWyzdrowienia, 1 - śmiertelność) / (1 - śmiertelność);
+        liczbaWyzdrowień = dwumianowy(maszynaLosująca, n - liczbaZgonów, warunkowe);
+        for (int j = 0; j < liczbaZgonów + liczbaWyzdrowień; j++) {
+            int k = j + maszynaLosująca.nextInt(n - j);
+            int pomocniczy = zarażeni[j];
+            zarażeni[j] = zarażeni[k];
+            zarażeni[k] = pomocniczy;
+        }
+    }
+
+    int getLiczbaZgonów() {
+        return liczbaZgonów;
+    }
+
+    int getLiczbaWyzdrowień() {
+        return liczbaWyzdrowień;
+    }
+
+    /**
+     * Zwraca numer zmarłego agenta.
+     *
+     * @param i - numer zgonu (od 0).
+     * @return Numer agenta.
+     */
+    int zmarły(int i) {
+        return zarażeni[i];
+    }
+
+    /**
+     * Zwraca numer wyzdrowiałego agenta.
+     *
+     * @param i - numer wyzdrowienia (od 0).
+     * @return Numer agenta.
+     */
+    int wyzdrowiały(int i) {
+        return zarażeni[liczbaZgonów + i];
+    }
+
+    /**
+     * Losuje liczbę z rozkładu dwumianowego przez odwracanie dystrybuanty. Dla małej średniej
+     * prawdopodobieństwa kolejnych wartości przeglądane są od zera, a dla dużej na przemian
+     * w dół i w górę od mody, więc liczba kroków jest rzędu odchylenia standardowego.
+     *
+     * @param maszynaLosująca - źródło liczb losowych;
+     * @param n               - liczba prób;
+     * @param p               - prawdopodobieństwo sukcesu.
+     * @return Liczba sukcesów.
+     */
+    static int dwumianowy(Random maszynaLosująca, int n, double p) {
+        if (n <= 0 || p <= 0) return 0;
+        if (p >= 1) return n;
+        if (p > 0.5) return n - dwumianowy(maszynaLosująca, n, 1 - p);
+        double q = 1 - p;
+        double iloraz = p / q;
+        if (n * p < MAŁA_ŚREDNIA) {
+            double f0 = Math.exp(n * Math.log1p(-p));
+            while (true) {
+                double u = maszynaLosująca.nextDouble();
+                double f = f0;
+                for (int k = 0; k <= n; k++) {
+                    if (u < f) return k;
+                    u -= f;
+                    f *= iloraz * (n - k) / (k + 1);
+                }
+            }
+        }
+        int moda = (int) ((n + 1) * p);
+        double fModa = Math.exp(logarytmSilni(n) - logarytmSilni(moda) -
+                logarytmSilni(n - moda) + moda * Math.log(p) + (n - moda) * Math.log1p(-p));
+        while (true) {
+            double u = maszynaLosująca.nextDouble() - fModa;
+            if (u < 0) return moda;
+            int dół = moda, góra = moda;
+            double fDół = fModa, fGóra = fModa;
+            while (dół > 0 || góra < n) {
+                if (dół > 0) {
+                    fDół *= dół / (iloraz * (n - dół + 1));
+                    dół--;
+                    u -= fDół;
+                    if (u < 0) return dół;
+                }
+                if (góra < n) {
+                    fGóra *= iloraz * (n - góra) / (góra + 1);
+                    góra++;
+                    u -= fGóra;
+                    if (u < 0) return góra;
+                }
+            }
+        }
+    }
+
+    /**
+     * Zwraca logarytm naturalny silni.
+     *
+     * @param k - liczba nieujemna.
+     * @return Logarytm k!.
+     */
+    private static double logarytmSilni(int k) {
+        if (k < LOGARYTMY_SILNI.length) return LOGARYTMY_SILNI[k];
+        double x = k;
+        double odwrotność = 1 / x;
+        double kwadrat = odwrotność * odwrotność;
+        return (x + 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI) +
+                odwrotność * (1.0 / 12 - kwadrat * (1.0 / 360 - kwadrat / 1260));
+    }
+}
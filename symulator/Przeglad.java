@@ -0,0 +1,145 @@
+package symulator;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Klasa reprezentująca przegląd parametrów epidemiologicznych.
+ * Populacja i graf losowane są raz (silnikiem kolumnowym, który daje ten sam raport co
+ * obiektowy), a wszystkie warianty parametrów symulowane są równolegle na kopiach populacji
+ * współdzielących z nią graf. Raport każdego wariantu zapisywany jest w osobnym pliku,
+ * a raport przeglądu zawiera listę wariantów.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class Przeglad {
+    /**
+     * Obiekt klasy Konfiguracja.
+     * Zawiera parametry dla symulatora epidemii.
+     */
+    private Konfiguracja parametry;
+    /**
+     * Rodzaje agentów, spośród których losowane są rodzaje agentów.
+     */
+    private List<RodzajAgenta> rodzaje;
+
+    /**
+     * Tworzy nowy obiekt klasy Przeglad z rodzajami agentów dostępnymi na ścieżce klas.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii i warianty.
+     */
+    public Przeglad(Konfiguracja parametry) {
+        this(parametry, RodzajAgenta.wczytaj());
+    }
+
+    /**
+     * Tworzy nowy obiekt klasy Przeglad.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii i warianty;
+     * @param rodzaje   - rodzaje agentów.
+     */
+    public Przeglad(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        this.parametry = parametry;
+        this.rodzaje = rodzaje;
+    }
+
+    /**
+     * Zwraca ścieżkę do pliku z raportem wariantu - ścieżkę do raportu z numerem wariantu
+     * wstawionym przed rozszerzeniem.
+     *
+     * @param plikZRaportem - ścieżka do pliku z raportem przeglądu;
+     * @param nr            - numer wariantu (od 1).
+     * @return Ścieżka.
+     */
+    static String plikWariantu(String plikZRaportem, int nr) {
+        int kropka = plikZRaportem.lastIndexOf('.');
+        if (kropka <= plikZRaportem.lastIndexOf(File.separatorChar) + 1)
+            return plikZRaportem + "-" + nr;
+        return plikZRaportem.substring(0, kropka) + "-" + nr + plikZRaportem.substring(kropka);
+    }
+
+    /**
+     * Kopiuje maszynę losującą razem z jej stanem.
+     *
+     * @param maszynaLosująca - kopiowana maszyna losująca.
+     * @return Maszyna losująca, która wylosuje te same liczby co kopiowana.
+     */
+    static Random kopia(Random maszynaLosująca) {
+        try {
+            ByteArrayOutputStream bajty = new ByteArrayOutputStream();
+            try (ObjectOutputStream wyjście = new ObjectOutputStream(bajty)) {
+                wyjście.writeObject(maszynaLosująca);
+            }
+            try (ObjectInputStream wejście = new ObjectInputStream(
+                    new ByteArrayInputStream(bajty.toByteArray()))) {
+                return (Random) wejście.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Przeprowadza przegląd.
+     * Przy wspólnych losowaniach każdy wariant dostaje kopię maszyny losującej ze stanem po
+     * wylosowaniu grafu, więc jego raport jest taki sam jak raport osobnej symulacji z jego
+     * parametrami. Przy niezależnych dostaje nową maszynę losującą z seedem pochodnym.
+     *
+     * @return Raport przeglądu - lista wariantów wraz z plikami ich raportów.
+     */
+    public String symulacja() throws InterruptedException, ExecutionException {
+        PopulacjaKolumnowa wzór = new PopulacjaKolumnowa(parametry, rodzaje);
+        wzór.losowanie();
+        Random maszynaLosująca = parametry.getMaszynaLosująca();
+        List<Map<String, String>> warianty = parametry.getWarianty();
+        ExecutorService wykonawca = Executors.newFixedThreadPool(parametry.getWątki(),
+                zadanie -> {
+                    Thread wątek = new Thread(zadanie, "wariant");
+                    wątek.setDaemon(true);
+                    return wątek;
+                });
+        List<Future<?>> zadania = new ArrayList<>();
+        StringBuilder s = new StringBuilder();
+        s.append("# warianty jako: numer zmiany plik z raportem");
+        s.append(System.lineSeparator());
+        try {
+            for (int i = 0; i < warianty.size(); i++) {
+                Random maszynaWariantu = parametry.czyNiezależneLosowaniaWariantów() ?
+                        parametry.nowaMaszynaLosująca(Zespol.seedReplikacji(parametry.getSeed(),
+                                i + 1)) :
+                        kopia(maszynaLosująca);
+                Konfiguracja k = parametry.wariant(warianty.get(i), maszynaWariantu,
+                        (parametry.getPlikBinarny() == null) ? null :
+                                plikWariantu(parametry.getPlikBinarny(), i + 1),
+                        (parametry.getPlikGrafu() == null) ? null :
+                                plikWariantu(parametry.getPlikGrafu(), i + 1));
+                String plik = plikWariantu(parametry.getPlikZRaportem(), i + 1);
+                zadania.add(wykonawca.submit(() -> {
+                    try (PisarzRaportu raport = PisarzRaportu.atomowy(plik)) {
+                        raport.append(k.toString());
+                        raport.append(System.lineSeparator());
+                        new PopulacjaKolumnowa(wzór, k).raport(raport);
+                        raport.zatwierdź();
+                    }
+                    return null;
+                }));
+                s.append(i + 1);
+                for (Map.Entry<String, String> zmiana : warianty.get(i).entrySet()) {
+                    s.append(' ');
+                    s.append(zmiana.getKey());
+                    s.append('=');
+                    s.append(zmiana.getValue());
+                }
+                s.append(' ');
+                s.append(plik);
+                s.append(System.lineSeparator());
+            }
+            for (Future<?> zadanie : zadania) zadanie.get();
+        } finally {
+            wykonawca.shutdownNow();
+        }
+        return s.toString();
+    }
+}
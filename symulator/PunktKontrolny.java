@@ -0,0 +1,303 @@
+package symulator;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Random;
+
+/**
+ * Klasa reprezentująca punkt kontrolny symulacji.
+ * Co odstępPunktówKontrolnych dni populacja zapisuje swój stan po zakończeniu dnia: stany
+ * agentów, żywych agentów, graf, zaplanowane spotkania, stan maszyny losującej oraz długość
+ * dopisanego dotąd raportu. Stan kopiowany jest w wątku symulacji, a do pliku zapisywany
+ * w osobnym wątku, więc zapis nie wstrzymuje kolejnych dni. Jeśli poprzedni zapis jeszcze
+ * trwa, punkt kontrolny jest pomijany.
+ * Plik zapisywany jest pod tymczasową nazwą i przenoszony dopiero wtedy, gdy i on, i raport do
+ * zapisanej długości są utrwalone na dysku - plik punktu kontrolnego zawsze opisuje stan,
+ * którego raport jest w pliku z raportem. Pliki tymczasowe zapisu przerwanego razem
+ * z procesem usuwane są przy otwarciu punktu kontrolnego.
+ * Symulacja wznowiona z punktu kontrolnego skraca raport do zapisanej długości i daje ten sam
+ * raport co symulacja bez przerwy. Punkt kontrolny z symulacji o innych parametrach jest
+ * pomijany, a po zakończeniu symulacji plik jest usuwany.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class PunktKontrolny {
+    /**
+     * Znacznik początku pliku (napis "EPIDCKP1").
+     */
+    private static final long MAGIA = 0x45504944434b5031L;
+    private static final int WERSJA = 1;
+
+    /**
+     * Zapis stanu populacji skopiowanego w chwili tworzenia punktu kontrolnego.
+     */
+    interface Zapis {
+        void zapisz(DataOutputStream wyjście) throws IOException;
+    }
+
+    /**
+     * Parametry symulacji.
+     */
+    private final Konfiguracja parametry;
+    /**
+     * Ścieżka do pliku z punktem kontrolnym.
+     */
+    private final Path plik;
+    /**
+     * Napis identyfikujący symulację - parametry i opcje wpływające na przebieg symulacji.
+     */
+    private final String odcisk;
+    /**
+     * Numer dnia zapisanego w istniejącym punkcie kontrolnym (0, jeśli symulacja nie jest
+     * wznawiana) i długość raportu po tym dniu.
+     */
+    private int dzień;
+    private long długośćRaportu;
+    /**
+     * Raport symulacji.
+     */
+    private PisarzRaportu pisarz;
+    /**
+     * Wątek zapisujący ostatni punkt kontrolny.
+     */
+    private Thread wątekZapisu;
+
+    /**
+     * Tworzy nowy obiekt klasy PunktKontrolny.
+     *
+     * @param parametry - parametry symulacji.
+     */
+    private PunktKontrolny(Konfiguracja parametry) {
+        this.parametry = parametry;
+        plik = Paths.get(parametry.getPunktKontrolny()).toAbsolutePath();
+        odcisk = parametry.toString() + System.lineSeparator() + parametry.getSilnik() + " " +
+                parametry.czyRównoległeDni() + " " + parametry.czyLosowaniZnajomiZnajomych() +
+                " " + parametry.getRodzajMaszyny() + " " + parametry.czyAliasRodzajów() + " " +
+                parametry.czyZbiorczyPrzebiegChoroby() + " " + parametry.czyZbiorczeSpotkania();
+    }
+
+    /**
+     * Zwraca punkt kontrolny symulacji, jeśli konfiguracja go używa, i sprawdza, czy istnieje
+     * punkt kontrolny, z którego można wznowić symulację.
+     *
+     * @param parametry - parametry symulacji.
+     * @return Nowy obiekt lub null, jeśli nie podano pliku punktu kontrolnego.
+     */
+    public static PunktKontrolny dla(Konfiguracja parametry) {
+        if (parametry.getPunktKontrolny() == null) return null;
+        PunktKontrolny punkt = new PunktKontrolny(parametry);
+        punkt.usuńTymczasowe();
+        if (Files.isRegularFile(punkt.plik)) {
+            try (DataInputStream wejście = punkt.otwórz()) {
+                punkt.czytajNagłówek(wejście);
+            } catch (IOException e) {
+                punkt.dzień = 0;
+            }
+        }
+        return punkt;
+    }
+
+    /**
+     * Usuwa pliki tymczasowe (nazwa pliku, liczba, .tmp) pozostawione przez zapis przerwany
+     * razem z procesem. Pliki, których nie udało się usunąć, są pomijane.
+     */
+    private void usuńTymczasowe() {
+        String przedrostek = plik.getFileName().toString();
+        DirectoryStream.Filter<Path> tymczasowy = p -> {
+            String nazwa = p.getFileName().toString();
+            if (nazwa.length() <= przedrostek.length() + 4 || !nazwa.startsWith(przedrostek) ||
+                    !nazwa.endsWith(".tmp")) return false;
+            return nazwa.substring(przedrostek.length(), nazwa.length() - 4).chars()
+                    .allMatch(Character::isDigit);
+        };
+        try (DirectoryStream<Path> pliki = Files.newDirectoryStream(plik.getParent(), tymczasowy)) {
+            for (Path p : pliki) {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    // Plik tymczasowy nie jest nigdy odczytywany.
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            // Pozostałe pliki tymczasowe nie przeszkadzają symulacji.
+        }
+    }
+
+    /**
+     * Otwiera plik punktu kontrolnego do czytania.
+     *
+     * @return Strumień danych.
+     */
+    private DataInputStream otwórz() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(plik), 1 << 16));
+    }
+
+    /**
+     * Czyta nagłówek punktu kontrolnego. Symulacja jest wznawiana, jeśli punkt kontrolny
+     * pochodzi z symulacji o tych samych parametrach, a plik z raportem nie jest krótszy niż
+     * raport zapisany w punkcie kontrolnym.
+     *
+     * @param wejście - strumień danych pliku punktu kontrolnego.
+     */
+    private void czytajNagłówek(DataInputStream wejście) throws IOException {
+        dzień = 0;
+        if (wejście.readLong() != MAGIA || wejście.readInt() != WERSJA) return;
+        if (!wejście.readUTF().equals(odcisk)) return;
+        int zapisanyDzień = wejście.readInt();
+        długośćRaportu = wejście.readLong();
+        Path raport = Paths.get(parametry.getPlikZRaportem());
+        if (Files.isRegularFile(raport) && Files.size(raport) >= długośćRaportu)
+            dzień = zapisanyDzień;
+    }
+
+    /**
+     * Sprawdza, czy symulacja jest wznawiana z punktu kontrolnego.
+     *
+     * @return Wartość true, jeśli symulacja jest wznawiana, wpp. false.
+     */
+    public boolean czyWznowienie() {
+        return dzień > 0;
+    }
+
+    /**
+     * Zwraca numer ostatniego dnia przeprowadzonego przed zapisaniem punktu kontrolnego.
+     *
+     * @return Numer dnia (0, jeśli symulacja nie jest wznawiana).
+     */
+    public int getDzień() {
+        return dzień;
+    }
+
+    /**
+     * Otwiera raport symulacji. Przy wznowieniu raport jest skracany do długości zapisanej
+     * w punkcie kontrolnym, wpp. jest tworzony od nowa.
+     *
+     * @return Obiekt zapisujący raport.
+     */
+    public PisarzRaportu otwórzRaport() throws IOException {
+        pisarz = czyWznowienie() ? new PisarzRaportu(parametry.getPlikZRaportem(), długośćRaportu)
+                : new PisarzRaportu(parametry.getPlikZRaportem());
+        return pisarz;
+    }
+
+    /**
+     * Wczytuje z punktu kontrolnego maszynę losującą, zastępując nią maszynę losującą
+     * symulacji, i otwiera zapisany stan populacji.
+     *
+     * @return Strumień danych ustawiony na początku stanu populacji (zapisanego przez Zapis).
+     */
+    DataInputStream wczytaj() throws IOException {
+        DataInputStream wejście = otwórz();
+        try {
+            czytajNagłówek(wejście);
+            byte[] stanMaszyny = new byte[wejście.readInt()];
+            wejście.readFully(stanMaszyny);
+            try (ObjectInputStream maszyna = new ObjectInputStream(
+                    new ByteArrayInputStream(stanMaszyny))) {
+                parametry.setMaszynaLosująca((Random) maszyna.readObject());
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+            return wejście;
+        } catch (IOException e) {
+            wejście.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sprawdza, czy po danym dniu należy zapisać punkt kontrolny. Punkt kontrolny nie jest
+     * zapisywany po ostatnim dniu ani wtedy, gdy poprzedni zapis jeszcze trwa.
+     *
+     * @param nrDnia - numer zakończonego dnia.
+     * @return Wartość true, jeśli należy zapisać punkt kontrolny, wpp. false.
+     */
+    boolean czyPora(int nrDnia) {
+        return pisarz != null && nrDnia % parametry.getOdstępPunktówKontrolnych() == 0 &&
+                nrDnia < parametry.getLiczbaDni() && (wątekZapisu == null ||
+                !wątekZapisu.isAlive());
+    }
+
+    /**
+     * Zapisuje punkt kontrolny w osobnym wątku. Raport dopisany do końca dnia jest przekazywany
+     * do zapisu, a stan maszyny losującej kopiowany w chwili wywołania.
+     *
+     * @param nrDnia - numer zakończonego dnia;
+     * @param zapis  - zapis skopiowanego stanu populacji.
+     */
+    void zapisz(int nrDnia, Zapis zapis) {
+        pisarz.wypchnij();
+        long długość = pisarz.długość();
+        ByteArrayOutputStream bajty = new ByteArrayOutputStream();
+        try (ObjectOutputStream wyjście = new ObjectOutputStream(bajty)) {
+            wyjście.writeObject(parametry.getMaszynaLosująca());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] stanMaszyny = bajty.toByteArray();
+        wątekZapisu = new Thread(() -> zapiszPlik(nrDnia, długość, stanMaszyny, zapis),
+                "punkt kontrolny");
+        wątekZapisu.setDaemon(true);
+        wątekZapisu.start();
+    }
+
+    /**
+     * Zapisuje plik punktu kontrolnego. Błąd zapisu pozostawia poprzedni punkt kontrolny.
+     *
+     * @param nrDnia      - numer zakończonego dnia;
+     * @param długość     - długość raportu po tym dniu;
+     * @param stanMaszyny - serializowana maszyna losująca;
+     * @param zapis       - zapis stanu populacji.
+     */
+    private void zapiszPlik(int nrDnia, long długość, byte[] stanMaszyny, Zapis zapis) {
+        Path tymczasowy = null;
+        try {
+            tymczasowy = Files.createTempFile(plik.getParent(), plik.getFileName().toString(),
+                    ".tmp");
+            try (FileOutputStream strumień = new FileOutputStream(tymczasowy.toFile());
+                 DataOutputStream wyjście = new DataOutputStream(
+                         new BufferedOutputStream(strumień, 1 << 16))) {
+                wyjście.writeLong(MAGIA);
+                wyjście.writeInt(WERSJA);
+                wyjście.writeUTF(odcisk);
+                wyjście.writeInt(nrDnia);
+                wyjście.writeLong(długość);
+                wyjście.writeInt(stanMaszyny.length);
+                wyjście.write(stanMaszyny);
+                zapis.zapisz(wyjście);
+                wyjście.flush();
+                strumień.getFD().sync();
+            }
+            pisarz.utrwal(długość);
+            Files.move(tymczasowy, plik, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            tymczasowy = null;
+        } catch (IOException | RuntimeException e) {
+            // Aktualny pozostaje poprzedni punkt kontrolny.
+        } finally {
+            if (tymczasowy != null) {
+                try {
+                    Files.deleteIfExists(tymczasowy);
+                } catch (IOException e) {
+                    // Plik tymczasowy nie jest nigdy odczytywany.
+                }
+            }
+        }
+    }
+
+    /**
+     * Usuwa punkt kontrolny po zakończeniu symulacji, czekając na trwający zapis.
+     */
+    public void usuń() throws IOException {
+        if (wątekZapisu != null) {
+            try {
+                wątekZapisu.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        Files.deleteIfExists(plik);
+    }
+}
@@ -0,0 +1,241 @@
+package symulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Klasa udostępniająca raport binarny zapisany przez PisarzBinarny.
+ * Plik jest odwzorowywany w pamięci i odczytywany bez parsowania.
+ * Liczby zapisane są w kolejności little-endian. Plik zaczyna się od nagłówka o rozmiarze
+ * ROZMIAR_NAGŁÓWKA bajtów:
+ * long magia, int wersja, int liczbaAgentów, long seed, int liczbaDni, int śrZnajomych,
+ * double prawdTowarzyski, prawdSpotkania, prawdZarażenia, prawdWyzdrowienia, śmiertelność,
+ * long liczbaWpisów, położenia sekcji (long): rodzaje, stany, początki, sąsiedzi, liczności,
+ * int liczba zapisanych dni (łącznie z dniem 0).
+ * Sekcje (wyrównane do 8 bajtów) to kolejno: rodzaj każdego agenta (byte, numer rodzaju
+ * w kolejności RodzajAgenta.wczytaj - domyślnie 0 - towarzyski, 1 - zwykły), początkowy stan
+ * każdego agenta (byte, Stan.ordinal()), początki list znajomych (long, liczbaAgentów + 1
+ * elementów), połączone listy znajomych (int) oraz liczności zdrowych, chorych i uodpornionych
+ * w kolejnych dniach (int, po trzy na dzień).
+ * Agent o identyfikatorze id ma numer id - 1.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class RaportBinarny {
+    /**
+     * Znacznik początku pliku (napis "EPIDSYM1").
+     */
+    static final long MAGIA = 0x314d595344495045L;
+    static final int WERSJA = 1;
+    static final int ROZMIAR_NAGŁÓWKA = 128;
+    /**
+     * Największy rozmiar jednego odwzorowanego fragmentu listy znajomych w bajtach.
+     */
+    private static final long ROZMIAR_FRAGMENTU = 1L << 30;
+
+    private final int liczbaAgentów;
+    private final long seed;
+    private final int liczbaDni;
+    private final int śrZnajomych;
+    private final double prawdTowarzyski;
+    private final double prawdSpotkania;
+    private final double prawdZarażenia;
+    private final double prawdWyzdrowienia;
+    private final double śmiertelność;
+    private final long liczbaWpisów;
+    private final int zapisaneDni;
+    /**
+     * Odwzorowane sekcje pliku.
+     */
+    private final ByteBuffer rodzaje;
+    private final ByteBuffer stany;
+    private final ByteBuffer początki;
+    private final ByteBuffer[] sąsiedzi;
+    private final ByteBuffer liczności;
+
+    /**
+     * Otwiera raport binarny.
+     *
+     * @param plik - ścieżka do pliku.
+     * @throws IOException jeśli pliku nie można odczytać lub nie jest raportem binarnym.
+     */
+    public RaportBinarny(String plik) throws IOException {
+        try (FileChannel kanał = FileChannel.open(Paths.get(plik), StandardOpenOption.READ)) {
+            if (kanał.size() < ROZMIAR_NAGŁÓWKA)
+                throw new IOException(plik + " nie jest raportem binarnym");
+            ByteBuffer n = odwzoruj(kanał, 0, ROZMIAR_NAGŁÓWKA);
+            if (n.getLong() != MAGIA || n.getInt() != WERSJA)
+                throw new IOException(plik + " nie jest raportem binarnym w wersji " + WERSJA);
+            liczbaAgentów = n.getInt();
+            seed = n.getLong();
+            liczbaDni = n.getInt();
+            śrZnajomych = n.getInt();
+            prawdTowarzyski = n.getDouble();
+            prawdSpotkania = n.getDouble();
+            prawdZarażenia = n.getDouble();
+            prawdWyzdrowienia = n.getDouble();
+            śmiertelność = n.getDouble();
+            liczbaWpisów = n.getLong();
+            long sekcjaRodzajów = n.getLong();
+            long sekcjaStanów = n.getLong();
+            long sekcjaPoczątków = n.getLong();
+            long sekcjaSąsiadów = n.getLong();
+            long sekcjaLiczności = n.getLong();
+            zapisaneDni = n.getInt();
+            rodzaje = odwzoruj(kanał, sekcjaRodzajów, liczbaAgentów);
+            stany = odwzoruj(kanał, sekcjaStanów, liczbaAgentów);
+            początki = odwzoruj(kanał, sekcjaPoczątków, 8L * (liczbaAgentów + 1));
+            sąsiedzi = new ByteBuffer[(int) ((4 * liczbaWpisów + ROZMIAR_FRAGMENTU - 1) /
+                    ROZMIAR_FRAGMENTU)];
+            for (int f = 0; f < sąsiedzi.length; f++) {
+                long początek = f * ROZMIAR_FRAGMENTU;
+                sąsiedzi[f] = odwzoruj(kanał, sekcjaSąsiadów + początek,
+                        Math.min(ROZMIAR_FRAGMENTU, 4 * liczbaWpisów - początek));
+            }
+            liczności = odwzoruj(kanał, sekcjaLiczności, 12L * zapisaneDni);
+        }
+    }
+
+    /**
+     * Odwzorowuje fragment pliku w pamięci.
+     *
+     * @param kanał   - kanał pliku;
+     * @param początek - położenie fragmentu;
+     * @param rozmiar  - rozmiar fragmentu w bajtach.
+     * @return Bufor z kolejnością bajtów little-endian.
+     */
+    private static ByteBuffer odwzoruj(FileChannel kanał, long początek, long rozmiar)
+            throws IOException {
+        if (początek + rozmiar > kanał.size()) throw new IOException("Niekompletny raport binarny");
+        MappedByteBuffer bufor = kanał.map(FileChannel.MapMode.READ_ONLY, początek, rozmiar);
+        return bufor.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int getLiczbaAgentów() {
+        return liczbaAgentów;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getLiczbaDni() {
+        return liczbaDni;
+    }
+
+    public int getŚrZnajomych() {
+        return śrZnajomych;
+    }
+
+    public double getPrawdTowarzyski() {
+        return prawdTowarzyski;
+    }
+
+    public double getPrawdSpotkania() {
+        return prawdSpotkania;
+    }
+
+    public double getPrawdZarażenia() {
+        return prawdZarażenia;
+    }
+
+    public double getPrawdWyzdrowienia() {
+        return prawdWyzdrowienia;
+    }
+
+    public double getŚmiertelność() {
+        return śmiertelność;
+    }
+
+    public long getLiczbaWpisów() {
+        return liczbaWpisów;
+    }
+
+    /**
+     * Zwraca liczbę dni, dla których zapisano liczności (łącznie z dniem 0).
+     *
+     * @return Liczba dni.
+     */
+    public int getZapisaneDni() {
+        return zapisaneDni;
+    }
+
+    /**
+     * Zwraca numer rodzaju agenta (patrz RodzajAgenta.wczytaj).
+     *
+     * @param a - numer agenta.
+     * @return Numer rodzaju.
+     */
+    public int getRodzaj(int a) {
+        return rodzaje.get(a);
+    }
+
+    /**
+     * Sprawdza, czy agent jest towarzyski, przy domyślnych rodzajach agentów.
+     *
+     * @param a - numer agenta.
+     * @return Wartość true dla agenta rodzaju 0 (towarzyskiego), wpp. false.
+     */
+    public boolean czyTowarzyski(int a) {
+        return getRodzaj(a) == 0;
+    }
+
+    /**
+     * Zwraca stan agenta przed pierwszym dniem symulacji.
+     *
+     * @param a - numer agenta.
+     * @return Stan agenta.
+     */
+    public Stan stan(int a) {
+        return Stan.values()[stany.get(a)];
+    }
+
+    /**
+     * Zwraca indeks pierwszego znajomego agenta w połączonych listach znajomych.
+     *
+     * @param a - numer agenta.
+     * @return Indeks.
+     */
+    public long początek(int a) {
+        return początki.getLong(8 * a);
+    }
+
+    /**
+     * Zwraca indeks za ostatnim znajomym agenta w połączonych listach znajomych.
+     *
+     * @param a - numer agenta.
+     * @return Indeks.
+     */
+    public long koniec(int a) {
+        return początki.getLong(8 * (a + 1));
+    }
+
+    /**
+     * Zwraca numer agenta zapisany pod danym indeksem połączonych list znajomych.
+     *
+     * @param indeks - indeks z zakresu od początek(a) do koniec(a) - 1 dla pewnego agenta a.
+     * @return Numer agenta.
+     */
+    public int sąsiad(long indeks) {
+        long bajt = 4 * indeks;
+        return sąsiedzi[(int) (bajt / ROZMIAR_FRAGMENTU)].getInt((int) (bajt % ROZMIAR_FRAGMENTU));
+    }
+
+    /**
+     * Zwraca liczbę żywych agentów w danym stanie na końcu dnia.
+     *
+     * @param nrDnia - numer dnia (0 oznacza stan przed pierwszym dniem).
+     * @param stan   - stan zdrowia.
+     * @return Liczba agentów.
+     */
+    public int liczność(int nrDnia, Stan stan) {
+        int kolumna = (stan == Stan.ZDROWY) ? 0 : (stan == Stan.CHORY) ? 1 : 2;
+        return liczności.getInt(12 * nrDnia + 4 * kolumna);
+    }
+}
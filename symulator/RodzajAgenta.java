@@ -0,0 +1,131 @@
+package symulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Rodzaj agenta, który może wystąpić w populacji - w silniku obiektowym tworzy agentów bez
+ * użycia refleksji, a w kolumnowym wyznacza ich zachowanie.
+ * Rodzaje są wczytywane przez ServiceLoader z plików META-INF/services/symulator.RodzajAgenta,
+ * w kolejności, w jakiej są tam podane. Kolejność ta wyznacza losowanie rodzaju agenta (patrz
+ * WyborRodzaju) i numery rodzajów w punktach kontrolnych, pamięci populacji i raporcie
+ * binarnym.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public interface RodzajAgenta {
+    /**
+     * Zachowanie agentów rodzaju, które silnik kolumnowy odtwarza bez tworzenia obiektów
+     * agentów (patrz zachowanie).
+     */
+    enum Zachowanie {
+        /**
+         * Spotkania ze znajomymi i ich znajomymi (jak AgentTowarzyski).
+         */
+        TOWARZYSKI,
+        /**
+         * Spotkania ze znajomymi, w chorobie z dwa razy mniejszym prawdopodobieństwem
+         * (jak AgentZwykly).
+         */
+        ZWYKŁY
+    }
+
+    /**
+     * Zwraca prawdopodobieństwo, z jakim w populacji wystąpi agent tego rodzaju.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii.
+     * @return Prawdopodobieństwo.
+     */
+    double prawdopodobieństwo(Konfiguracja parametry);
+
+    /**
+     * Tworzy nowego agenta tego rodzaju.
+     *
+     * @param id        - identyfikator agenta;
+     * @param stan      - stan zdrowia agenta;
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii.
+     * @return Nowy agent.
+     */
+    Agent nowy(int id, Stan stan, Konfiguracja parametry);
+
+    /**
+     * Zwraca zachowanie agentów tego rodzaju. Silnik kolumnowy przeprowadza na jego podstawie
+     * spotkania agentów, a populacja obiektowa ponownie wyznacza znajomych znajomych agentów
+     * rodzaju o zachowaniu TOWARZYSKI, którzy muszą więc być agentami klasy AgentTowarzyski.
+     * Domyślnie null - rodzaj może wystąpić tylko w silniku obiektowym.
+     *
+     * @return Zachowanie albo null.
+     */
+    default Zachowanie zachowanie() {
+        return null;
+    }
+
+    /**
+     * Zwraca nazwę rodzaju używaną w raporcie silnika kolumnowego i w podsumowaniu raportu
+     * (patrz Analizy).
+     * Domyślnie jest to prosta nazwa klasy rodzaju.
+     *
+     * @return Nazwa rodzaju.
+     */
+    default String nazwa() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Zwraca prawdopodobieństwa kolejnych rodzajów.
+     *
+     * @param rodzaje   - rodzaje agentów;
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii.
+     * @return Tablica prawdopodobieństw w kolejności rodzajów.
+     */
+    static double[] prawdopodobieństwa(List<RodzajAgenta> rodzaje, Konfiguracja parametry) {
+        double[] prawdopodobieństwa = new double[rodzaje.size()];
+        for (int k = 0; k < prawdopodobieństwa.length; k++)
+            prawdopodobieństwa[k] = rodzaje.get(k).prawdopodobieństwo(parametry);
+        return prawdopodobieństwa;
+    }
+
+    /**
+     * Zwraca nazwy kolejnych rodzajów.
+     *
+     * @param rodzaje - rodzaje agentów.
+     * @return Tablica nazw w kolejności rodzajów.
+     */
+    static String[] nazwy(List<RodzajAgenta> rodzaje) {
+        String[] nazwy = new String[rodzaje.size()];
+        for (int k = 0; k < nazwy.length; k++) nazwy[k] = rodzaje.get(k).nazwa();
+        return nazwy;
+    }
+
+    /**
+     * Sprawdza, które rodzaje mają zachowanie TOWARZYSKI.
+     *
+     * @param rodzaje - rodzaje agentów.
+     * @return Tablica indeksowana numerem rodzaju.
+     */
+    static boolean[] towarzyskie(List<RodzajAgenta> rodzaje) {
+        boolean[] towarzyskie = new boolean[rodzaje.size()];
+        for (int k = 0; k < towarzyskie.length; k++)
+            towarzyskie[k] = rodzaje.get(k).zachowanie() == Zachowanie.TOWARZYSKI;
+        return towarzyskie;
+    }
+
+    /**
+     * Wczytuje rodzaje agentów dostępne na ścieżce klas. Jeśli nie ma tam pliku z rodzajami
+     * (np. przy uruchamianiu z katalogu bez META-INF), zwraca rodzaje wbudowane: towarzyski
+     * i zwykły.
+     *
+     * @return Niemodyfikowalna lista rodzajów agentów.
+     */
+    static List<RodzajAgenta> wczytaj() {
+        List<RodzajAgenta> rodzaje = new ArrayList<>();
+        for (RodzajAgenta rodzaj : ServiceLoader.load(RodzajAgenta.class)) rodzaje.add(rodzaj);
+        if (rodzaje.isEmpty())
+            rodzaje = Arrays.asList(new AgentTowarzyski.Rodzaj(), new AgentZwykly.Rodzaj());
+        return Collections.unmodifiableList(rodzaje);
+    }
+}
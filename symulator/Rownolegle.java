@@ -0,0 +1,79 @@
+package symulator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Klasa pomocnicza do wykonywania niezależnych zadań na puli wątków.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class Rownolegle {
+
+    private Rownolegle() {
+    }
+
+    /**
+     * Tworzy pulę wątków o danej liczbie wątków.
+     *
+     * @param wątki - liczba wątków.
+     * @return Nowa pula wątków lub null, jeśli wystarczy bieżący wątek.
+     */
+    static ForkJoinPool nowaPula(int wątki) {
+        return (wątki > 1) ? new ForkJoinPool(wątki) : null;
+    }
+
+    /**
+     * Zamyka pulę wątków utworzoną przez nowaPula.
+     *
+     * @param pula - pula wątków lub null.
+     */
+    static void zamknij(ForkJoinPool pula) {
+        if (pula != null) pula.shutdown();
+    }
+
+    /**
+     * Wykonuje zadanie dla każdego numeru z zakresu [0, liczbaZadań) i czeka na zakończenie
+     * wszystkich wykonań. Zadania dla różnych numerów muszą być od siebie niezależne.
+     *
+     * @param pula        - pula wątków lub null, jeśli zadania mają być wykonane w bieżącym
+     *                    wątku;
+     * @param liczbaZadań - liczba zadań;
+     * @param zadanie     - zadanie otrzymujące swój numer.
+     */
+    static void dlaKażdego(ForkJoinPool pula, int liczbaZadań, IntConsumer zadanie) {
+        if (pula == null || liczbaZadań <= 1) {
+            for (int i = 0; i < liczbaZadań; i++) zadanie.accept(i);
+        } else {
+            pula.invoke(new Zakres(0, liczbaZadań, zadanie));
+        }
+    }
+
+    /**
+     * Zadanie dzielące zakres numerów na połowy aż do pojedynczych numerów.
+     */
+    private static class Zakres extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int od;
+        private final int doNumeru;
+        private final transient IntConsumer zadanie;
+
+        Zakres(int od, int doNumeru, IntConsumer zadanie) {
+            this.od = od;
+            this.doNumeru = doNumeru;
+            this.zadanie = zadanie;
+        }
+
+        @Override
+        protected void compute() {
+            if (doNumeru - od == 1) {
+                zadanie.accept(od);
+            } else {
+                int środek = (od + doNumeru) >>> 1;
+                invokeAll(new Zakres(od, środek, zadanie), new Zakres(środek, doNumeru, zadanie));
+            }
+        }
+    }
+}
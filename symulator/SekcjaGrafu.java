@@ -0,0 +1,72 @@
+package symulator;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Klasa zapisująca sekcję raportu z początkową siecią społecznościową - listą agentów i grafem
+ * (patrz Populacja.toString i PopulacjaKolumnowa.toString).
+ * Dla dużych populacji sekcja jest większa niż cała reszta raportu i często nie jest potrzebna,
+ * więc zgodnie z parametrami opcjonalnymi sekcjaGrafu i plikGrafu może zostać pominięta albo
+ * zapisana do osobnego pliku, skompresowanego gzipem, jeśli jego nazwa kończy się na .gz.
+ * Sekcja jest dopisywana agent po agencie w kolejności numerów, bez tworzenia napisu z całym
+ * grafem.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class SekcjaGrafu {
+    /**
+     * Rozmiar buforów zapisu do pliku grafu w bajtach.
+     */
+    private static final int ROZMIAR_BUFORA = 1 << 16;
+
+    /**
+     * Dopisywanie sekcji do podanego wyjścia.
+     */
+    @FunctionalInterface
+    interface Druk {
+        void drukuj(Appendable wyjście) throws IOException;
+    }
+
+    private SekcjaGrafu() {
+    }
+
+    /**
+     * Zapisuje sekcję z siecią społecznościową do raportu albo do pliku grafu, jeśli nie jest
+     * pominięta.
+     *
+     * @param parametry - parametry symulacji;
+     * @param raport    - obiekt, do którego dopisywany jest raport;
+     * @param sekcja    - dopisywanie sekcji.
+     */
+    static void zapisz(Konfiguracja parametry, Appendable raport, Druk sekcja)
+            throws IOException {
+        if (parametry.czyPominiętaSekcjaGrafu()) return;
+        String plik = parametry.getPlikGrafu();
+        if (plik == null) {
+            sekcja.drukuj(raport);
+            return;
+        }
+        OutputStream strumień = new BufferedOutputStream(Files.newOutputStream(Paths.get(plik)),
+                ROZMIAR_BUFORA);
+        try {
+            if (plik.endsWith(".gz")) strumień = new GZIPOutputStream(strumień, ROZMIAR_BUFORA);
+        } catch (IOException e) {
+            strumień.close();
+            throw e;
+        }
+        try (Writer wyjście = new BufferedWriter(new OutputStreamWriter(strumień,
+                StandardCharsets.UTF_8), ROZMIAR_BUFORA)) {
+            sekcja.drukuj(wyjście);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package symulator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Serwer zadań symulacji, który przeprowadza kolejne symulacje w jednej, rozgrzanej maszynie
+ * wirtualnej zamiast uruchamiać program osobno dla każdej pary plików z parametrami.
+ * Zadaniem jest podkatalog katalogu nowe w katalogu kolejki, zawierający pliki
+ * default.properties i simulation-conf.xml. Katalog zadania powinien być przygotowany
+ * w innym miejscu tego samego systemu plików i przeniesiony do katalogu nowe w całości.
+ * Serwer przejmuje zadanie, przenosząc je do katalogu wtoku, a po symulacji przenosi je
+ * do katalogu gotowe albo - razem z plikiem blad.txt - do katalogu bledne. Ścieżki
+ * z parametrów rozwiązywane są względem katalogu zadania, więc raporty pojawiają się
+ * w katalogu gotowe w całości, razem z zadaniem. Raport jest przy tym pisany do pliku
+ * tymczasowego i przenoszony pod swoją nazwę dopiero po udanej symulacji (patrz
+ * Uruchomienie), więc zadanie odrzucone nie zostawia niepełnego raportu. Zadania przerwane
+ * zatrzymaniem serwera są przy jego kolejnym uruchomieniu zwracane do katalogu nowe.
+ * Przejmowanie, czytanie parametrów, oczekiwanie na pamięć i przenoszenie zadań odbywa się na
+ * nieograniczonej puli lekkich wątków wejścia-wyjścia (większość czasu czekają), a symulacje na
+ * ograniczonej puli wątków obliczeń. Zadanie zaczyna się dopiero wtedy, gdy mieści się
+ * w budżecie pamięci (patrz szacunekPamięci) i w budżecie wątków (parametr wątki zadania)
+ * razem z trwającymi zadaniami.
+ * Serwer kończy pracę, gdy w katalogu kolejki pojawi się plik stop - dokańcza wtedy
+ * przejęte zadania i usuwa plik.
+ * Argumenty: katalog kolejki, budżet pamięci w MiB (domyślnie 3/4 największej sterty)
+ * i budżet wątków obliczeń (domyślnie liczba procesorów).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public final class SerwerZadan {
+    private static final String NOWE = "nowe";
+    private static final String W_TOKU = "wtoku";
+    private static final String GOTOWE = "gotowe";
+    private static final String BŁĘDNE = "bledne";
+    private static final String STOP = "stop";
+    private static final String PLIK_BŁĘDU = "blad.txt";
+    private static final int MIB = 1 << 20;
+    /**
+     * Odstęp między przeglądami katalogu nowe [ms], jeśli obserwator katalogu nie zgłosi
+     * zmian wcześniej.
+     */
+    private static final long ODSTĘP = 1000;
+    /**
+     * Pamięć zadania niezależna od wielkości populacji w bajtach.
+     */
+    private static final long PAMIĘĆ_ZADANIA = 16L * MIB;
+    /**
+     * Rozmiar stosu wątku wejścia-wyjścia w bajtach - wątki te tylko przenoszą pliki i czekają,
+     * więc wystarcza im mały stos nawet przy tysiącach zadań w kolejce.
+     */
+    private static final long ROZMIAR_STOSU_ZADANIA = 256 * 1024;
+
+    private final Path katalog;
+    private final Path nowe;
+    private final Path wToku;
+    private final Path gotowe;
+    private final Path błędne;
+    private final List<RodzajAgenta> rodzaje;
+    /**
+     * Budżet pamięci w MiB i semafor z jego wolną częścią.
+     */
+    private final int budżet;
+    private final Semaphore pamięć;
+    /**
+     * Budżet wątków obliczeń i semafor z jego wolną częścią.
+     */
+    private final int wątki;
+    private final Semaphore wolneWątki;
+    /**
+     * Wątki przejmujące, czytające i przenoszące zadania (po jednym na przejęte zadanie).
+     */
+    private final ExecutorService wejścieWyjście;
+    /**
+     * Pula wątków przeprowadzających symulacje.
+     */
+    private final ExecutorService obliczenia;
+
+    /**
+     * Tworzy nowy obiekt klasy SerwerZadan.
+     *
+     * @param katalog - katalog kolejki;
+     * @param budżet  - budżet pamięci w MiB;
+     * @param wątki   - budżet wątków obliczeń.
+     */
+    private SerwerZadan(Path katalog, int budżet, int wątki) {
+        this.katalog = katalog;
+        nowe = katalog.resolve(NOWE);
+        wToku = katalog.resolve(W_TOKU);
+        gotowe = katalog.resolve(GOTOWE);
+        błędne = katalog.resolve(BŁĘDNE);
+        rodzaje = RodzajAgenta.wczytaj();
+        this.budżet = budżet;
+        pamięć = new Semaphore(budżet, true);
+        this.wątki = wątki;
+        wolneWątki = new Semaphore(wątki, true);
+        wejścieWyjście = Executors.newCachedThreadPool(zadanie -> {
+            Thread wątek = new Thread(null, zadanie, "zadanie", ROZMIAR_STOSU_ZADANIA);
+            wątek.setDaemon(true);
+            return wątek;
+        });
+        obliczenia = Executors.newFixedThreadPool(wątki, zadanie -> {
+            Thread wątek = new Thread(zadanie, "symulacja");
+            wątek.setDaemon(true);
+            return wątek;
+        });
+    }
+
+    /**
+     * Uruchamia serwer zadań.
+     *
+     * @param args - katalog kolejki, budżet pamięci w MiB i budżet wątków obliczeń.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int budżet = (int) (Runtime.getRuntime().maxMemory() / 4 * 3 / MIB);
+        int wątki = Runtime.getRuntime().availableProcessors();
+        try {
+            if (args.length < 1 || args.length > 3) throw new IllegalArgumentException();
+            if (args.length > 1) budżet = Integer.parseInt(args[1]);
+            if (args.length > 2) wątki = Integer.parseInt(args[2]);
+            if (budżet < 1 || wątki < 1) throw new IllegalArgumentException();
+        } catch (IllegalArgumentException e) {
+            System.out.println("Użycie: SerwerZadan katalog [budżet pamięci w MiB] [wątki]");
+            System.exit(1);
+        }
+        new SerwerZadan(Paths.get(args[0]), budżet, wątki).działaj();
+    }
+
+    /**
+     * Szacuje pamięć potrzebną do przeprowadzenia symulacji.
+     * Populacja zajmuje na agenta około 160 bajtów oraz 8 bajtów na znajomego i 2 bajty na
+     * kwadrat średniej liczby znajomych (zapamiętani znajomi znajomych) - z zapasem dla obu
+     * silników. Zespół replikacji i przegląd parametrów przechowują tyle populacji naraz, ile
+     * symuluje się ich równolegle.
+     *
+     * @param k - parametry symulacji.
+     * @return Liczba bajtów.
+     */
+    static long szacunekPamięci(Konfiguracja k) {
+        long znajomi = k.getŚrZnajomych();
+        long naAgenta = 160 + 8 * znajomi + 2 * znajomi * znajomi;
+        int populacje = 1;
+        if (k.getWarianty() != null) {
+            populacje += Math.min(k.getWątki(), k.getWarianty().size());
+        } else if (k.czyZespół()) {
+            populacje = Math.min(k.getWątki(), (k.getSzerokośćPrzedziału() > 0) ?
+                    k.getMaksReplikacji() : k.getReplikacje());
+        }
+        return PAMIĘĆ_ZADANIA + populacje * naAgenta * k.getLiczbaAgentów();
+    }
+
+    /**
+     * Przyjmuje zadania z katalogu kolejki, dopóki nie pojawi się w nim plik stop, po czym
+     * czeka na zakończenie przejętych zadań.
+     */
+    private void działaj() throws IOException, InterruptedException {
+        for (Path podkatalog : new Path[]{nowe, wToku, gotowe, błędne})
+            Files.createDirectories(podkatalog);
+        try (DirectoryStream<Path> przerwane = Files.newDirectoryStream(wToku)) {
+            for (Path zadanie : przerwane)
+                Files.move(zadanie, nowe.resolve(zadanie.getFileName()),
+                        StandardCopyOption.ATOMIC_MOVE);
+        }
+        try (WatchService obserwator = FileSystems.getDefault().newWatchService()) {
+            nowe.register(obserwator, StandardWatchEventKinds.ENTRY_CREATE);
+            while (!Files.exists(katalog.resolve(STOP))) {
+                przejmij();
+                WatchKey klucz = obserwator.poll(ODSTĘP, TimeUnit.MILLISECONDS);
+                if (klucz != null) {
+                    klucz.pollEvents();
+                    klucz.reset();
+                }
+            }
+        } finally {
+            wejścieWyjście.shutdown();
+            wejścieWyjście.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            obliczenia.shutdown();
+            Files.deleteIfExists(katalog.resolve(STOP));
+        }
+    }
+
+    /**
+     * Przejmuje wszystkie zadania z katalogu nowe. Zadanie, którego nie udało się przenieść
+     * (bo przejął je np. inny serwer), jest pomijane.
+     */
+    private void przejmij() throws IOException {
+        try (DirectoryStream<Path> zadania = Files.newDirectoryStream(nowe, Files::isDirectory)) {
+            for (Path zadanie : zadania) {
+                Path przejęte = wToku.resolve(zadanie.getFileName());
+                try {
+                    Files.move(zadanie, przejęte, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    continue;
+                }
+                wejścieWyjście.execute(() -> wykonaj(przejęte));
+            }
+        }
+    }
+
+    /**
+     * Wykonuje przejęte zadanie: czyta parametry, czeka na miejsce w budżecie pamięci,
+     * a potem w budżecie wątków, przeprowadza symulację na puli obliczeń i przenosi zadanie
+     * do katalogu gotowe albo bledne. Zadanie większe niż cały budżet czeka na cały budżet.
+     * Każde zadanie zajmuje budżety w tej samej kolejności, więc czekające zadania nie
+     * blokują się nawzajem.
+     *
+     * @param zadanie - katalog zadania w katalogu wtoku.
+     */
+    private void wykonaj(Path zadanie) {
+        Path nazwa = zadanie.getFileName();
+        try {
+            Konfiguracja k = new Konfiguracja(new String[]{
+                    zadanie.resolve("default.properties").toString(),
+                    zadanie.resolve("simulation-conf.xml").toString()}, zadanie);
+            k.czytajParametry();
+            int potrzebna = (int) Math.min(budżet, (szacunekPamięci(k) + MIB - 1) / MIB);
+            int potrzebneWątki = Math.min(wątki, k.getWątki());
+            pamięć.acquire(potrzebna);
+            try {
+                wolneWątki.acquire(potrzebneWątki);
+                try {
+                    obliczenia.submit(() -> {
+                        Uruchomienie.symulacja(k, rodzaje);
+                        return null;
+                    }).get();
+                } finally {
+                    wolneWątki.release(potrzebneWątki);
+                }
+            } finally {
+                pamięć.release(potrzebna);
+            }
+            Files.move(zadanie, gotowe.resolve(nazwa), StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            odrzuć(zadanie, (e instanceof ExecutionException) ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * Zapisuje przyczynę błędu zadania w pliku blad.txt (komunikat błędu danych albo, jeśli
+     * go nie ma, ślad stosu) i przenosi zadanie do katalogu bledne. Jeśli się to nie uda,
+     * wypisuje komunikat na wyjście standardowe.
+     *
+     * @param zadanie   - katalog zadania w katalogu wtoku;
+     * @param przyczyna - błąd zadania.
+     */
+    private void odrzuć(Path zadanie, Throwable przyczyna) {
+        try {
+            try (Writer wyjście = Files.newBufferedWriter(zadanie.resolve(PLIK_BŁĘDU),
+                    StandardCharsets.UTF_8)) {
+                if (przyczyna instanceof IllegalArgumentException &&
+                        przyczyna.getMessage() != null) {
+                    wyjście.write(przyczyna.getMessage());
+                    wyjście.write(System.lineSeparator());
+                } else {
+                    PrintWriter ślad = new PrintWriter(wyjście);
+                    przyczyna.printStackTrace(ślad);
+                    ślad.flush();
+                }
+            }
+            Files.move(zadanie, błędne.resolve(zadanie.getFileName()),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Nie udało się odrzucić zadania " + zadanie + ": " + przyczyna);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package symulator;
+
+/**
+ * Klasa reprezentująca dostępne silniki symulacji.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public enum Silnik {
+    /**
+     * Populacja przechowywana jako obiekty klasy Agent (klasa Populacja).
+     */
+    OBIEKTOWY("obiektowy"),
+    /**
+     * Populacja przechowywana w tablicach typów prostych (klasa PopulacjaKolumnowa).
+     */
+    KOLUMNOWY("kolumnowy");
+
+    /**
+     * Nazwa silnika używana w plikach z parametrami.
+     */
+    private final String nazwa;
+
+    Silnik(String nazwa) {
+        this.nazwa = nazwa;
+    }
+
+    /**
+     * Zwraca silnik o podanej nazwie.
+     *
+     * @param nazwa - nazwa silnika z pliku z parametrami.
+     * @return Silnik o danej nazwie lub null, jeśli taki nie istnieje.
+     */
+    public static Silnik zNazwy(String nazwa) {
+        for (Silnik s : values()) {
+            if (s.nazwa.equals(nazwa)) return s;
+        }
+        return null;
+    }
+}
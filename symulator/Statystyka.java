@@ -0,0 +1,92 @@
+package symulator;
+
+/**
+ * Klasa zbierająca statystyki ciągu liczb bez jego zapamiętywania - średnią i wariancję
+ * (algorytm Welforda) oraz wybrane kwantyle (klasa Kwantyl).
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class Statystyka {
+    /**
+     * Kwantyl rozkładu normalnego używany do wyznaczania 95-procentowych przedziałów ufności.
+     */
+    private static final double Z_95 = 1.959963984540054;
+
+    /**
+     * Liczba obserwacji.
+     */
+    private long liczba;
+    /**
+     * Średnia obserwacji.
+     */
+    private double średnia;
+    /**
+     * Suma kwadratów odchyleń od średniej.
+     */
+    private double sumaKwadratów;
+    /**
+     * Szacowane kwantyle.
+     */
+    private final Kwantyl[] kwantyle;
+
+    /**
+     * Tworzy nowy obiekt klasy Statystyka.
+     *
+     * @param rzędy - rzędy szacowanych kwantyli.
+     */
+    Statystyka(double[] rzędy) {
+        kwantyle = new Kwantyl[rzędy.length];
+        for (int i = 0; i < rzędy.length; i++) kwantyle[i] = new Kwantyl(rzędy[i]);
+    }
+
+    /**
+     * Dodaje obserwację.
+     *
+     * @param x - wartość obserwacji.
+     */
+    void dodaj(double x) {
+        liczba++;
+        double odchylenie = x - średnia;
+        średnia += odchylenie / liczba;
+        sumaKwadratów += odchylenie * (x - średnia);
+        for (Kwantyl kwantyl : kwantyle) kwantyl.dodaj(x);
+    }
+
+    long liczba() {
+        return liczba;
+    }
+
+    double średnia() {
+        return średnia;
+    }
+
+    /**
+     * Zwraca wariancję z próby.
+     *
+     * @return Wariancja (0 dla mniej niż dwóch obserwacji).
+     */
+    double wariancja() {
+        return (liczba < 2) ? 0 : sumaKwadratów / (liczba - 1);
+    }
+
+    /**
+     * Zwraca szerokość 95-procentowego przedziału ufności średniej.
+     *
+     * @return Szerokość przedziału (nieskończoność dla mniej niż dwóch obserwacji).
+     */
+    double szerokośćPrzedziału() {
+        if (liczba < 2) return Double.POSITIVE_INFINITY;
+        return 2 * Z_95 * Math.sqrt(wariancja() / liczba);
+    }
+
+    /**
+     * Zwraca oszacowanie kwantyla.
+     *
+     * @param i - numer kwantyla w tablicy rzędów podanej w konstruktorze.
+     * @return Kwantyl.
+     */
+    double kwantyl(int i) {
+        return kwantyle[i].wartość();
+    }
+}
@@ -0,0 +1,82 @@
+package symulator;
+
+import java.util.Random;
+
+/**
+ * Klasa reprezentująca licznikowy strumień liczb losowych.
+ * Kolejne liczby strumienia wyznaczane są bezpośrednio z klucza strumienia i numeru liczby
+ * (funkcja mieszająca generatora SplitMix64), a klucz wyliczany jest z seeda oraz trójki
+ * (agent, dzień, faza). Strumień danego agenta w danym dniu i fazie zależy więc tylko od
+ * seeda, a nie od tego, który wątek i w jakiej kolejności go odczytuje.
+ * Rozszerza klasę Random, więc może zastąpić maszynę losującą w kodzie symulacji.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class StrumienLosowy extends Random {
+    private static final long serialVersionUID = 1L;
+    /**
+     * Stała złotego podziału używana przez generator SplitMix64.
+     */
+    private static final long ZŁOTA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Seed, z którego wyliczane są klucze strumieni.
+     */
+    private final long seedStrumieni;
+    /**
+     * Klucz bieżącego strumienia.
+     */
+    private long klucz;
+    /**
+     * Numer ostatnio wyznaczonej liczby bieżącego strumienia.
+     */
+    private long licznik;
+
+    /**
+     * Tworzy nowy obiekt klasy StrumienLosowy.
+     *
+     * @param seed - seed, z którego wyliczane są klucze strumieni.
+     */
+    StrumienLosowy(long seed) {
+        super(0);
+        seedStrumieni = seed;
+    }
+
+    /**
+     * Ustawia strumień dla danego agenta, dnia i fazy, od jego pierwszej liczby.
+     *
+     * @param agent - numer agenta;
+     * @param dzień - numer dnia;
+     * @param faza  - numer fazy dnia.
+     */
+    void ustaw(int agent, int dzień, int faza) {
+        klucz = ZbiorLongow.mieszaj(ZbiorLongow.mieszaj(seedStrumieni + agent * ZŁOTA) +
+                (((long) dzień << 8) | faza));
+        licznik = 0;
+    }
+
+    /**
+     * Wyznacza kolejną 64-bitową liczbę strumienia.
+     *
+     * @return Liczba losowa.
+     */
+    private long kolejna() {
+        return ZbiorLongow.mieszaj(klucz + (++licznik) * ZŁOTA);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (kolejna() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return kolejna();
+    }
+
+    @Override
+    public double nextDouble() {
+        return (kolejna() >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,141 @@
+package symulator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Klasa reprezentująca rozszerzalną tablicę liczb całkowitych.
+ * Zastępuje obiekty klasy ArrayList&lt;Integer&gt; tam, gdzie opakowywanie liczb w obiekty
+ * byłoby zbyt kosztowne. Tablice przechowywane poza stertą (patrz PamiecPozaSterta) są
+ * podklasą nadpisującą wszystkie operacje na elementach.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class TablicaIntow {
+    /**
+     * Elementy tablicy. Znaczenie ma tylko pierwsze rozmiar elementów.
+     */
+    private int[] elementy;
+    /**
+     * Liczba elementów w tablicy.
+     */
+    private int rozmiar;
+
+    /**
+     * Tworzy nową, pustą tablicę.
+     *
+     * @param pojemność - początkowa liczba elementów, które można dodać bez powiększania tablicy.
+     */
+    TablicaIntow(int pojemność) {
+        elementy = new int[Math.max(pojemność, 2)];
+    }
+
+    /**
+     * Tworzy kopię tablicy.
+     *
+     * @param wzór - kopiowana tablica.
+     */
+    TablicaIntow(TablicaIntow wzór) {
+        elementy = Arrays.copyOf(wzór.elementy, Math.max(wzór.rozmiar, 2));
+        rozmiar = wzór.rozmiar;
+    }
+
+    /**
+     * Dodaje element na końcu tablicy.
+     *
+     * @param element - element do dodania.
+     */
+    void dodaj(int element) {
+        if (rozmiar == elementy.length) elementy = Arrays.copyOf(elementy, 2 * rozmiar);
+        elementy[rozmiar++] = element;
+    }
+
+    /**
+     * Zwraca element o danym indeksie.
+     *
+     * @param indeks - indeks elementu.
+     * @return Element tablicy.
+     */
+    int get(int indeks) {
+        return elementy[indeks];
+    }
+
+    /**
+     * Zmienia element o danym indeksie.
+     *
+     * @param indeks  - indeks elementu (mniejszy od rozmiaru tablicy);
+     * @param element - nowa wartość elementu.
+     */
+    void set(int indeks, int element) {
+        elementy[indeks] = element;
+    }
+
+    /**
+     * Zwraca liczbę elementów w tablicy.
+     *
+     * @return Liczba elementów.
+     */
+    int rozmiar() {
+        return rozmiar;
+    }
+
+    /**
+     * Usuwa wszystkie elementy, zachowując zaalokowaną pamięć.
+     */
+    void wyczyść() {
+        rozmiar = 0;
+    }
+
+    /**
+     * Zmienia rozmiar tablicy, w razie potrzeby powiększając zaalokowaną pamięć. Elementy
+     * dołączone w ten sposób mają nieokreślone wartości.
+     *
+     * @param rozmiar - nowy rozmiar tablicy.
+     */
+    void zmieńRozmiar(int rozmiar) {
+        if (rozmiar > elementy.length)
+            elementy = Arrays.copyOf(elementy, Math.max(rozmiar, 2 * elementy.length));
+        this.rozmiar = rozmiar;
+    }
+
+    /**
+     * Ustawia wszystkie elementy tablicy na daną wartość.
+     *
+     * @param element - wartość elementów.
+     */
+    void wypełnij(int element) {
+        Arrays.fill(elementy, 0, rozmiar, element);
+    }
+
+    /**
+     * Tworzy kopię tablicy przechowywaną w tej samej pamięci co ta tablica.
+     *
+     * @return Nowa tablica.
+     */
+    TablicaIntow kopia() {
+        return new TablicaIntow(this);
+    }
+
+    /**
+     * Zapisuje rozmiar i elementy tablicy.
+     *
+     * @param wyjście - strumień danych.
+     */
+    void zapisz(DataOutput wyjście) throws IOException {
+        wyjście.writeInt(rozmiar);
+        for (int i = 0; i < rozmiar; i++) wyjście.writeInt(elementy[i]);
+    }
+
+    /**
+     * Zastępuje zawartość tablicy elementami zapisanymi przez zapisz.
+     *
+     * @param wejście - strumień danych.
+     */
+    void wczytaj(DataInput wejście) throws IOException {
+        wyczyść();
+        for (int i = wejście.readInt(); i > 0; i--) dodaj(wejście.readInt());
+    }
+}
@@ -0,0 +1,53 @@
+package symulator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Klasa przeprowadzająca jedną symulację według wczytanych parametrów i zapisująca jej raport.
+ * Z klasy korzystają zarówno zwykłe uruchomienie programu (Symulacja.main), jak i zadania
+ * serwera (SerwerZadan), więc raport nie zależy od sposobu uruchomienia.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public final class Uruchomienie {
+
+    private Uruchomienie() {
+    }
+
+    /**
+     * Przeprowadza symulację według parametrów i zapisuje raport.
+     * Raport zastępuje plik z raportem dopiero po udanej symulacji (PisarzRaportu.atomowy),
+     * chyba że symulacja ma punkt kontrolny - wtedy raport pisany jest od razu do swojego
+     * pliku, żeby wznowienie mogło go dopisać.
+     *
+     * @param k       - parametry symulacji;
+     * @param rodzaje - rodzaje agentów.
+     */
+    public static void symulacja(Konfiguracja k, List<RodzajAgenta> rodzaje)
+            throws IOException, InterruptedException, ExecutionException {
+        PunktKontrolny punkt = PunktKontrolny.dla(k);
+        try (PisarzRaportu wynikSymulacji = (punkt == null) ?
+                PisarzRaportu.atomowy(k.getPlikZRaportem()) : punkt.otwórzRaport()) {
+            if (punkt == null || !punkt.czyWznowienie()) {
+                wynikSymulacji.append(k.toString());
+                wynikSymulacji.append(System.lineSeparator());
+            }
+
+            if (k.getWarianty() != null) {
+                wynikSymulacji.append(new Przeglad(k, rodzaje).symulacja());
+            } else if (k.czyZespół()) {
+                wynikSymulacji.append(new Zespol(k, rodzaje).symulacja());
+            } else if (k.getSilnik() == Silnik.KOLUMNOWY) {
+                new PopulacjaKolumnowa(k, rodzaje).symulacja(wynikSymulacji, punkt);
+            } else {
+                Populacja p = new Populacja(k);
+                p.symulacja(rodzaje, wynikSymulacji, punkt);
+            }
+            wynikSymulacji.zatwierdź();
+        }
+        if (punkt != null) punkt.usuń();
+    }
+}
@@ -0,0 +1,141 @@
+package symulator;
+
+import java.util.List;
+
+/**
+ * Wybór rodzaju agenta na podstawie jednej liczby losowej z przedziału [0, 1), w czasie
+ * stałym (średnio) niezależnie od liczby rodzajów.
+ * W trybie zgodnym wybierany jest pierwszy rodzaj, dla którego suma prawdopodobieństw rodzajów
+ * do niego włącznie jest nie mniejsza od liczby losowej (albo ostatni rodzaj, jeśli takiego
+ * nie ma) - tak jak przy przeglądaniu kolejnych sum, więc populacja jest taka sama jak
+ * dotychczas. Przeglądanie zaczyna się od rodzaju wskazanego przez tablicę przewodnią
+ * (indeksowaną przedziałem, do którego należy liczba losowa).
+ * W trybie alias (parametr opcjonalny wybórRodzaju) używana jest tablica aliasów Walkera
+ * o tym samym rozkładzie rodzajów - wybór zawsze wymaga jednego porównania, ale dla danej
+ * liczby losowej może dać inny rodzaj niż tryb zgodny.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+final class WyborRodzaju {
+    /**
+     * Sumy prawdopodobieństw kolejnych rodzajów (tryb zgodny).
+     */
+    private final double[] sumy;
+    /**
+     * Tablica przewodnia - rodzaj, od którego zaczyna się przeglądanie sum dla liczb losowych
+     * z kolejnych przedziałów długości 1 / sumy.length (tryb zgodny).
+     */
+    private final int[] początki;
+    /**
+     * Progi i aliasy kolejnych kolumn tablicy aliasów (tryb alias, wpp. null).
+     */
+    private final double[] progi;
+    private final int[] aliasy;
+
+    /**
+     * Tworzy wybór rodzaju.
+     *
+     * @param prawdopodobieństwa - prawdopodobieństwa kolejnych rodzajów (co najmniej jednego);
+     * @param alias              - czy używać tablicy aliasów.
+     */
+    WyborRodzaju(double[] prawdopodobieństwa, boolean alias) {
+        int n = prawdopodobieństwa.length;
+        sumy = new double[n];
+        double suma = 0;
+        for (int k = 0; k < n; k++) {
+            suma += prawdopodobieństwa[k];
+            sumy[k] = suma;
+        }
+        początki = new int[n];
+        int k = 0;
+        for (int j = 1; j < n; j++) {
+            // Próg przedziału poprzedniego, żeby błędy zaokrągleń przy wyznaczaniu przedziału
+            // liczby losowej nie pominęły właściwego rodzaju.
+            double próg = (j - 1.0) / n;
+            while (k < n - 1 && sumy[k] < próg) k++;
+            początki[j] = k;
+        }
+        if (alias) {
+            progi = new double[n];
+            aliasy = new int[n];
+            tablicaAliasów();
+        } else {
+            progi = null;
+            aliasy = null;
+        }
+    }
+
+    /**
+     * Tworzy wybór rodzaju dla prawdopodobieństw rodzajów agentów.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii;
+     * @param rodzaje   - rodzaje agentów.
+     * @return Nowy obiekt.
+     */
+    static WyborRodzaju dla(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        return new WyborRodzaju(RodzajAgenta.prawdopodobieństwa(rodzaje, parametry),
+                parametry.czyAliasRodzajów());
+    }
+
+    /**
+     * Wyznacza tablicę aliasów metodą Vose'a. Prawdopodobieństwa rodzajów są takie jak w trybie
+     * zgodnym: różnice kolejnych sum, a dla ostatniego rodzaju dopełnienie do 1.
+     */
+    private void tablicaAliasów() {
+        int n = sumy.length;
+        double[] wagi = new double[n];
+        double razem = 0;
+        for (int k = 0; k < n; k++) {
+            double poprzednia = (k == 0) ? 0 : sumy[k - 1];
+            double obecna = (k == n - 1) ? 1 : sumy[k];
+            wagi[k] = Math.max(0, obecna - poprzednia);
+            razem += wagi[k];
+        }
+        int[] mniejsze = new int[n];
+        int[] większe = new int[n];
+        int ileMniejszych = 0, ileWiększych = 0;
+        for (int k = 0; k < n; k++) {
+            wagi[k] = (razem > 0) ? wagi[k] * n / razem : 1;
+            if (wagi[k] < 1) mniejsze[ileMniejszych++] = k;
+            else większe[ileWiększych++] = k;
+        }
+        while (ileMniejszych > 0 && ileWiększych > 0) {
+            int m = mniejsze[--ileMniejszych];
+            int w = większe[--ileWiększych];
+            progi[m] = wagi[m];
+            aliasy[m] = w;
+            wagi[w] = (wagi[w] + wagi[m]) - 1;
+            if (wagi[w] < 1) mniejsze[ileMniejszych++] = w;
+            else większe[ileWiększych++] = w;
+        }
+        while (ileWiększych > 0) {
+            int w = większe[--ileWiększych];
+            progi[w] = 1;
+            aliasy[w] = w;
+        }
+        while (ileMniejszych > 0) {
+            int m = mniejsze[--ileMniejszych];
+            progi[m] = 1;
+            aliasy[m] = m;
+        }
+    }
+
+    /**
+     * Wybiera rodzaj agenta.
+     *
+     * @param losowyDouble - liczba losowa z przedziału [0, 1).
+     * @return Numer rodzaju.
+     */
+    int wybierz(double losowyDouble) {
+        int n = sumy.length;
+        if (progi != null) {
+            double x = losowyDouble * n;
+            int kolumna = Math.min((int) x, n - 1);
+            return (x - kolumna < progi[kolumna]) ? kolumna : aliasy[kolumna];
+        }
+        int k = początki[Math.min((int) (losowyDouble * n), n - 1)];
+        while (k < n - 1 && losowyDouble > sumy[k]) k++;
+        return k;
+    }
+}
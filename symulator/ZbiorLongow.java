@@ -0,0 +1,111 @@
+package symulator;
+
+import java.util.Arrays;
+
+/**
+ * Klasa reprezentująca zbiór liczb typu long.
+ * Zbiór z adresowaniem otwartym, bez opakowywania liczb w obiekty. Zbiory przechowywane poza
+ * stertą (patrz PamiecPozaSterta) są podklasą nadpisującą wszystkie operacje.
+ * Nie można w nim przechowywać wartości Long.MIN_VALUE.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+class ZbiorLongow {
+    /**
+     * Wartość oznaczająca puste pole tablicy (także w zbiorach poza stertą, patrz
+     * PamiecPozaSterta).
+     */
+    static final long PUSTE = Long.MIN_VALUE;
+    /**
+     * Tablica z elementami zbioru. Jej rozmiar jest potęgą dwójki.
+     */
+    private long[] tablica;
+    /**
+     * Liczba elementów w zbiorze.
+     */
+    private int rozmiar;
+
+    /**
+     * Tworzy nowy, pusty zbiór.
+     *
+     * @param oczekiwanyRozmiar - liczba elementów, które można dodać bez powiększania tablicy.
+     */
+    ZbiorLongow(int oczekiwanyRozmiar) {
+        int pojemność = 16;
+        while (pojemność < 2L * oczekiwanyRozmiar) pojemność <<= 1;
+        tablica = new long[pojemność];
+        Arrays.fill(tablica, PUSTE);
+    }
+
+    /**
+     * Miesza bity liczby (funkcja końcowa generatora SplitMix64).
+     *
+     * @param x - liczba do wymieszania.
+     * @return Wymieszana liczba.
+     */
+    static long mieszaj(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    /**
+     * Dodaje element do zbioru.
+     *
+     * @param element - element do dodania.
+     * @return Wartość true, jeśli elementu nie było wcześniej w zbiorze, wpp. false.
+     */
+    boolean dodaj(long element) {
+        int maska = tablica.length - 1;
+        int i = (int) mieszaj(element) & maska;
+        while (tablica[i] != PUSTE) {
+            if (tablica[i] == element) return false;
+            i = (i + 1) & maska;
+        }
+        tablica[i] = element;
+        if (++rozmiar * 2 > tablica.length) powiększ();
+        return true;
+    }
+
+    /**
+     * Sprawdza, czy element należy do zbioru.
+     *
+     * @param element - element.
+     * @return Wartość true, jeśli element należy do zbioru, wpp. false.
+     */
+    boolean zawiera(long element) {
+        int maska = tablica.length - 1;
+        int i = (int) mieszaj(element) & maska;
+        while (tablica[i] != PUSTE) {
+            if (tablica[i] == element) return true;
+            i = (i + 1) & maska;
+        }
+        return false;
+    }
+
+    /**
+     * Zwraca liczbę elementów w zbiorze.
+     *
+     * @return Liczba elementów.
+     */
+    int rozmiar() {
+        return rozmiar;
+    }
+
+    /**
+     * Dwukrotnie powiększa tablicę i ponownie rozmieszcza w niej elementy.
+     */
+    private void powiększ() {
+        long[] stara = tablica;
+        tablica = new long[2 * stara.length];
+        Arrays.fill(tablica, PUSTE);
+        int maska = tablica.length - 1;
+        for (long element : stara) {
+            if (element == PUSTE) continue;
+            int i = (int) mieszaj(element) & maska;
+            while (tablica[i] != PUSTE) i = (i + 1) & maska;
+            tablica[i] = element;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package symulator;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * Klasa reprezentująca zespół replikacji symulacji epidemii.
+ * Replikacje różnią się seedem (pierwsza ma seed z konfiguracji, kolejne seedy pochodne) i są
+ * wykonywane równolegle na ograniczonej liczbie wątków. Liczności kolejnych dni każdej
+ * replikacji są od razu dołączane do statystyk, więc przebiegi replikacji nie są
+ * przechowywane. Statystyki uzupełniane są w kolejności numerów replikacji, dzięki czemu
+ * raport zbiorczy nie zależy od liczby wątków.
+ *
+ * @author Magdalena Augustyńska
+ * @version 2018.0611
+ */
+public class Zespol {
+    /**
+     * Rzędy kwantyli podawanych w raporcie zbiorczym.
+     */
+    private static final double[] RZĘDY_KWANTYLI = {0.05, 0.5, 0.95};
+    /**
+     * Stany w kolejności, w jakiej podawane są liczności w raporcie.
+     */
+    private static final Stan[] STANY = {Stan.ZDROWY, Stan.CHORY, Stan.UODPORNIONY};
+
+    /**
+     * Obiekt klasy Konfiguracja.
+     * Zawiera parametry dla symulatora epidemii.
+     */
+    private Konfiguracja parametry;
+    /**
+     * Rodzaje agentów dla silnika obiektowego.
+     */
+    private List<RodzajAgenta> rodzaje;
+    /**
+     * Statystyki liczności kolejnych dni (od dnia 0) w kolejnych stanach.
+     */
+    private Statystyka[][] statystyki;
+    /**
+     * Liczba replikacji dołączonych do statystyk.
+     */
+    private int liczbaReplikacji;
+
+    /**
+     * Tworzy nowy obiekt klasy Zespol.
+     *
+     * @param parametry - obiekt zawierający parametry dla symulatora epidemii;
+     * @param rodzaje   - rodzaje agentów, spośród których losowane są rodzaje agentów.
+     */
+    public Zespol(Konfiguracja parametry, List<RodzajAgenta> rodzaje) {
+        this.parametry = parametry;
+        this.rodzaje = rodzaje;
+        statystyki = new Statystyka[parametry.getLiczbaDni() + 1][STANY.length];
+        for (Statystyka[] dzień : statystyki) {
+            for (int s = 0; s < STANY.length; s++) dzień[s] = new Statystyka(RZĘDY_KWANTYLI);
+        }
+    }
+
+    /**
+     * Wyznacza seed replikacji.
+     *
+     * @param seed - seed z konfiguracji;
+     * @param r    - numer replikacji (od 0).
+     * @return Seed replikacji.
+     */
+    static long seedReplikacji(long seed, int r) {
+        return (r == 0) ? seed : ZbiorLongow.mieszaj(seed + r * 0x9e3779b97f4a7c15L);
+    }
+
+    /**
+     * Przeprowadza jedną replikację.
+     *
+     * @param r - numer replikacji.
+     * @return Liczności kolejnych dni w kolejnych stanach.
+     */
+    private int[][] replikacja(int r) {
+        Konfiguracja k = parametry.replikacja(seedReplikacji(parametry.getSeed(), r));
+        int[][] przebieg = new int[k.getLiczbaDni() + 1][STANY.length];
+        ObserwatorDnia obserwator = (nrDnia, licznik) -> {
+            for (int s = 0; s < STANY.length; s++) przebieg[nrDnia][s] = licznik.liczba(STANY[s]);
+        };
+        if (k.getSilnik() == Silnik.KOLUMNOWY)
+            new PopulacjaKolumnowa(k, rodzaje).symulacja(obserwator);
+        else new Populacja(k).symulacja(rodzaje, obserwator);
+        return przebieg;
+    }
+
+    /**
+     * Dołącza przebieg replikacji do statystyk.
+     *
+     * @param przebieg - liczności kolejnych dni w kolejnych stanach.
+     */
+    private void dołącz(int[][] przebieg) {
+        for (int d = 0; d < przebieg.length; d++) {
+            for (int s = 0; s < STANY.length; s++) statystyki[d][s].dodaj(przebieg[d][s]);
+        }
+        liczbaReplikacji++;
+    }
+
+    /**
+     * Sprawdza, czy można przestać dokładać replikacje.
+     *
+     * @return Wartość true, jeśli statystyki są wystarczająco dokładne, wpp. false.
+     */
+    private boolean czyKoniec() {
+        if (liczbaReplikacji < parametry.getReplikacje()) return false;
+        if (parametry.getSzerokośćPrzedziału() == 0) return true;
+        if (liczbaReplikacji >= parametry.getMaksReplikacji()) return true;
+        for (Statystyka[] dzień : statystyki) {
+            for (Statystyka statystyka : dzień) {
+                if (statystyka.szerokośćPrzedziału() > parametry.getSzerokośćPrzedziału())
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Przeprowadza symulację zespołu.
+     * Jednocześnie wykonywanych lub czekających na dołączenie jest najwyżej dwa razy tyle
+     * replikacji, ile jest wątków. Decyzja o zakończeniu zależy tylko od replikacji już
+     * dołączonych, a replikacje rozpoczęte ponad potrzebę są pomijane.
+     *
+     * @return Raport zbiorczy.
+     */
+    public String symulacja() throws InterruptedException, ExecutionException {
+        int wątki = parametry.getWątki();
+        int limit = (parametry.getSzerokośćPrzedziału() > 0) ? parametry.getMaksReplikacji() :
+                parametry.getReplikacje();
+        ExecutorService wykonawca = Executors.newFixedThreadPool(wątki, zadanie -> {
+            Thread wątek = new Thread(zadanie, "replikacja");
+            wątek.setDaemon(true);
+            return wątek;
+        });
+        ArrayDeque<Future<int[][]>> wToku = new ArrayDeque<>();
+        int rozpoczęte = 0;
+        try {
+            while (!czyKoniec()) {
+                while (rozpoczęte < limit && wToku.size() < 2 * wątki) {
+                    int r = rozpoczęte++;
+                    wToku.add(wykonawca.submit(() -> replikacja(r)));
+                }
+                dołącz(wToku.poll().get());
+            }
+        } finally {
+            for (Future<int[][]> zadanie : wToku) zadanie.cancel(true);
+            wykonawca.shutdownNow();
+        }
+        return toString();
+    }
+
+    /**
+     * Zwraca raport zbiorczy.
+     * Dla każdego dnia (od stanu początkowego) podawane są kolejno dla zdrowych, chorych
+     * i uodpornionych: średnia, odchylenie standardowe, 5. percentyl, mediana i 95. percentyl
+     * liczności.
+     *
+     * @return Napis.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("# replikacje: ");
+        s.append(liczbaReplikacji);
+        s.append(System.lineSeparator());
+        s.append("# liczność w kolejnych dniach jako: średnia odchylenie q5 mediana q95 dla " +
+                "zdrowych, chorych i uodpornionych");
+        s.append(System.lineSeparator());
+        for (Statystyka[] dzień : statystyki) {
+            for (int i = 0; i < dzień.length; i++) {
+                if (i > 0) s.append("  ");
+                s.append(String.format(Locale.ROOT, "%.2f %.2f %.1f %.1f %.1f", dzień[i].średnia(),
+                        Math.sqrt(dzień[i].wariancja()), dzień[i].kwantyl(0), dzień[i].kwantyl(1),
+                        dzień[i].kwantyl(2)));
+            }
+            s.append(System.lineSeparator());
+        }
+        return s.toString();
+    }
+}